@@ -5,7 +5,9 @@ import java.awt.*;
 import java.awt.event.ActionEvent; // No se usa directamente aún, pero es común
 import java.awt.event.ActionListener; // No se usa directamente aún, pero es común
 import java.util.List; // Importación correcta para List
-import java.util.ArrayList; // Importación para ArrayList
+import com.example.tac.Instruction;
+import com.example.tac.PassManager;
+import com.example.tac.TacPrinter;
 
 public class AnalizadorAppGUI extends JFrame {
 
@@ -19,6 +21,7 @@ public class AnalizadorAppGUI extends JFrame {
     private JTextArea areaCodigoTresDirecciones; // Nueva área para el Código de 3 Direcciones
     private JTextArea areaCodigoOptimizado; // Nueva área para el Código Optimizado
     private JTextArea areaCodigoAssembler;
+    private JTextArea areaEstadisticas;
     private JTable tablaSimbolos;
     private JLabel etiquetaEstado;
     private TokenTableModel tokenTableModel;
@@ -105,6 +108,13 @@ public class AnalizadorAppGUI extends JFrame {
         JScrollPane scrollCodigoAssembler = new JScrollPane(areaCodigoAssembler);
         panelPestanasSalida.addTab("Cód. Assembler", scrollCodigoAssembler);
 
+        // Pestaña para Estadísticas de compilación
+        areaEstadisticas = new JTextArea();
+        areaEstadisticas.setEditable(false);
+        areaEstadisticas.setFont(new Font("Monospaced", Font.PLAIN, 12));
+        JScrollPane scrollEstadisticas = new JScrollPane(areaEstadisticas);
+        panelPestanasSalida.addTab("Estadísticas", scrollEstadisticas);
+
         // Pestaña para Tabla de Símbolos
         simboloTableModel = new SimboloTableModel();
         tablaSimbolos = new JTable(simboloTableModel);
@@ -137,13 +147,14 @@ public class AnalizadorAppGUI extends JFrame {
         areaCodigoTresDirecciones.setText(""); // Limpiar área de código de 3 direcciones
         areaCodigoOptimizado.setText(""); // Limpiar área de código optimizado
         areaCodigoAssembler.setText(""); // Limpiar área de código assembler
+        areaEstadisticas.setText("");
         etiquetaEstado.setText("Analizando...");
         if (tokenTableModel != null) tokenTableModel.clearData();
         if (simboloTableModel != null) simboloTableModel.clearData();
 
 
         Lexer lexer = new Lexer();
-        List<Token> tokens = lexer.analyze(codigoFuente);
+        TokenBuffer tokens = lexer.tokenize(codigoFuente);
         List<ErrorCompilacion> erroresLexicos = lexer.getErroresLexicos();
 
         // Actualizar tabla de tokens
@@ -160,41 +171,31 @@ public class AnalizadorAppGUI extends JFrame {
             return; // Detener si hay errores léxicos
         }
 
-        // Si no hay errores léxicos, proceder con el análisis sintáctico
-        // Filtrar tokens de error (aunque ya deberían estar en la lista de errores)
-        List<Token> tokensParaParser = new ArrayList<>();
-        for (Token t : tokens) {
-            if (t.getType() != TokenType.ERROR) {
-                tokensParaParser.add(t);
-            }
-        }
-
-        if (tokensParaParser.isEmpty() && !codigoFuente.trim().isEmpty() && !isOnlyComments(codigoFuente, tokens)) {
+        // Si no hay errores léxicos, el buffer no tiene tokens de error y el parser lo consume directamente
+        if (tokens.size() == 0 && !codigoFuente.trim().isEmpty() && !isOnlyComments(codigoFuente, tokens)) {
             ErrorCompilacion err = new ErrorCompilacion(ErrorCompilacion.TipoError.LEXICO, "El código no produjo tokens válidos para el análisis sintáctico.", 1, 1, "");
             areaErrores.append(err.toString() + "\n");
             etiquetaEstado.setText("Código Rechazado (Error Léxico Crítico)");
             return;
         }
-        if (tokensParaParser.isEmpty() && (codigoFuente.trim().isEmpty() || isOnlyComments(codigoFuente, tokens))) {
+        if (tokens.size() == 0 && (codigoFuente.trim().isEmpty() || isOnlyComments(codigoFuente, tokens))) {
              etiquetaEstado.setText("Listo (Archivo vacío o solo comentarios)");
              areaLogSintactico.setText("No se requiere análisis sintáctico para archivo vacío o solo con comentarios.");
              return;
         }
 
 
-        SyntaxAnalyzer syntaxAnalyzer = new SyntaxAnalyzer(tokensParaParser);
+        SyntaxAnalyzer syntaxAnalyzer = new SyntaxAnalyzer(tokens.stream());
+        ParseLog logSintaxis = new ParseLog(tokens); // Reglas y acciones, como texto solo al mostrarlas
+        syntaxAnalyzer.setParseListener(logSintaxis);
         syntaxAnalyzer.parse();
         List<ErrorCompilacion> erroresSintacticos = syntaxAnalyzer.getErroresSintacticos();
-        List<String> logSintaxis = syntaxAnalyzer.getSyntaxLog(); // Incluye errores y reglas
 
-        for (String logEntry : logSintaxis) {
-            if (logEntry.startsWith("Regla/Acción Sintáctica:")) {
-                 areaLogSintactico.append(logEntry + "\n");
-            }
-            // Los errores sintácticos ya están formateados en el log por reportError
-            // Si queremos listarlos por separado de la lista erroresSintacticos:
-            // areaErrores.append(logEntry + "\n"); // Si el logEntry es un error
+        StringBuilder textoLog = new StringBuilder();
+        for (int i = 0; i < logSintaxis.size(); i++) {
+            textoLog.append(logSintaxis.getLinea(i)).append("\n");
         }
+        areaLogSintactico.append(textoLog.toString());
 
         // Imprimir errores sintácticos de forma dedicada si existen
         if (!erroresSintacticos.isEmpty()) {
@@ -206,7 +207,7 @@ public class AnalizadorAppGUI extends JFrame {
         // Mostrar Tabla de Símbolos
         TablaDeSimbolos tablaSimbolosObj = syntaxAnalyzer.getTablaDeSimbolos();
         if (simboloTableModel != null && tablaSimbolosObj != null) {
-            simboloTableModel.setSimbolos(tablaSimbolosObj.getSimbolosAsCollection());
+            simboloTableModel.setSimbolos(tablaSimbolosObj.snapshot());
         }
 
         // Obtener y Mostrar AST si no hay errores sintácticos
@@ -224,21 +225,27 @@ public class AnalizadorAppGUI extends JFrame {
 
                 // Generación de Código de Tres Direcciones
                 ThreeAddressCodeGenerator codeGenerator = new ThreeAddressCodeGenerator();
-                List<String> threeAddressCode = codeGenerator.generate(astRoot);
-                areaCodigoTresDirecciones.setText(String.join("\n", threeAddressCode));
+                List<Instruction> threeAddressCode = codeGenerator.generate(astRoot);
+                areaCodigoTresDirecciones.setText(TacPrinter.print(threeAddressCode));
                 areaCodigoTresDirecciones.setCaretPosition(0);
 
                 // Optimización del Código
                 CodeOptimizer optimizer = new CodeOptimizer(threeAddressCode);
-                List<String> optimizedCode = optimizer.optimize();
-                areaCodigoOptimizado.setText(String.join("\n", optimizedCode));
+                List<Instruction> optimizedCode = optimizer.optimize();
+                areaCodigoOptimizado.setText(TacPrinter.print(optimizedCode));
                 areaCodigoOptimizado.setCaretPosition(0);
+                areaEstadisticas.append("Pases de optimización:\n");
+                for (PassManager.Statistics estadistica : optimizer.getPassStatistics()) {
+                    areaEstadisticas.append("  " + estadistica + "\n");
+                }
 
                 // Generación de Código Assembler
                 AssemblyGenerator assembler = new AssemblyGenerator(optimizedCode, tablaSimbolosObj);
                 String assemblyCode = assembler.generate();
                 areaCodigoAssembler.setText(assemblyCode);
                 areaCodigoAssembler.setCaretPosition(0);
+                areaEstadisticas.append("Código assembler:\n");
+                areaEstadisticas.append("  " + assembler.getTempCompaction() + "\n");
 
             } else {
                 // Esto podría pasar si parse() devuelve null incluso sin errores en la lista,
@@ -251,6 +258,7 @@ public class AnalizadorAppGUI extends JFrame {
             areaCodigoTresDirecciones.setText("No se generó el Código de 3 Direcciones debido a errores sintácticos.");
             areaCodigoOptimizado.setText("No se generó el Código Optimizado debido a errores sintácticos.");
             areaCodigoAssembler.setText("No se generó el Código Assembler debido a errores sintácticos.");
+            areaEstadisticas.setText("No hay estadísticas de compilación debido a errores sintácticos.");
         }
 
 
@@ -271,10 +279,10 @@ public class AnalizadorAppGUI extends JFrame {
     }
 
     // Helper para verificar si el código solo tiene comentarios (si se mueve de Main)
-     private boolean isOnlyComments(String code, List<Token> tokens) {
+     private boolean isOnlyComments(String code, TokenBuffer tokens) {
         if (code.trim().isEmpty()) return true;
-        for (Token t : tokens) {
-            if (t.getType() != TokenType.COMMENT) {
+        for (int i = 0; i < tokens.size(); i++) {
+            if (tokens.getType(i) != TokenType.COMMENT) {
                 return false;
             }
         }
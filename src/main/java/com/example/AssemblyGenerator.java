@@ -1,59 +1,137 @@
 package com.example;
 
+import com.example.tac.ControlFlowGraph;
+import com.example.tac.Instruction;
+import com.example.tac.LinearScanAllocator;
+import com.example.tac.Opcode;
+import com.example.tac.Operand;
+import com.example.tac.TacPrinter;
+import com.example.tac.TempCompaction;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 public class AssemblyGenerator {
 
-    private List<String> optimizedCode;
+    // Registros para variables y temporales, en orden de preferencia. Ni print_number ni las
+    // llamadas al sistema los modifican; eax, ecx y edx quedan libres como registros de trabajo.
+    private static final List<String> REGISTROS = Arrays.asList(
+            "ebx", "r12d", "r13d", "r14d", "r15d", "r8d", "r9d", "r10d");
+
+    private static final Map<Opcode, String> MNEMONICOS = new EnumMap<>(Opcode.class);
+    static {
+        MNEMONICOS.put(Opcode.ADD, "add");
+        MNEMONICOS.put(Opcode.SUB, "sub");
+        MNEMONICOS.put(Opcode.MUL, "imul");
+        MNEMONICOS.put(Opcode.AND, "and");
+        MNEMONICOS.put(Opcode.OR, "or");
+        MNEMONICOS.put(Opcode.SHL, "shl");
+        MNEMONICOS.put(Opcode.SHR, "sar");
+        MNEMONICOS.put(Opcode.USHR, "shr");
+        MNEMONICOS.put(Opcode.EQ, "sete");
+        MNEMONICOS.put(Opcode.NE, "setne");
+        MNEMONICOS.put(Opcode.LT, "setl");
+        MNEMONICOS.put(Opcode.LE, "setle");
+        MNEMONICOS.put(Opcode.GT, "setg");
+        MNEMONICOS.put(Opcode.GE, "setge");
+    }
+
+    // Salto si la comparación se cumple, y si no se cumple (enteros: no hay NaN)
+    private static final Map<Opcode, String> SALTOS = new EnumMap<>(Opcode.class);
+    private static final Map<Opcode, String> SALTOS_CONTRARIOS = new EnumMap<>(Opcode.class);
+    static {
+        SALTOS.put(Opcode.EQ, "je");
+        SALTOS.put(Opcode.NE, "jne");
+        SALTOS.put(Opcode.LT, "jl");
+        SALTOS.put(Opcode.LE, "jle");
+        SALTOS.put(Opcode.GT, "jg");
+        SALTOS.put(Opcode.GE, "jge");
+        SALTOS_CONTRARIOS.put(Opcode.EQ, "jne");
+        SALTOS_CONTRARIOS.put(Opcode.NE, "je");
+        SALTOS_CONTRARIOS.put(Opcode.LT, "jge");
+        SALTOS_CONTRARIOS.put(Opcode.LE, "jg");
+        SALTOS_CONTRARIOS.put(Opcode.GT, "jle");
+        SALTOS_CONTRARIOS.put(Opcode.GE, "jl");
+    }
+
+    private List<Instruction> optimizedCode;
     private TablaDeSimbolos symbolTable;
+    private IndiceDeSimbolos symbols; // Vista indexada de symbolTable, construida al generar
     private StringBuilder dataSection;
     private StringBuilder textSection;
     private Map<String, String> stringLiterals;
     private int stringLiteralCounter;
-    private Map<String, String> tempVarValues;
     private Map<String, String> declaredVariables; // Nuevas variables detectadas
+    private LinearScanAllocator registers;
+    private TempCompaction tempSlots;
+    private Map<Operand, Integer> reads;  // Lecturas de cada nombre en todo el programa
+    private int position;                 // Instrucción que se está traduciendo
+    private Opcode comparisonInFlags;     // Comparación cuyo resultado está en las banderas
 
-    public AssemblyGenerator(List<String> optimizedCode, TablaDeSimbolos symbolTable) {
+    public AssemblyGenerator(List<Instruction> optimizedCode, TablaDeSimbolos symbolTable) {
         this.optimizedCode = optimizedCode;
         this.symbolTable = symbolTable;
         this.dataSection = new StringBuilder();
         this.textSection = new StringBuilder();
         this.stringLiterals = new HashMap<>();
         this.stringLiteralCounter = 1;
-        this.tempVarValues = new HashMap<>();
         this.declaredVariables = new HashMap<>();
     }
 
     public String generate() {
+        symbols = IndiceDeSimbolos.de(symbolTable);
+
         // Primer pase: detectar todas las variables declaradas
         detectVariables();
 
-        // Inicializar secciones
+        // Asignar registros: solo las variables que no quepan en ellos van a memoria
+        registers = LinearScanAllocator.allocate(ControlFlowGraph.build(optimizedCode), REGISTROS);
+        Set<String> inRegisters = new HashSet<>(); // O temporales, que no tienen espacio propio
+        Set<String> inMemory = new LinkedHashSet<>();
+        List<LinearScanAllocator.Interval> spilled = new ArrayList<>();
+        for (LinearScanAllocator.Interval interval : registers.getIntervals()) {
+            if (interval.getRegister() != null || interval.getName().isTemp()) {
+                inRegisters.add(interval.getName().toString());
+            }
+            if (interval.getRegister() == null) {
+                spilled.add(interval);
+            }
+        }
+        // Los temporales que no caben en registros comparten espacios si no viven a la vez
+        tempSlots = TempCompaction.of(spilled);
+
+        // Inicializar secciones; la cabecera dice cuántos espacios de .data ahorró la compactación
+        dataSection.append("; ").append(tempSlots).append('\n');
         dataSection.append("section .data\n");
 
         // Declarar variables de la tabla de símbolos
-        for (Simbolo symbol : symbolTable.getSimbolosAsCollection()) {
-            if (symbol.getTipo().equals("Entero") || symbol.getTipo().equals("ENTERO")) {
-                dataSection.append(String.format("    %s dd 0\n", symbol.getNombre()));
-                declaredVariables.put(symbol.getNombre(), "ENTERO");
-            } else if (symbol.getTipo().equals("Boolean") || symbol.getTipo().equals("BOOLEAN")
-                    || symbol.getTipo().equals("Logico") || symbol.getTipo().equals("LOGICO")) {
-                dataSection.append(String.format("    %s dd 0\n", symbol.getNombre()));
-                declaredVariables.put(symbol.getNombre(), "BOOLEAN");
+        for (int id : symbols.getEnDatos()) {
+            String name = symbols.getNombre(id);
+            declaredVariables.put(name, symbols.getTipo(id));
+            if (!inRegisters.contains(name)) {
+                inMemory.add(name);
             }
         }
 
         // Declarar variables adicionales detectadas en el código optimizado
-        for (Map.Entry<String, String> entry : declaredVariables.entrySet()) {
-            String varName = entry.getKey();
-            // Solo declarar si no fue declarada por la tabla de símbolos
-            if (!isInSymbolTable(varName)) {
-                dataSection.append(String.format("    %s dd 0\n", varName));
+        for (String varName : declaredVariables.keySet()) {
+            if (!inRegisters.contains(varName)) {
+                inMemory.add(varName);
             }
         }
+        for (LinearScanAllocator.Interval interval : spilled) {
+            Operand name = interval.getName();
+            inMemory.add((name.isTemp() ? tempSlots.getSlot(name) : name).toString());
+        }
+        for (String varName : inMemory) {
+            dataSection.append(String.format("    %s dd 0\n", varName));
+        }
 
         textSection.append("\nsection .text\n");
         textSection.append("    global _start\n\n");
@@ -63,16 +141,33 @@ public class AssemblyGenerator {
 
         textSection.append("_start:\n");
 
-        // Procesar código optimizado línea por línea
-        for (String line : optimizedCode) {
-            processLine(line.trim());
+        // Las variables en memoria empiezan en 0; las que viven en un registro también
+        for (Operand name : registers.getLiveOnEntry()) {
+            String register = registers.getRegister(name);
+            if (register != null) {
+                emit("xor " + register + ", " + register);
+            }
         }
 
-        // Finalizar programa
-        textSection.append("\n    ; Terminar programa\n");
-        textSection.append("    mov rax, 60\n");
-        textSection.append("    mov rdi, 0\n");
-        textSection.append("    syscall\n");
+        // Una comparación que solo lee el salto siguiente no se guarda: el salto usa las banderas
+        reads = new HashMap<>();
+        for (Instruction instruction : optimizedCode) {
+            for (Operand operand : instruction.getOperands()) {
+                if (operand.isName()) {
+                    reads.merge(operand, 1, Integer::sum);
+                }
+            }
+        }
+
+        // Procesar código optimizado instrucción por instrucción
+        for (position = 0; position < optimizedCode.size(); position++) {
+            processInstruction(optimizedCode.get(position));
+        }
+
+        // Finalizar programa, si el código no acaba en END
+        if (optimizedCode.isEmpty() || optimizedCode.get(optimizedCode.size() - 1).getOpcode() != Opcode.END) {
+            handleEnd();
+        }
 
         // Añadir literales de cadena y buffer a .data
         for (Map.Entry<String, String> entry : stringLiterals.entrySet()) {
@@ -80,58 +175,59 @@ public class AssemblyGenerator {
             String content = literal.substring(1, literal.length() - 1); // Quitar comillas
             dataSection.append(String.format("    %s db '%s', 0\n", entry.getValue(), content));
         }
-        if (!stringLiterals.isEmpty()) {
-            dataSection.append("    newline db 10, 0\n");
-            dataSection.append("    buffer db 12 dup(0)\n");
-        }
+        // print_number y el salto de línea de PRINT los usan siempre
+        dataSection.append("    newline db 10, 0\n");
+        dataSection.append("    buffer db 12 dup(0)\n");
 
         return dataSection.toString() + textSection.toString();
     }
 
-    private void detectVariables() {
-        for (String line : optimizedCode) {
-            line = line.trim();
-            if (line.isEmpty() || line.equals("END"))
-                continue;
-
-            String[] parts = line.split(" ");
+    /**
+     * @return Cuántos temporales necesitaron memoria y en cuántos espacios de .data quedaron;
+     *         null antes de {@link #generate()}.
+     */
+    public TempCompaction getTempCompaction() {
+        return tempSlots;
+    }
 
+    private void detectVariables() {
+        for (Instruction instruction : optimizedCode) {
             // Detectar declaraciones DECLARE
-            if (parts.length >= 3 && parts[0].equals("DECLARE")) {
-                String varName = parts[1];
-                String type = parts[2];
-                declaredVariables.put(varName, type);
+            if (instruction.getOpcode() == Opcode.DECLARE) {
+                declaredVariables.put(instruction.getDest().getName(), instruction.getDeclaredType());
             }
 
             // Detectar asignaciones para encontrar variables no declaradas
-            if (line.contains(" = ")) {
-                String[] assignParts = line.split(" = ");
-                if (assignParts.length == 2) {
-                    String varName = assignParts[0].trim();
-                    // Si no está en la tabla de símbolos y no la hemos visto antes
-                    if (!isInSymbolTable(varName) && !declaredVariables.containsKey(varName)) {
-                        // Inferir el tipo basado en el valor asignado
-                        String value = assignParts[1].trim();
-                        if (value.equalsIgnoreCase("TRUE") || value.equalsIgnoreCase("FALSE")) {
-                            declaredVariables.put(varName, "BOOLEAN");
-                        } else if (isNumeric(value)) {
-                            declaredVariables.put(varName, "ENTERO");
-                        } else {
-                            declaredVariables.put(varName, "ENTERO"); // Por defecto
-                        }
+            if (instruction.isAssignment()) {
+                String varName = instruction.getDest().getName();
+                // Si no está en la tabla de símbolos y no la hemos visto antes
+                if (!isInSymbolTable(varName) && !declaredVariables.containsKey(varName)) {
+                    // Inferir el tipo basado en el valor asignado
+                    if (isBooleanValue(instruction)) {
+                        declaredVariables.put(varName, "BOOLEAN");
+                    } else {
+                        declaredVariables.put(varName, "ENTERO"); // Por defecto
                     }
                 }
             }
         }
     }
 
-    private boolean isInSymbolTable(String varName) {
-        for (Simbolo symbol : symbolTable.getSimbolosAsCollection()) {
-            if (symbol.getNombre().equals(varName)) {
-                return true;
-            }
+    private boolean isBooleanValue(Instruction assignment) {
+        Opcode opcode = assignment.getOpcode();
+        if (opcode.isComparison() || opcode == Opcode.AND || opcode == Opcode.OR) {
+            return true;
+        }
+        if (opcode != Opcode.COPY) {
+            return false;
         }
-        return false;
+        Operand source = assignment.getOperand(0);
+        return source.getKind() == Operand.Kind.BOOLEAN
+                || source.isName() && "BOOLEAN".equals(getVariableType(source.getName()));
+    }
+
+    private boolean isInSymbolTable(String varName) {
+        return symbols.contiene(varName);
     }
 
     private void addPrintNumberFunction() {
@@ -179,117 +275,185 @@ public class AssemblyGenerator {
         textSection.append("    ret\n\n");
     }
 
-    private void processLine(String line) {
-        if (line.isEmpty() || line.equals("END"))
-            return;
+    private void processInstruction(Instruction instruction) {
+        switch (instruction.getOpcode()) {
+            case DECLARE: // Ya se procesaron en detectVariables()
+            case ERROR:
+                return;
+            case END:
+                handleEnd();
+                return;
+            case LABEL:
+                textSection.append(instruction.getLabel() + ":\n");
+                return;
+            case PRINT:
+                handlePrint(instruction);
+                return;
+            case READ:
+                handleRead(instruction);
+                return;
+            case IF:
+            case IF_FALSE:
+                handleIfGoto(instruction);
+                return;
+            case GOTO:
+                handleGoto(instruction);
+                return;
+            case COPY:
+                handleCopy(instruction);
+                return;
+            default: // Operaciones binarias
+                handleBinary(instruction);
+        }
+    }
 
-        String[] parts = line.split(" ");
-        if (parts.length == 0)
-            return;
+    private void handleRead(Instruction instruction) {
+        // La entrada aún no se traduce; la variable queda en 0 en vez de conservar lo que
+        // hubiera en su registro
+        textSection.append(String.format("    ; read %s\n", instruction.getDest()));
+        emit("mov " + location(instruction.getDest()) + ", 0");
+    }
 
-        // Manejar declaraciones
-        if (parts[0].equals("DECLARE")) {
-            // Ya se procesaron en detectVariables()
+    private void handleCopy(Instruction instruction) {
+        textSection.append(String.format("    ; %s = %s\n", instruction.getDest(), TacPrinter.source(instruction)));
+        String dest = location(instruction.getDest());
+        String source = location(instruction.getOperand(0));
+        if (source == null) {
+            textSection.append("    ; Valor no entero: no se traduce\n");
             return;
         }
-
-        // Manejar etiquetas
-        if (line.endsWith(":")) {
-            textSection.append(line + "\n");
+        if (dest.equals(source)) {
+            // Mismo registro: la copia desaparece
             return;
         }
-
-        // Manejar asignaciones
-        if (line.contains(" = ")) {
-            handleAssignment(line);
-        }
-        // Manejar PRINT
-        else if (parts[0].equals("PRINT")) {
-            handlePrint(line);
-        }
-        // Manejar IF GOTO
-        else if (parts[0].equals("IF")) {
-            handleIfGoto(line);
-        }
-        // Manejar GOTO simple
-        else if (parts[0].equals("GOTO")) {
-            handleGoto(line);
+        if (isMemory(dest) && isMemory(source)) {
+            emit("mov eax, " + source);
+            emit("mov " + dest + ", eax");
+        } else {
+            emit("mov " + dest + ", " + source);
         }
     }
 
-    private void handleAssignment(String line) {
-        String[] parts = line.split(" = ");
-        if (parts.length != 2)
+    private void handleBinary(Instruction instruction) {
+        textSection.append(String.format("    ; %s = %s\n", instruction.getDest(), TacPrinter.source(instruction)));
+        Opcode opcode = instruction.getOpcode();
+        String dest = location(instruction.getDest());
+        String left = location(instruction.getOperand(0));
+        String right = location(instruction.getOperand(1));
+        if (left == null || right == null) {
+            textSection.append("    ; Valor no entero: no se traduce\n");
             return;
-
-        String dest = parts[0].trim();
-        String source = parts[1].trim();
-
-        textSection.append(String.format("    ; %s = %s\n", dest, source));
-
-        // Si la fuente es una variable temporal, usar su valor conocido
-        if (tempVarValues.containsKey(source)) {
-            source = tempVarValues.get(source);
         }
 
-        // Si el destino es una variable temporal, almacenar su valor
-        if (isNumeric(source)) {
-            // Es un número
-            tempVarValues.put(dest, source);
+        if (opcode == Opcode.DIV) {
+            // idiv divide edx:eax; el divisor no puede ser inmediato
+            emit("mov eax, " + left);
+            emit("cdq");
+            if (isImmediate(right)) {
+                emit("mov ecx, " + right);
+                right = "ecx";
+            }
+            emit("idiv " + right);
+            emit("mov " + dest + ", eax");
+            return;
+        }
 
-            // Si también es una variable declarada, generar código assembly
-            if (isVariableDeclaredAnywhere(dest)) {
-                textSection.append(String.format("    mov dword [%s], %s\n", dest, source));
+        if (opcode.isComparison()) {
+            // cmp no admite un inmediato a la izquierda ni dos operandos en memoria
+            if (isImmediate(left) || isMemory(left) && isMemory(right)) {
+                emit("mov eax, " + left);
+                left = "eax";
+            }
+            emit("cmp " + left + ", " + right);
+            Instruction next = position + 1 < optimizedCode.size() ? optimizedCode.get(position + 1) : null;
+            if (next != null && next.isConditionalJump() && next.getOperand(0).equals(instruction.getDest())) {
+                // El salto siguiente compara y salta a la vez
+                comparisonInFlags = opcode;
+                if (reads.get(instruction.getDest()) == 1) {
+                    return;
+                }
             }
-        } else if (source.equalsIgnoreCase("TRUE")) {
-            // Booleano TRUE
-            tempVarValues.put(dest, "1");
-            if (isVariableDeclaredAnywhere(dest)) {
-                textSection.append(String.format("    mov dword [%s], 1\n", dest));
+            emit(MNEMONICOS.get(opcode) + " al");
+            if (isMemory(dest)) {
+                emit("movzx eax, al");
+                emit("mov " + dest + ", eax");
+            } else {
+                emit("movzx " + dest + ", al");
             }
-        } else if (source.equalsIgnoreCase("FALSE")) {
-            // Booleano FALSE
-            tempVarValues.put(dest, "0");
-            if (isVariableDeclaredAnywhere(dest)) {
-                textSection.append(String.format("    mov dword [%s], 0\n", dest));
+            return;
+        }
+
+        if (opcode.isShift() && !isImmediate(right)) {
+            // Un desplazamiento variable va en cl; se carga antes de pisar el destino
+            emit("mov ecx, " + right);
+            right = "cl";
+        }
+        String mnemonic = MNEMONICOS.get(opcode);
+        boolean commutative = opcode == Opcode.ADD || opcode == Opcode.MUL || opcode == Opcode.AND || opcode == Opcode.OR;
+        if (!isMemory(dest) && (!dest.equals(right) || dest.equals(left))) {
+            // dest = left; dest op= right
+            if (!dest.equals(left)) {
+                emit("mov " + dest + ", " + left);
             }
+            emit(mnemonic + " " + dest + ", " + right);
+        } else if (!isMemory(dest) && commutative) {
+            // El destino ya tiene el operando derecho
+            emit(mnemonic + " " + dest + ", " + left);
         } else {
-            // Es una variable
-            if (isVariableDeclaredAnywhere(source)) {
-                textSection.append(String.format("    mov eax, [%s]\n", source));
-                if (isVariableDeclaredAnywhere(dest)) {
-                    textSection.append(String.format("    mov [%s], eax\n", dest));
+            emit("mov eax, " + left);
+            emit(mnemonic + " eax, " + right);
+            emit("mov " + dest + ", eax");
+        }
+    }
+
+    /**
+     * @return Dónde está el valor del operando: un registro, {@code dword [nombre]} o un
+     *         inmediato; null si no es un entero ni un booleano.
+     */
+    private String location(Operand operand) {
+        switch (operand.getKind()) {
+            case INTEGER:
+                return String.valueOf(operand.getIntValue());
+            case BOOLEAN:
+                return operand.getBooleanValue() ? "1" : "0";
+            case VARIABLE:
+            case TEMP:
+                String register = registers.getRegister(operand);
+                if (register != null) {
+                    return register;
                 }
-                // Almacenar en tempVarValues como referencia a variable
-                tempVarValues.put(dest, source);
-            }
+                Operand slot = operand.isTemp() ? tempSlots.getSlot(operand) : operand;
+                return "dword [" + slot.getName() + "]";
+            default:
+                return null;
         }
     }
 
-    private void handlePrint(String line) {
-        // PRINT "texto", variable, "más texto"
-        String content = line.substring(5).trim(); // Quitar "PRINT"
-        textSection.append(String.format("    ; PRINT %s\n", content));
+    private static boolean isImmediate(String location) {
+        return Character.isDigit(location.charAt(0)) || location.charAt(0) == '-';
+    }
 
-        // Si la línea está vacía después de quitar PRINT, salir
-        if (content.isEmpty()) {
-            return;
-        }
+    private static boolean isMemory(String location) {
+        return location.startsWith("dword [");
+    }
 
-        // Dividir por comas pero preservar las comillas
-        List<String> items = parseCommaSeparated(content);
+    private void emit(String instruction) {
+        textSection.append("    ").append(instruction).append('\n');
+    }
 
-        // Si no hay items, intentar procesar la línea completa como un solo item
-        if (items.isEmpty()) {
-            items.add(content);
+    private void handlePrint(Instruction print) {
+        // PRINT "texto", variable, "más texto"
+        textSection.append(String.format("    ; PRINT %s\n", TacPrinter.items(print)));
+
+        // Si no hay nada que imprimir, salir
+        if (print.getOperandCount() == 0) {
+            return;
         }
 
-        for (String item : items) {
-            item = item.trim();
-            if (item.isEmpty())
-                continue;
+        for (Operand operand : print.getOperands()) {
+            String item = operand.toString();
 
-            if (item.startsWith("\"") && item.endsWith("\"")) {
+            if (operand.getKind() == Operand.Kind.STRING) {
                 // Es un literal de cadena
                 String label = getStringLiteralLabel(item);
                 int length = item.length() - 2; // Quitar las comillas
@@ -302,7 +466,7 @@ public class AssemblyGenerator {
                 // Es un número literal
                 textSection.append(String.format("    mov eax, %s\n", item));
                 textSection.append("    call print_number\n");
-            } else if (item.equalsIgnoreCase("TRUE")) {
+            } else if (operand.equals(Operand.TRUE)) {
                 // Booleano TRUE - imprimir "TRUE"
                 String trueLabel = getStringLiteralLabel("\"TRUE\"");
                 textSection.append("    mov rax, 1\n");
@@ -310,7 +474,7 @@ public class AssemblyGenerator {
                 textSection.append(String.format("    mov rsi, %s\n", trueLabel));
                 textSection.append("    mov rdx, 4\n");
                 textSection.append("    syscall\n");
-            } else if (item.equalsIgnoreCase("FALSE")) {
+            } else if (operand.equals(Operand.FALSE)) {
                 // Booleano FALSE - imprimir "FALSE"
                 String falseLabel = getStringLiteralLabel("\"FALSE\"");
                 textSection.append("    mov rax, 1\n");
@@ -318,69 +482,40 @@ public class AssemblyGenerator {
                 textSection.append(String.format("    mov rsi, %s\n", falseLabel));
                 textSection.append("    mov rdx, 5\n");
                 textSection.append("    syscall\n");
-            } else {
+            } else if (operand.isName()) {
                 // Es una variable o temporal
-                String value = tempVarValues.get(item);
-                if (value != null) {
-                    if (isNumeric(value)) {
-                        // Variable temporal con valor numérico conocido
-                        textSection.append(String.format("    mov eax, %s\n", value));
-                        textSection.append("    call print_number\n");
-                    } else if (value.equals("1")) {
-                        // Booleano TRUE
-                        String trueLabel = getStringLiteralLabel("\"TRUE\"");
-                        textSection.append("    mov rax, 1\n");
-                        textSection.append("    mov rdi, 1\n");
-                        textSection.append(String.format("    mov rsi, %s\n", trueLabel));
-                        textSection.append("    mov rdx, 4\n");
-                        textSection.append("    syscall\n");
-                    } else if (value.equals("0")) {
-                        // Booleano FALSE
-                        String falseLabel = getStringLiteralLabel("\"FALSE\"");
-                        textSection.append("    mov rax, 1\n");
-                        textSection.append("    mov rdi, 1\n");
-                        textSection.append(String.format("    mov rsi, %s\n", falseLabel));
-                        textSection.append("    mov rdx, 5\n");
-                        textSection.append("    syscall\n");
-                    } else if (isVariableDeclaredAnywhere(value)) {
-                        // Referencia a otra variable
-                        textSection.append(String.format("    mov eax, [%s]\n", value));
-                        textSection.append("    call print_number\n");
-                    }
-                } else if (isVariableDeclaredAnywhere(item)) {
-                    // Variable declarada
-                    String varType = getVariableType(item);
-                    if (varType != null && (varType.equals("BOOLEAN") || varType.equals("Boolean"))) {
-                        // Variable booleana - verificar valor y imprimir TRUE/FALSE
-                        String trueLabel = getStringLiteralLabel("\"TRUE\"");
-                        String falseLabel = getStringLiteralLabel("\"FALSE\"");
-                        String skipLabel = "skip_" + stringLiteralCounter++;
-
-                        textSection.append(String.format("    mov eax, [%s]\n", item));
-                        textSection.append("    cmp eax, 0\n");
-                        textSection.append(String.format("    je print_false_%s\n", skipLabel));
-                        textSection.append("    mov rax, 1\n");
-                        textSection.append("    mov rdi, 1\n");
-                        textSection.append(String.format("    mov rsi, %s\n", trueLabel));
-                        textSection.append("    mov rdx, 4\n");
-                        textSection.append("    syscall\n");
-                        textSection.append(String.format("    jmp %s\n", skipLabel));
-                        textSection.append(String.format("print_false_%s:\n", skipLabel));
-                        textSection.append("    mov rax, 1\n");
-                        textSection.append("    mov rdi, 1\n");
-                        textSection.append(String.format("    mov rsi, %s\n", falseLabel));
-                        textSection.append("    mov rdx, 5\n");
-                        textSection.append("    syscall\n");
-                        textSection.append(String.format("%s:\n", skipLabel));
-                    } else {
-                        // Variable entera
-                        textSection.append(String.format("    mov eax, [%s]\n", item));
-                        textSection.append("    call print_number\n");
-                    }
+                String value = location(operand);
+                String varType = getVariableType(item);
+                if (varType != null && (varType.equals("BOOLEAN") || varType.equals("Boolean"))) {
+                    // Variable booleana - verificar valor y imprimir TRUE/FALSE
+                    String trueLabel = getStringLiteralLabel("\"TRUE\"");
+                    String falseLabel = getStringLiteralLabel("\"FALSE\"");
+                    String skipLabel = "skip_" + stringLiteralCounter++;
+
+                    textSection.append(String.format("    mov eax, %s\n", value));
+                    textSection.append("    cmp eax, 0\n");
+                    textSection.append(String.format("    je print_false_%s\n", skipLabel));
+                    textSection.append("    mov rax, 1\n");
+                    textSection.append("    mov rdi, 1\n");
+                    textSection.append(String.format("    mov rsi, %s\n", trueLabel));
+                    textSection.append("    mov rdx, 4\n");
+                    textSection.append("    syscall\n");
+                    textSection.append(String.format("    jmp %s\n", skipLabel));
+                    textSection.append(String.format("print_false_%s:\n", skipLabel));
+                    textSection.append("    mov rax, 1\n");
+                    textSection.append("    mov rdi, 1\n");
+                    textSection.append(String.format("    mov rsi, %s\n", falseLabel));
+                    textSection.append("    mov rdx, 5\n");
+                    textSection.append("    syscall\n");
+                    textSection.append(String.format("%s:\n", skipLabel));
                 } else {
-                    // Si no se reconoce el item, agregarlo como comentario
-                    textSection.append(String.format("    ; Item no reconocido: %s\n", item));
+                    // Variable entera
+                    textSection.append(String.format("    mov eax, %s\n", value));
+                    textSection.append("    call print_number\n");
                 }
+            } else {
+                // Si no se reconoce el item, agregarlo como comentario
+                textSection.append(String.format("    ; Item no reconocido: %s\n", item));
             }
         }
 
@@ -392,71 +527,48 @@ public class AssemblyGenerator {
         textSection.append("    syscall\n");
     }
 
-    private void handleIfGoto(String line) {
-        // IF condicion GOTO L0
-        String[] parts = line.split(" ");
-        if (parts.length >= 4) {
-            String condition = parts[1];
-            String label = parts[3];
-
-            textSection.append(String.format("    ; IF %s GOTO %s\n", condition, label));
-
-            // Evaluar la condición
-            String value = tempVarValues.get(condition);
-            if (value != null) {
-                if (value.equals("1") || value.equalsIgnoreCase("true")) {
-                    // Condición siempre verdadera
-                    textSection.append(String.format("    jmp %s\n", label));
-                } else {
-                    // Condición siempre falsa - no generar salto
-                    textSection.append("    ; Condición siempre falsa - no salto\n");
-                }
-            } else if (isVariableDeclaredAnywhere(condition)) {
-                // Variable declarada - verificar en tiempo de ejecución
-                textSection.append(String.format("    mov eax, [%s]\n", condition));
-                textSection.append("    cmp eax, 0\n");
-                textSection.append(String.format("    jne %s\n", label));
+    private void handleIfGoto(Instruction instruction) {
+        // IF condicion GOTO L0, o IFFALSE condicion GOTO L0
+        boolean jumpIfTrue = instruction.getOpcode() == Opcode.IF;
+        String label = instruction.getLabel();
+
+        textSection.append(String.format("    ; %s\n", TacPrinter.line(instruction)));
+
+        // Evaluar la condición
+        Operand operand = instruction.getOperand(0);
+        Opcode comparison = comparisonInFlags;
+        comparisonInFlags = null;
+        if (comparison != null) {
+            // La comparación anterior ya dejó el resultado en las banderas
+            emit((jumpIfTrue ? SALTOS : SALTOS_CONTRARIOS).get(comparison) + " " + label);
+        } else if (operand.getKind() == Operand.Kind.BOOLEAN) {
+            if (operand.getBooleanValue() == jumpIfTrue) {
+                // Condición que siempre salta
+                textSection.append(String.format("    jmp %s\n", label));
+            } else {
+                // Condición que nunca salta - no generar salto
+                textSection.append("    ; Condición constante - no salto\n");
             }
+        } else if (operand.isName()) {
+            // Verificar en tiempo de ejecución
+            emit("cmp " + location(operand) + ", 0");
+            emit((jumpIfTrue ? "jne " : "je ") + label);
         }
     }
 
-    private void handleGoto(String line) {
-        // GOTO L1
-        String[] parts = line.split(" ");
-        if (parts.length >= 2) {
-            String label = parts[1];
-            textSection.append(String.format("    ; GOTO %s\n", label));
-            textSection.append(String.format("    jmp %s\n", label));
-        }
+    private void handleEnd() {
+        // END puede no ser la última instrucción: detrás pueden ir bloques a los que se salta
+        textSection.append("\n    ; Terminar programa\n");
+        textSection.append("    mov rax, 60\n");
+        textSection.append("    mov rdi, 0\n");
+        textSection.append("    syscall\n");
     }
 
-    private List<String> parseCommaSeparated(String content) {
-        List<String> items = new ArrayList<>();
-        StringBuilder current = new StringBuilder();
-        boolean inQuotes = false;
-
-        for (int i = 0; i < content.length(); i++) {
-            char c = content.charAt(i);
-            if (c == '"') {
-                inQuotes = !inQuotes;
-                current.append(c);
-            } else if (c == ',' && !inQuotes) {
-                String item = current.toString().trim();
-                if (!item.isEmpty()) {
-                    items.add(item);
-                }
-                current = new StringBuilder();
-            } else {
-                current.append(c);
-            }
-        }
-
-        String lastItem = current.toString().trim();
-        if (!lastItem.isEmpty()) {
-            items.add(lastItem);
-        }
-
-        return items;
+    private void handleGoto(Instruction instruction) {
+        // GOTO L1
+        String label = instruction.getLabel();
+        textSection.append(String.format("    ; GOTO %s\n", label));
+        textSection.append(String.format("    jmp %s\n", label));
     }
 
     private String getStringLiteralLabel(String literal) {
@@ -479,34 +591,13 @@ public class AssemblyGenerator {
         }
     }
 
-    private boolean isVariableDeclaredAnywhere(String varName) {
-        // Verificar en tabla de símbolos
-        for (Simbolo symbol : symbolTable.getSimbolosAsCollection()) {
-            if (symbol.getNombre().equals(varName)) {
-                return true;
-            }
-        }
-        // Verificar en variables detectadas
-        return declaredVariables.containsKey(varName);
-    }
-
     private String getVariableType(String varName) {
         // Verificar en tabla de símbolos primero
-        for (Simbolo symbol : symbolTable.getSimbolosAsCollection()) {
-            if (symbol.getNombre().equals(varName)) {
-                return symbol.getTipo();
-            }
+        int id = symbols.buscar(varName);
+        if (id >= 0) {
+            return symbols.getTipo(id);
         }
         // Verificar en variables detectadas
         return declaredVariables.get(varName);
     }
-
-    private Simbolo getSymbol(String varName) {
-        for (Simbolo symbol : symbolTable.getSimbolosAsCollection()) {
-            if (symbol.getNombre().equals(varName)) {
-                return symbol;
-            }
-        }
-        return null;
-    }
 }
\ No newline at end of file
@@ -13,6 +13,8 @@ public class ErrorCompilacion {
     private int linea;
     private int columna;
     private String lexemaProblematico; // Opcional, puede ser null
+    private LineIndex indiceLineas; // Si no es null, línea y columna se calculan desde la posición
+    private int posicion;
 
     public ErrorCompilacion(TipoError tipoError, String mensaje, int linea, int columna, String lexemaProblematico) {
         this.tipoError = tipoError;
@@ -22,6 +24,18 @@ public class ErrorCompilacion {
         this.lexemaProblematico = lexemaProblematico;
     }
 
+    /**
+     * Error ubicado por su posición en el código fuente; la línea y la columna se obtienen
+     * del índice de líneas solo cuando se consultan.
+     */
+    public ErrorCompilacion(TipoError tipoError, String mensaje, LineIndex indiceLineas, int posicion, String lexemaProblematico) {
+        this.tipoError = tipoError;
+        this.mensaje = mensaje;
+        this.indiceLineas = indiceLineas;
+        this.posicion = posicion;
+        this.lexemaProblematico = lexemaProblematico;
+    }
+
     public ErrorCompilacion(TipoError tipoError, String mensaje, int linea, int columna) {
         this(tipoError, mensaje, linea, columna, null);
     }
@@ -35,11 +49,11 @@ public class ErrorCompilacion {
     }
 
     public int getLinea() {
-        return linea;
+        return indiceLineas != null ? indiceLineas.getLinea(posicion) : linea;
     }
 
     public int getColumna() {
-        return columna;
+        return indiceLineas != null ? indiceLineas.getColumna(posicion) : columna;
     }
 
     public String getLexemaProblematico() {
@@ -50,9 +64,9 @@ public class ErrorCompilacion {
     public String toString() {
         StringBuilder sb = new StringBuilder();
         sb.append("Error ").append(tipoError).append(": ");
-        sb.append("[Línea ").append(linea);
-        if (columna > 0) { // Columna 0 o negativa puede indicar que no es aplicable o no se pudo determinar
-            sb.append(", Columna ").append(columna);
+        sb.append("[Línea ").append(getLinea());
+        if (getColumna() > 0) { // Columna 0 o negativa puede indicar que no es aplicable o no se pudo determinar
+            sb.append(", Columna ").append(getColumna());
         }
         sb.append("] ");
         sb.append(mensaje);
@@ -0,0 +1,121 @@
+package com.example;
+
+import java.util.Arrays;
+
+/**
+ * Vista de solo lectura de la tabla de símbolos para el generador de ensamblador. Se construye
+ * una vez por compilación y guarda, por ID de nombre, el tipo normalizado, el tamaño en memoria y
+ * la clase de almacenamiento de cada variable, de modo que cada consulta del backend es un
+ * acceso a arreglo en lugar de recorrer todos los símbolos.
+ */
+public final class IndiceDeSimbolos {
+
+    /**
+     * Dónde vive el valor de un símbolo en el programa generado.
+     */
+    public enum Almacenamiento {
+        DATOS,   // Palabra de 4 bytes ("dd") en la sección .data
+        NINGUNO  // Sin espacio propio: nombre del proceso o tipo que el backend aún no representa
+    }
+
+    private static final Almacenamiento[] ALMACENAMIENTOS = Almacenamiento.values();
+
+    private final TablaDeNombres nombres;
+    // Indexados por ID de nombre; describen la primera declaración del nombre.
+    private final Simbolo[] simbolos;
+    private final String[] tipos;
+    private final int[] tamanos;
+    private final byte[] almacenamientos;
+    // IDs con almacenamiento en .data, en el orden en que se declararon.
+    private final int[] enDatos;
+
+    private IndiceDeSimbolos(TablaDeSimbolos tabla) {
+        this.nombres = tabla.getTablaDeNombres();
+        int capacidad = nombres.size();
+        this.simbolos = new Simbolo[capacidad];
+        this.tipos = new String[capacidad];
+        this.tamanos = new int[capacidad];
+        this.almacenamientos = new byte[capacidad];
+        Arrays.fill(almacenamientos, (byte) Almacenamiento.NINGUNO.ordinal());
+
+        int[] datos = new int[capacidad];
+        int cantidadEnDatos = 0;
+        for (Simbolo simbolo : tabla.getSimbolosAsCollection()) {
+            int id = simbolo.getNombreId();
+            if (simbolos[id] != null) continue; // Mismo nombre en otro alcance: vale la primera declaración
+            simbolos[id] = simbolo;
+            tipos[id] = normalizarTipo(simbolo.getTipo());
+            if ("variable".equals(simbolo.getCategoria()) && tipos[id] != null
+                    && (tipos[id].equals("ENTERO") || tipos[id].equals("BOOLEAN"))) {
+                almacenamientos[id] = (byte) Almacenamiento.DATOS.ordinal();
+                tamanos[id] = 4;
+                datos[cantidadEnDatos++] = id;
+            }
+        }
+        this.enDatos = Arrays.copyOf(datos, cantidadEnDatos);
+    }
+
+    public static IndiceDeSimbolos de(TablaDeSimbolos tabla) {
+        return new IndiceDeSimbolos(tabla);
+    }
+
+    /**
+     * @return El ID de {@code nombre} si corresponde a un símbolo, o -1 (temporales, etiquetas, literales).
+     */
+    public int buscar(String nombre) {
+        int id = nombres.buscar(nombre);
+        return id >= 0 && id < simbolos.length && simbolos[id] != null ? id : -1;
+    }
+
+    public boolean contiene(String nombre) {
+        return buscar(nombre) >= 0;
+    }
+
+    public Simbolo getSimbolo(int id) {
+        return simbolos[id];
+    }
+
+    public String getNombre(int id) {
+        return nombres.getNombre(id);
+    }
+
+    /**
+     * @return El tipo en la forma del código intermedio ("ENTERO", "REAL", "BOOLEAN", "CADENA",
+     *         "CARACTER"), o null si el símbolo no tiene tipo de dato.
+     */
+    public String getTipo(int id) {
+        return tipos[id];
+    }
+
+    /**
+     * @return Bytes que ocupa el símbolo en el programa generado (0 si no tiene almacenamiento).
+     */
+    public int getTamano(int id) {
+        return tamanos[id];
+    }
+
+    public Almacenamiento getAlmacenamiento(int id) {
+        return ALMACENAMIENTOS[almacenamientos[id]];
+    }
+
+    /**
+     * @return Los IDs de los símbolos que ocupan la sección .data, en orden de declaración.
+     */
+    public int[] getEnDatos() {
+        return enDatos.clone();
+    }
+
+    // Los tipos se escriben tal como aparecen en el código fuente; el código intermedio los usa en mayúsculas.
+    private static String normalizarTipo(String tipo) {
+        if (tipo == null) return null;
+        switch (tipo.toUpperCase()) {
+            case "ENTERO": return "ENTERO";
+            case "REAL": return "REAL";
+            case "LOGICO":
+            case "BOOLEAN": return "BOOLEAN";
+            case "CADENA": return "CADENA";
+            case "CARACTER": return "CARACTER";
+            default: return null;
+        }
+    }
+}
@@ -1,16 +1,20 @@
 package com.example;
 
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 import java.util.LinkedHashMap; // To maintain insertion order for patterns
 import java.util.Map;
 
-public class Lexer {
+public class Lexer implements TokenStream {
 
+    // The regexes are no longer compiled: the scanner below is a hand-built DFA that accepts exactly
+    // the same language. They are kept as the "pattern" shown for each token in the GUI token table.
     private static final Map<TokenType, String> tokenPatterns = new LinkedHashMap<>();
-    private List<ErrorCompilacion> erroresLexicos;
+    private List<ErrorCompilacion> erroresLexicos = new ArrayList<>();
 
     static {
         // Order is important for matching. Comments and keywords should generally take precedence.
@@ -38,93 +42,409 @@ public class Lexer {
         tokenPatterns.put(TokenType.IDENTIFIER, "\\b[a-zA-Z_][a-zA-Z0-9_]*\\b");
     }
 
+    // Character classes of the DFA start state (ASCII only; everything else is C_OTHER).
+    private static final byte C_OTHER = 0;
+    private static final byte C_LETTER = 1;
+    private static final byte C_DIGIT = 2;
+    private static final byte C_UNDERSCORE = 3;
+    private static final byte C_SPACE = 4;      // [ \t\n\x0B\f\r], the regex \s
+    private static final byte C_QUOTE = 5;      // " and '
+    private static final byte C_SLASH = 6;
+    private static final byte C_LESS = 7;
+    private static final byte C_GREATER = 8;
+    private static final byte C_EQUALS = 9;
+    private static final byte C_MINUS = 10;
+    private static final byte C_OPERATOR = 11;  // + * % ^
+    private static final byte C_DELIMITER = 12; // ( ) [ ] : , ;
+
+    private static final byte[] CHAR_CLASS = new byte[128];
+    // TokenKind of each single-character operator and delimiter.
+    private static final TokenKind[] SINGLE_CHAR_KINDS = new TokenKind[128];
+
+    static {
+        for (char c = 'a'; c <= 'z'; c++) CHAR_CLASS[c] = C_LETTER;
+        for (char c = 'A'; c <= 'Z'; c++) CHAR_CLASS[c] = C_LETTER;
+        for (char c = '0'; c <= '9'; c++) CHAR_CLASS[c] = C_DIGIT;
+        CHAR_CLASS['_'] = C_UNDERSCORE;
+        for (char c : " \t\n\u000B\f\r".toCharArray()) CHAR_CLASS[c] = C_SPACE;
+        CHAR_CLASS['"'] = C_QUOTE;
+        CHAR_CLASS['\''] = C_QUOTE;
+        CHAR_CLASS['/'] = C_SLASH;
+        CHAR_CLASS['<'] = C_LESS;
+        CHAR_CLASS['>'] = C_GREATER;
+        CHAR_CLASS['='] = C_EQUALS;
+        CHAR_CLASS['-'] = C_MINUS;
+        for (char c : "+*%^".toCharArray()) CHAR_CLASS[c] = C_OPERATOR;
+        for (char c : "()[]:,;".toCharArray()) CHAR_CLASS[c] = C_DELIMITER;
+        for (TokenKind kind : TokenKind.values()) {
+            String text = kind.getText();
+            if (text != null && text.length() == 1 && text.charAt(0) < 128) SINGLE_CHAR_KINDS[text.charAt(0)] = kind;
+        }
+    }
+
+    private static final int INITIAL_WINDOW_SIZE = 8192;
+
+    // Source window. For a String the whole text is the window; for a Reader only the lexeme being
+    // scanned plus what has been read ahead is kept, and the window only grows past its initial size
+    // when a single lexeme (a long string literal or comment) does not fit in it.
+    private Reader reader;
+    private char[] buf = new char[0];
+    private int limit;           // Number of valid chars in buf
+    private int pos;             // Start of the next lexeme in buf
+    private int bufStartGlobal;  // Global source position of buf[0]
+    private boolean eof = true;  // No more chars can be read into the window
+    private boolean hitLimit;    // The last scan needed a char past 'limit' that may still arrive
+
+    // Filled as chars enter the window; token and error positions are resolved through it on demand.
+    private LineIndex lineIndex = new LineIndex();
+    // Identifiers are interned as they are scanned; the IDs are shared with the parser and symbol table.
+    private TablaDeNombres nombres = new TablaDeNombres();
+
+    // Result of the last scanToken call: the token type, or null for whitespace / no match.
+    private TokenType scannedType;
+    // TokenKind of the last scanned keyword, operator or delimiter, NONE for anything else.
+    private TokenKind scannedKind = TokenKind.NONE;
+
+    // Global bounds of the last token returned by scanNext.
+    private int lexemeStart;
+    private int lexemeEnd;
+
+    public Lexer() {
+    }
+
+    /**
+     * Lexer that pulls its input from {@code reader} through a bounded window, for use as a
+     * {@link TokenStream} (see {@link #nextToken()}).
+     */
+    public Lexer(Reader reader) {
+        this.reader = reader;
+        this.buf = new char[INITIAL_WINDOW_SIZE];
+        this.eof = false;
+    }
+
     public List<Token> analyze(String code) {
+        return tokenize(code).toTokens();
+    }
+
+    /**
+     * Lexes the whole of {@code code} into a compact {@link TokenBuffer} whose lexemes are views
+     * over {@code code}. ERROR tokens are included, as in {@link #analyze(String)}.
+     */
+    public TokenBuffer tokenize(String code) {
         this.erroresLexicos = new ArrayList<>();
-        List<Token> tokens = new ArrayList<>();
-        // String remainingCode = code; // We will use code.substring(currentGlobalPos) directly
-        int currentGlobalPos = 0;
-        int currentLine = 1;
-        int lineStartGlobalPos = 0; // Global position in 'code' where the current line started
-
-        while (currentGlobalPos < code.length()) {
-            int currentColumn = currentGlobalPos - lineStartGlobalPos + 1;
-            boolean matchFound = false;
-            String sliceToMatch = code.substring(currentGlobalPos);
-
-            for (Map.Entry<TokenType, String> entry : tokenPatterns.entrySet()) {
-                TokenType type = entry.getKey();
-                String patternString = entry.getValue();
-
-                Pattern pattern = Pattern.compile("^" + patternString);
-                Matcher matcher = pattern.matcher(sliceToMatch);
-
-                if (matcher.lookingAt()) {
-                    String lexeme = matcher.group(0);
-                    // int lexemeStartLine = currentLine; // currentLine is already the start line
-                    // int lexemeStartColumn = currentColumn; // currentColumn is already the start column
-
-                    if (type != TokenType.COMMENT) {
-                        tokens.add(new Token(type, lexeme, patternString, currentLine, currentColumn));
-                    }
+        this.reader = null;
+        this.buf = code.toCharArray();
+        this.limit = buf.length;
+        this.pos = 0;
+        this.bufStartGlobal = 0;
+        this.eof = true;
+        this.lineIndex = LineIndex.of(buf);
+        this.nombres = new TablaDeNombres();
 
-                    // Advance global position and update line/column based on lexeme content
-                    for (int i = 0; i < lexeme.length(); i++) {
-                        if (lexeme.charAt(i) == '\n') {
-                            currentLine++;
-                            lineStartGlobalPos = currentGlobalPos + i + 1; // Update lineStart based on original code string pos
-                        }
-                    }
-                    currentGlobalPos += lexeme.length();
-                    // remainingCode = code.substring(currentGlobalPos); // Not needed if using sliceToMatch
-                    matchFound = true;
-                    break;
+        TokenBuffer tokens = new TokenBuffer(code, lineIndex, nombres);
+        TokenType type;
+        while ((type = scanNext()) != null) {
+            tokens.add(type, scannedKind, internLexeme(type), lexemeStart, lexemeEnd - lexemeStart);
+        }
+        tokens.trimToSize();
+        return tokens;
+    }
+
+    public List<ErrorCompilacion> getErroresLexicos() {
+        return erroresLexicos;
+    }
+
+    public LineIndex getLineIndex() {
+        return lineIndex;
+    }
+
+    @Override
+    public TablaDeNombres getTablaDeNombres() {
+        return nombres;
+    }
+
+    /**
+     * Returns the next token of the input, skipping whitespace and comments, or null at the end.
+     * Unrecognized characters come back as {@link TokenType#ERROR} tokens and are also recorded in
+     * {@link #getErroresLexicos()}.
+     */
+    @Override
+    public Token nextToken() {
+        TokenType type = scanNext();
+        if (type == null) {
+            return null;
+        }
+        int nameId = internLexeme(type);
+        String lexeme = nameId >= 0
+            ? nombres.getNombre(nameId)
+            : new String(buf, lexemeStart - bufStartGlobal, lexemeEnd - lexemeStart);
+        return new Token(type, scannedKind, nameId, lexeme, getPattern(type), lineIndex, lexemeStart);
+    }
+
+    // Name ID of the token just scanned if it is an identifier, -1 otherwise.
+    private int internLexeme(TokenType type) {
+        if (type != TokenType.IDENTIFIER) {
+            return -1;
+        }
+        return nombres.intern(buf, lexemeStart - bufStartGlobal, lexemeEnd - bufStartGlobal);
+    }
+
+    // Pattern text shown for a token of the given type.
+    static String getPattern(TokenType type) {
+        return type == TokenType.ERROR ? "Error Léxico" : tokenPatterns.get(type);
+    }
+
+    /**
+     * Advances to the next token and leaves its global bounds in the lexeme* fields,
+     * which stay valid (and its chars in the window) until the next call. Returns its type, or null at the end.
+     */
+    private TokenType scanNext() {
+        while (true) {
+            if (pos >= limit && !fill()) {
+                return null;
+            }
+            int currentGlobalPos = bufStartGlobal + pos;
+            hitLimit = false;
+            int end = scanToken(pos);
+            if (hitLimit) {
+                // The lexeme may continue past the window: read more (or learn it is EOF) and rescan.
+                fill();
+                continue;
+            }
+
+            if (end > pos) {
+                // A token, a comment or a run of whitespace
+                TokenType type = scannedType;
+                lexemeStart = currentGlobalPos;
+                lexemeEnd = bufStartGlobal + end;
+                pos = end;
+                if (type != null && type != TokenType.COMMENT) {
+                    return type;
                 }
+            } else {
+                // If not a token and not whitespace, it's a lexical error
+                char errorChar = buf[pos];
+                String errorLexeme = String.valueOf(errorChar);
+                String errorMessage = "Caracter no reconocido: '" + errorLexeme + "'";
+
+                erroresLexicos.add(new ErrorCompilacion(
+                    ErrorCompilacion.TipoError.LEXICO,
+                    errorMessage,
+                    lineIndex,
+                    currentGlobalPos,
+                    errorLexeme));
+
+                // Advance past the error character
+                lexemeStart = currentGlobalPos;
+                lexemeEnd = currentGlobalPos + 1;
+                pos++;
+                // Still return an ERROR token for now, the token table might use it.
+                // This could be removed if callers switch to only using the ErrorCompilacion list.
+                return TokenType.ERROR;
             }
+        }
+    }
 
-            if (!matchFound) {
-                // Try to match whitespace if no token was found
-                Pattern whitespacePattern = Pattern.compile("^[\\s]+");
-                Matcher whitespaceMatcher = whitespacePattern.matcher(sliceToMatch);
-                if (whitespaceMatcher.lookingAt()) { // Use lookingAt for consistency
-                    String ws = whitespaceMatcher.group(0);
-                    for (int i = 0; i < ws.length(); i++) {
-                        if (ws.charAt(i) == '\n') {
-                            currentLine++;
-                            lineStartGlobalPos = currentGlobalPos + i + 1;
-                        }
-                    }
-                    currentGlobalPos += ws.length();
-                    // remainingCode = code.substring(currentGlobalPos);
-                } else {
-                    // If not a token and not whitespace, it's a lexical error
-                    char errorChar = sliceToMatch.charAt(0);
-                    String errorLexeme = String.valueOf(errorChar);
-                    String errorMessage = "Caracter no reconocido: '" + errorLexeme + "'";
-
-                    erroresLexicos.add(new ErrorCompilacion(
-                        ErrorCompilacion.TipoError.LEXICO,
-                        errorMessage,
-                        currentLine,
-                        currentColumn,
-                        errorLexeme));
-                    // Still add an ERROR token for now, Main.java might use it.
-                    // This could be removed if Main switches to only using ErrorCompilacion list.
-                    tokens.add(new Token(TokenType.ERROR, errorLexeme, "Error Léxico", currentLine, currentColumn));
-
-                    // Advance past the error character
-                    if (errorChar == '\n') { // Should be caught by whitespace, but as a safeguard
-                        currentLine++;
-                        lineStartGlobalPos = currentGlobalPos + 1;
+    /**
+     * Moves the unread part of the window to its start and reads more input after it, growing the
+     * window only if it is already full. Returns false (and sets {@link #eof}) when nothing was added.
+     */
+    private boolean fill() {
+        if (eof) {
+            return false;
+        }
+        if (pos > 0) {
+            System.arraycopy(buf, pos, buf, 0, limit - pos);
+            bufStartGlobal += pos;
+            limit -= pos;
+            pos = 0;
+        }
+        if (limit == buf.length) {
+            buf = Arrays.copyOf(buf, buf.length * 2);
+        }
+        try {
+            int read = reader.read(buf, limit, buf.length - limit);
+            if (read < 0) {
+                eof = true;
+                return false;
+            }
+            lineIndex.addLines(buf, limit, limit + read, bufStartGlobal);
+            limit += read;
+            return true;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // True if buf[i] is available. Otherwise records whether the answer may change after a fill().
+    private boolean has(int i) {
+        if (i < limit) return true;
+        if (!eof) hitLimit = true;
+        return false;
+    }
+
+    /**
+     * Runs the DFA from {@code start} and returns the end (exclusive) of the longest lexeme the old
+     * pattern list would have matched there, with its type in {@link #scannedType} (null for whitespace).
+     * Returns {@code start} when nothing matches, i.e. the character is a lexical error.
+     */
+    private int scanToken(int start) {
+        char[] s = buf;
+        char c = s[start];
+        byte charClass = c < 128 ? CHAR_CLASS[c] : C_OTHER;
+        scannedType = null;
+        scannedKind = TokenKind.NONE;
+        switch (charClass) {
+            case C_LETTER:
+                return scanWord(start);
+            case C_UNDERSCORE:
+                return scanIdentifier(start);
+            case C_DIGIT:
+                return scanNumber(start);
+            case C_SPACE: {
+                int i = start + 1;
+                while (has(i) && s[i] < 128 && CHAR_CLASS[s[i]] == C_SPACE) i++;
+                return i;
+            }
+            case C_QUOTE:
+                return scanString(start, c);
+            case C_SLASH:
+                if (has(start + 1) && s[start + 1] == '/') {
+                    int i = start + 2;
+                    while (has(i) && !isLineTerminator(s[i])) i++;
+                    scannedType = TokenType.COMMENT;
+                    return i;
+                }
+                scannedType = TokenType.OPERATOR;
+                scannedKind = TokenKind.SLASH;
+                return start + 1;
+            case C_LESS:
+                scannedType = TokenType.OPERATOR;
+                if (has(start + 1)) {
+                    switch (s[start + 1]) {
+                        case '=': scannedKind = TokenKind.LESS_EQUAL; return start + 2;
+                        case '>': scannedKind = TokenKind.NOT_EQUAL; return start + 2;
+                        case '-': scannedKind = TokenKind.ASSIGN; return start + 2;
+                        default: break;
                     }
-                    currentGlobalPos++;
-                    // remainingCode = code.substring(currentGlobalPos);
                 }
+                scannedKind = TokenKind.LESS;
+                return start + 1;
+            case C_GREATER:
+            case C_EQUALS:
+                scannedType = TokenType.OPERATOR;
+                if (has(start + 1) && s[start + 1] == '=') {
+                    scannedKind = c == '>' ? TokenKind.GREATER_EQUAL : TokenKind.EQUAL_EQUAL;
+                    return start + 2;
+                }
+                scannedKind = c == '>' ? TokenKind.GREATER : TokenKind.EQUAL;
+                return start + 1;
+            case C_MINUS:
+                scannedType = TokenType.OPERATOR;
+                if (has(start + 1) && s[start + 1] == '>') {
+                    scannedKind = TokenKind.ARROW;
+                    return start + 2;
+                }
+                scannedKind = TokenKind.MINUS;
+                return start + 1;
+            case C_OPERATOR:
+                scannedType = TokenType.OPERATOR;
+                scannedKind = SINGLE_CHAR_KINDS[c];
+                return start + 1;
+            case C_DELIMITER:
+                scannedType = TokenType.DELIMITER;
+                scannedKind = SINGLE_CHAR_KINDS[c];
+                return start + 1;
+            default:
+                return start;
+        }
+    }
+
+    // Starts with an ASCII letter: keyword, word operator (Y/O/NO) or identifier, in that priority.
+    // The letter run is classified with a single perfect-hash probe instead of comparing against every keyword.
+    private int scanWord(int start) {
+        char[] s = buf;
+        int i = start + 1;
+        while (has(i) && s[i] < 128 && CHAR_CLASS[s[i]] == C_LETTER) i++;
+        if (!isWordCharAt(i, true)) {
+            TokenKind kind = TokenKind.lookupWord(s, start, i);
+            if (kind != null) {
+                scannedType = kind.getTokenType();
+                scannedKind = kind;
+                return i;
             }
         }
-        return tokens;
+        return scanIdentifier(start);
     }
 
-    public List<ErrorCompilacion> getErroresLexicos() {
-        return erroresLexicos;
+    private int scanIdentifier(int start) {
+        char[] s = buf;
+        int i = start + 1;
+        while (has(i) && s[i] < 128 && CHAR_CLASS[s[i]] != C_OTHER && CHAR_CLASS[s[i]] <= C_UNDERSCORE) i++;
+        // The trailing \b can never be satisfied by backtracking into [a-zA-Z0-9_]*, so only the full run counts.
+        if (isWordCharAt(i, s[i - 1] != '_')) return start;
+        scannedType = TokenType.IDENTIFIER;
+        return i;
+    }
+
+    private int scanNumber(int start) {
+        char[] s = buf;
+        int i = start + 1;
+        while (has(i) && s[i] >= '0' && s[i] <= '9') i++;
+        if (has(i + 1) && s[i] == '.' && s[i + 1] >= '0' && s[i + 1] <= '9') {
+            int j = i + 2;
+            while (has(j) && s[j] >= '0' && s[j] <= '9') j++;
+            if (!isWordCharAt(j, true)) {
+                scannedType = TokenType.NUMBER;
+                return j;
+            }
+        }
+        // Without the fraction the integer part is followed by '.', or needs a non-word character after it.
+        if (isWordCharAt(i, true)) return start;
+        scannedType = TokenType.NUMBER;
+        return i;
+    }
+
+    private int scanString(int start, char quote) {
+        char[] s = buf;
+        int i = start + 1;
+        while (has(i)) {
+            char c = s[i];
+            if (c == quote) {
+                scannedType = TokenType.STRING;
+                return i + 1;
+            }
+            if (c == '\\') {
+                // "\\." : the escaped character cannot be a line terminator
+                if (!has(i + 1) || isLineTerminator(s[i + 1])) return start;
+                i += 2;
+            } else {
+                i++;
+            }
+        }
+        return start; // Unterminated: only the quote is reported as an error
+    }
+
+    /**
+     * The right-hand side of a regex {@code \b} after a lexeme ending in an ASCII word character:
+     * true if the character at {@code i} is a word character (letter, digit or '_', Unicode-aware)
+     * or a non-spacing mark attached to a letter/digit base.
+     */
+    private boolean isWordCharAt(int i, boolean baseIsLetterOrDigit) {
+        if (!has(i)) return false;
+        char c = buf[i];
+        if (c < 128) {
+            byte charClass = CHAR_CLASS[c];
+            return charClass == C_LETTER || charClass == C_DIGIT || charClass == C_UNDERSCORE;
+        }
+        if (Character.isHighSurrogate(c)) has(i + 1); // A pair split by the window needs a refill
+        int codePoint = Character.codePointAt(buf, i, limit);
+        if (Character.isLetterOrDigit(codePoint)) return true;
+        return baseIsLetterOrDigit && Character.getType(codePoint) == Character.NON_SPACING_MARK;
+    }
+
+    // Characters the regex '.' does not match.
+    private static boolean isLineTerminator(char c) {
+        return c == '\n' || c == '\r' || c == '\u0085' || c == '\u2028' || c == '\u2029';
     }
 }
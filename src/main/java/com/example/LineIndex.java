@@ -0,0 +1,67 @@
+package com.example;
+
+import java.util.Arrays;
+
+/**
+ * Índice de inicios de línea de un código fuente. Se construye con un único recorrido buscando
+ * los '\n' y permite obtener la línea y la columna de cualquier posición por búsqueda binaria,
+ * en lugar de llevar la cuenta carácter por carácter mientras se analiza.
+ */
+public class LineIndex {
+    private int[] lineStarts; // Posición global donde empieza cada línea; lineStarts[0] = 0
+    private int lineCount;
+
+    public LineIndex() {
+        this.lineStarts = new int[64];
+        this.lineCount = 1;
+    }
+
+    public static LineIndex of(char[] source) {
+        LineIndex index = new LineIndex();
+        index.addLines(source, 0, source.length, 0);
+        return index;
+    }
+
+    /**
+     * Registra los saltos de línea de {@code chars[from, to)}, donde {@code chars[0]} está en la
+     * posición global {@code globalOffset}. Los tramos deben agregarse en orden y sin repetirse.
+     */
+    public void addLines(char[] chars, int from, int to, int globalOffset) {
+        for (int i = from; i < to; i++) {
+            if (chars[i] == '\n') {
+                if (lineCount == lineStarts.length) {
+                    lineStarts = Arrays.copyOf(lineStarts, lineCount * 2);
+                }
+                lineStarts[lineCount++] = globalOffset + i + 1;
+            }
+        }
+    }
+
+    /**
+     * @return La línea (desde 1) de la posición global {@code offset}.
+     */
+    public int getLinea(int offset) {
+        int low = 0;
+        int high = lineCount - 1;
+        while (low < high) {
+            int mid = (low + high + 1) >>> 1;
+            if (lineStarts[mid] <= offset) {
+                low = mid;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return low + 1;
+    }
+
+    /**
+     * @return La columna (desde 1) de la posición global {@code offset} dentro de su línea.
+     */
+    public int getColumna(int offset) {
+        return offset - lineStarts[getLinea(offset) - 1] + 1;
+    }
+
+    public int getLineCount() {
+        return lineCount;
+    }
+}
@@ -1,54 +1,70 @@
 package com.example;
 
+import com.example.tac.Instruction;
+import com.example.tac.PassManager;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Paths;
 import java.util.List;
-import java.util.ArrayList;
 
 public class MainCli {
 
     public static void main(String[] args) throws Exception {
         if (args.length == 0) {
-            System.err.println("Uso: java com.example.MainCli <ruta_al_archivo>");
+            System.err.println("Uso: java com.example.MainCli <ruta_al_archivo> [<salida.asm>]");
             return;
         }
 
         String filePath = args[0];
-        String codigoFuente = new String(Files.readAllBytes(Paths.get(filePath)));
-
-        // 1. Análisis Léxico
-        Lexer lexer = new Lexer();
-        List<Token> tokens = lexer.analyze(codigoFuente);
-        if (!lexer.getErroresLexicos().isEmpty()) {
-            System.err.println("Errores léxicos encontrados:");
-            lexer.getErroresLexicos().forEach(System.err::println);
-            return;
-        }
+        String asmPath = args.length > 1 ? args[1] : null; // Si se indica, se genera el assembler
 
-        List<Token> tokensParaParser = new ArrayList<>();
-        for (Token t : tokens) {
-            if (t.getType() != TokenType.ERROR) {
-                tokensParaParser.add(t);
+        // 1 y 2. Análisis Léxico y Sintáctico en un solo recorrido: el parser pide los tokens al
+        // lexer a medida que los necesita, y el lexer lee el archivo por ventanas.
+        try (Reader reader = new InputStreamReader(Files.newInputStream(Paths.get(filePath)))) {
+            Lexer lexer = new Lexer(reader);
+            SyntaxAnalyzer syntaxAnalyzer = new SyntaxAnalyzer(lexer);
+            syntaxAnalyzer.parse();
+            if (!lexer.getErroresLexicos().isEmpty()) {
+                System.err.println("Errores léxicos encontrados:");
+                lexer.getErroresLexicos().forEach(System.err::println);
+                return;
             }
+            if (!syntaxAnalyzer.getErroresSintacticos().isEmpty()) {
+                System.err.println("Errores sintácticos encontrados:");
+                syntaxAnalyzer.getErroresSintacticos().forEach(System.err::println);
+                return;
+            }
+            generarCodigo(syntaxAnalyzer, asmPath);
         }
+    }
 
-
-        // 2. Análisis Sintáctico
-        SyntaxAnalyzer syntaxAnalyzer = new SyntaxAnalyzer(tokensParaParser);
-        syntaxAnalyzer.parse();
-        if (!syntaxAnalyzer.getErroresSintacticos().isEmpty()) {
-            System.err.println("Errores sintácticos encontrados:");
-            syntaxAnalyzer.getErroresSintacticos().forEach(System.err::println);
-            return;
-        }
-
+    private static void generarCodigo(SyntaxAnalyzer syntaxAnalyzer, String asmPath) throws IOException {
         // 3. Generación de Código de Tres Direcciones
         com.example.ast.ProgramaNode astRoot = syntaxAnalyzer.getAST();
         if (astRoot != null) {
             ThreeAddressCodeGenerator codeGenerator = new ThreeAddressCodeGenerator();
-            List<String> threeAddressCode = codeGenerator.generate(astRoot);
-            for (String line : threeAddressCode) {
-                System.out.println(line);
+            List<Instruction> threeAddressCode = codeGenerator.generate(astRoot);
+            for (Instruction instruction : threeAddressCode) {
+                System.out.println(instruction);
+            }
+
+            // 4. Optimización; las estadísticas van a la salida de error para no mezclarse con el código
+            CodeOptimizer optimizer = new CodeOptimizer(threeAddressCode);
+            List<Instruction> optimizedCode = optimizer.optimize();
+            System.err.println("Pases de optimización:");
+            for (PassManager.Statistics estadistica : optimizer.getPassStatistics()) {
+                System.err.println("  " + estadistica);
+            }
+
+            // 5. Código assembler
+            if (asmPath != null) {
+                AssemblyGenerator assembler = new AssemblyGenerator(optimizedCode, syntaxAnalyzer.getTablaDeSimbolos());
+                Files.write(Paths.get(asmPath), assembler.generate().getBytes(StandardCharsets.UTF_8));
+                System.err.println("Código assembler en " + asmPath + ":");
+                System.err.println("  " + assembler.getTempCompaction());
             }
         } else {
             System.err.println("No se pudo generar el AST.");
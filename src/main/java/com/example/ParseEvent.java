@@ -0,0 +1,65 @@
+package com.example;
+
+/**
+ * Eventos que el analizador sintáctico notifica a su {@link ParseListener}: entrada y salida de
+ * cada regla de la gramática y las acciones sobre tokens. Cada evento se acompaña solo de la
+ * posición del token al que se refiere; el texto del log se arma a partir de la plantilla cuando
+ * alguien lo pide (ver {@link ParseLog}).
+ * <p>
+ * En las plantillas, {T} es el tipo y {L} el lexema del token del evento, y {A} el lexema del
+ * token auxiliar.
+ */
+public enum ParseEvent {
+    INICIO_ANALISIS("Iniciando análisis sintáctico..."),
+    SIN_SENTENCIAS("No hay sentencias válidas para analizar."),
+    FIN_ANALISIS("Análisis sintáctico completado."),
+
+    TOKEN_CONSUMIDO("Consumido token: {T} ('{L}')"),
+    KEYWORD_CONSUMIDA("Consumido keyword: {L}"),
+    PROCESO_AGREGADO("Nombre del proceso '{L}' agregado. Alcance: " + TablaDeSimbolos.ALCANCE_GLOBAL),
+    VARIABLE_AGREGADA("Variable '{L}' ({A}) agregada a tabla."),
+    TIPO_RECONOCIDO("Tipo de dato reconocido: {L}"),
+
+    PROGRAMA("Analizando <programa>"), FIN_PROGRAMA("Fin <programa>"),
+    BLOQUE_SENTENCIAS("Analizando <bloque_sentencias>"), FIN_BLOQUE_SENTENCIAS("Fin <bloque_sentencias>"),
+    SENTENCIA("Analizando <sentencia>"),
+    SENT_DEFINIR("Analizando <sent_definir>"), FIN_SENT_DEFINIR("Fin <sent_definir>"),
+    LISTA_VARIABLES("Analizando <lista_variables>"), FIN_LISTA_VARIABLES("Fin <lista_variables>"),
+    TIPO_DATO("Analizando <tipo_dato>"), FIN_TIPO_DATO("Fin <tipo_dato>"),
+    SENT_LEER("Analizando <sent_leer>"), FIN_SENT_LEER("Fin <sent_leer>"),
+    SENT_ESCRIBIR("Analizando <sent_escribir>"), FIN_SENT_ESCRIBIR("Fin <sent_escribir>"),
+    LISTA_EXPRESIONES("Analizando <lista_expresiones>"), FIN_LISTA_EXPRESIONES("Fin <lista_expresiones>"),
+    SENT_ASIGNACION("Analizando <sent_asignacion>"), FIN_SENT_ASIGNACION("Fin <sent_asignacion>"),
+    EXPRESION("Analizando <expresion>"), FIN_EXPRESION("Fin <expresion>"),
+    EXPRESION_SIMPLE("Analizando <expresion_simple>"), FIN_EXPRESION_SIMPLE("Fin <expresion_simple>"),
+    TERMINO("Analizando <termino>"), FIN_TERMINO("Fin <termino>"),
+    FACTOR("Analizando <factor>"),
+    SENT_SI("Analizando <sent_si>"), FIN_SENT_SI("Fin <sent_si>");
+
+    private final String plantilla;
+
+    ParseEvent(String plantilla) {
+        this.plantilla = plantilla;
+    }
+
+    public String getPlantilla() {
+        return plantilla;
+    }
+
+    /**
+     * Arma el texto del evento con los tokens de {@code tokens}.
+     * @param tokenIndex Posición del token del evento en {@code tokens}.
+     * @param auxIndex Posición del token auxiliar, o -1 si el evento no lo usa.
+     */
+    public String aTexto(TokenBuffer tokens, int tokenIndex, int auxIndex) {
+        if (plantilla.indexOf('{') < 0) {
+            return plantilla;
+        }
+        boolean hayToken = tokenIndex >= 0 && tokenIndex < tokens.size();
+        boolean hayAux = auxIndex >= 0 && auxIndex < tokens.size();
+        return plantilla
+            .replace("{T}", hayToken ? tokens.getType(tokenIndex).toString() : "")
+            .replace("{L}", hayToken ? tokens.getLexeme(tokenIndex) : "")
+            .replace("{A}", hayAux ? tokens.getLexeme(auxIndex) : "");
+    }
+}
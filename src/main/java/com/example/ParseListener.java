@@ -0,0 +1,15 @@
+package com.example;
+
+/**
+ * Observador de los eventos del analizador sintáctico. Si no se registra ninguno, el analizador
+ * no arma ningún texto de log.
+ */
+public interface ParseListener {
+    /**
+     * @param evento La regla o acción sintáctica.
+     * @param tokenIndex Posición en el flujo de tokens (contando los ERROR) del token actual o del
+     *                   token al que se refiere la acción.
+     * @param auxIndex Posición de un segundo token que usa el evento, o -1.
+     */
+    void onEvent(ParseEvent evento, int tokenIndex, int auxIndex);
+}
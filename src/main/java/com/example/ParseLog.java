@@ -0,0 +1,63 @@
+package com.example;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * ParseListener que guarda los eventos de forma compacta (evento y posiciones de token en
+ * arreglos de enteros) y solo los convierte en texto al llamar a {@link #getLineas()}.
+ * Las posiciones se resuelven contra el TokenBuffer del que se alimentó el analizador.
+ */
+public class ParseLog implements ParseListener {
+    public static final String PREFIJO = "Regla/Acción Sintáctica: ";
+
+    private static final ParseEvent[] EVENTOS = ParseEvent.values();
+    private static final int INITIAL_CAPACITY = 256;
+
+    private final TokenBuffer tokens;
+    private byte[] eventos = new byte[INITIAL_CAPACITY];
+    private int[] tokenIndices = new int[INITIAL_CAPACITY];
+    private int[] auxIndices = new int[INITIAL_CAPACITY];
+    private int size;
+
+    public ParseLog(TokenBuffer tokens) {
+        this.tokens = tokens;
+    }
+
+    @Override
+    public void onEvent(ParseEvent evento, int tokenIndex, int auxIndex) {
+        if (size == eventos.length) {
+            eventos = Arrays.copyOf(eventos, size * 2);
+            tokenIndices = Arrays.copyOf(tokenIndices, size * 2);
+            auxIndices = Arrays.copyOf(auxIndices, size * 2);
+        }
+        eventos[size] = (byte) evento.ordinal();
+        tokenIndices[size] = tokenIndex;
+        auxIndices[size] = auxIndex;
+        size++;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public ParseEvent getEvento(int index) {
+        return EVENTOS[eventos[index]];
+    }
+
+    public String getLinea(int index) {
+        return PREFIJO + getEvento(index).aTexto(tokens, tokenIndices[index], auxIndices[index]);
+    }
+
+    /**
+     * @return El texto de todos los eventos registrados, uno por línea.
+     */
+    public List<String> getLineas() {
+        List<String> lineas = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            lineas.add(getLinea(i));
+        }
+        return lineas;
+    }
+}
@@ -8,6 +8,10 @@ public class Simbolo {
     private int linea; // Línea donde fue definido
     private Object valor; // Valor actual o inicial, puede ser String, Integer, Double, Boolean, o null
     private int sizeInBytes; // Tamaño en bytes del tipo de dato
+    // Asignados por TablaDeSimbolos al agregar el símbolo.
+    int nombreId = -1;   // ID del nombre en la TablaDeNombres
+    int profundidad;     // Nivel de anidamiento del alcance que lo declara; 0 es el global
+    Simbolo sombreado;   // Declaración del mismo nombre en un alcance exterior, mientras este está abierto
 
     public Simbolo(String nombre, String tipo, String categoria, String alcance, int linea, Object valor, int sizeInBytes) {
         this.nombre = nombre;
@@ -27,6 +31,13 @@ public class Simbolo {
         return nombre;
     }
 
+    /**
+     * @return El ID del nombre en la TablaDeNombres, o -1 si el símbolo no está en una tabla.
+     */
+    public int getNombreId() {
+        return nombreId;
+    }
+
     public String getTipo() {
         return tipo;
     }
@@ -2,24 +2,26 @@ package com.example;
 
 import javax.swing.table.AbstractTableModel;
 import java.util.List;
-import java.util.ArrayList;
-import java.util.Collection; // Para aceptar Collection de la tabla de símbolos
+import java.util.Collections;
 
 public class SimboloTableModel extends AbstractTableModel {
     private final String[] columnNames = {"Nombre", "Tipo", "Categoría", "Alcance", "Línea", "Valor", "Tamaño (Bytes)"};
     private List<Simbolo> simbolos;
 
     public SimboloTableModel() {
-        this.simbolos = new ArrayList<>();
+        this.simbolos = Collections.emptyList();
     }
 
-    public void setSimbolos(Collection<Simbolo> simbolosCollection) {
-        this.simbolos = new ArrayList<>(simbolosCollection);
+    /**
+     * @param snapshot Copia inmutable de la tabla (ver {@link TablaDeSimbolos#snapshot()}); se usa sin copiarla.
+     */
+    public void setSimbolos(List<Simbolo> snapshot) {
+        this.simbolos = snapshot;
         fireTableDataChanged(); // Notificar a la JTable que los datos cambiaron
     }
 
     public void clearData() {
-        this.simbolos.clear();
+        this.simbolos = Collections.emptyList();
         fireTableDataChanged();
     }
 
@@ -2,53 +2,104 @@ package com.example;
 
 import java.util.List;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
 import com.example.ast.*;
 
 public class SyntaxAnalyzer {
 
-    private List<Token> tokens;
-    private int currentTokenIndex;
+    private TokenStream tokens;
+    private int currentTokenIndex; // Position of currentToken in the stream, counting ERROR tokens
+    private int tokensRead;
     private Token currentToken;
-    private List<String> syntaxLog;
+    private ParseListener listener;
+    // Stream positions of the last <lista_variables> and <tipo_dato>, for the events that name them.
+    private int[] variableIndices = new int[8];
+    private int tipoDatoIndex = -1;
     private TablaDeSimbolos tablaDeSimbolos;
+    private TablaDeNombres nombres;
+    private boolean idsDelLexer; // Los tokens traen el ID de nombre asignado en 'nombres'
     private List<ErrorCompilacion> erroresSintacticos;
     private ProgramaNode astRootNode;
 
     public SyntaxAnalyzer(List<Token> tokens) {
+        this(fromList(tokens));
+    }
+
+    /**
+     * Analizador que consume los tokens a medida que los produce {@code tokens} (por ejemplo un
+     * {@link Lexer} sobre un Reader), sin necesitar la lista completa en memoria.
+     */
+    public SyntaxAnalyzer(TokenStream tokens) {
         this.tokens = tokens;
-        this.currentTokenIndex = 0;
-        this.currentToken = tokens.isEmpty() ? null : tokens.get(0);
-        this.syntaxLog = new ArrayList<>();
-        this.tablaDeSimbolos = new TablaDeSimbolos();
+        this.nombres = tokens.getTablaDeNombres();
+        this.idsDelLexer = nombres != null;
+        if (nombres == null) nombres = new TablaDeNombres();
+        this.currentToken = nextParserToken();
+        this.tablaDeSimbolos = new TablaDeSimbolos(nombres);
         this.erroresSintacticos = new ArrayList<>();
         this.astRootNode = null;
     }
 
     public TablaDeSimbolos getTablaDeSimbolos() { return tablaDeSimbolos; }
-    public List<String> getSyntaxLog() { return syntaxLog; }
+
+    /**
+     * Registra quién recibe los eventos del análisis (por ejemplo un {@link ParseLog}); con null
+     * no se notifica nada.
+     */
+    public void setParseListener(ParseListener listener) { this.listener = listener; }
     public List<ErrorCompilacion> getErroresSintacticos() { return erroresSintacticos; }
     public ProgramaNode getAST() { return this.astRootNode; }
 
 
     private void advance() {
-        currentTokenIndex++;
-        currentToken = (currentTokenIndex < tokens.size()) ? tokens.get(currentTokenIndex) : null;
+        currentToken = nextParserToken();
+    }
+
+    // Lexical errors are reported by the lexer; their ERROR tokens never reach the grammar.
+    private Token nextParserToken() {
+        Token token;
+        do {
+            token = tokens.nextToken();
+            currentTokenIndex = tokensRead;
+            if (token != null) tokensRead++;
+        } while (token != null && token.getType() == TokenType.ERROR);
+        return token;
+    }
+
+    // ID of an identifier token; tokens that did not come from a lexer stream are interned here.
+    private int nombreId(Token token) {
+        return idsDelLexer ? token.getNameId() : nombres.intern(token.getLexeme());
+    }
+
+    private IdentificadorNode identificador(Token token) {
+        return new IdentificadorNode(token, nombreId(token));
+    }
+
+    private static TokenStream fromList(List<Token> tokens) {
+        Iterator<Token> iterator = tokens.iterator();
+        return () -> iterator.hasNext() ? iterator.next() : null;
     }
 
     private Token match(TokenType expectedType) {
         if (currentToken != null && currentToken.getType() == expectedType) {
             Token matchedToken = currentToken;
-            logRule("Consumido token: " + matchedToken.getType() + " ('" + matchedToken.getLexeme() + "')");
+            event(ParseEvent.TOKEN_CONSUMIDO);
             advance();
             return matchedToken;
         }
         return null;
     }
 
-    private Token matchKeyword(String keywordText) {
-        if (currentToken != null && currentToken.getType() == TokenType.KEYWORD && currentToken.getLexeme().equalsIgnoreCase(keywordText)) {
+    // True if the current token is the given keyword, operator or delimiter.
+    private boolean check(TokenKind kind) {
+        return currentToken != null && currentToken.getKind() == kind;
+    }
+
+    private Token matchKeyword(TokenKind keyword) {
+        if (check(keyword)) {
             Token matchedToken = currentToken;
-            logRule("Consumido keyword: " + matchedToken.getLexeme());
+            event(ParseEvent.KEYWORD_CONSUMIDA);
             advance();
             return matchedToken;
         }
@@ -65,10 +116,10 @@ public class SyntaxAnalyzer {
         return matchedToken;
     }
 
-    private Token expectKeyword(String keywordText, String errorMessage) {
+    private Token expectKeyword(TokenKind keyword, String errorMessage) {
         Token matchedToken = currentToken;
-        if (currentToken != null && currentToken.getType() == TokenType.KEYWORD && currentToken.getLexeme().equalsIgnoreCase(keywordText)) {
-            logRule("Consumido keyword: " + currentToken.getLexeme());
+        if (check(keyword)) {
+            event(ParseEvent.KEYWORD_CONSUMIDA);
             advance();
             return matchedToken;
         } else {
@@ -78,30 +129,30 @@ public class SyntaxAnalyzer {
     }
 
     private void reportError(String message) {
-        int linea = (currentToken != null) ? currentToken.getLineNumber() : (tokens.isEmpty() || currentTokenIndex >= tokens.size() ? 0 : tokens.get(Math.min(currentTokenIndex, tokens.size()-1)).getLineNumber());
+        int linea = (currentToken != null) ? currentToken.getLineNumber() : 0;
         int columna = (currentToken != null) ? currentToken.getColumnNumber() : 0;
         String lexema = (currentToken != null) ? currentToken.getLexeme() : "EOF";
         ErrorCompilacion error = new ErrorCompilacion( ErrorCompilacion.TipoError.SINTACTICO, message, linea, columna, lexema);
         erroresSintacticos.add(error);
-        syntaxLog.add(error.toString());
     }
 
-    private void logRule(String ruleMessage) {
-        syntaxLog.add("Regla/Acción Sintáctica: " + ruleMessage);
+    // Only positions are passed on, so nothing is built when there is no listener.
+    private void event(ParseEvent event) {
+        if (listener != null) listener.onEvent(event, currentTokenIndex, -1);
+    }
+
+    private void event(ParseEvent event, int tokenIndex, int auxIndex) {
+        if (listener != null) listener.onEvent(event, tokenIndex, auxIndex);
     }
 
     public void parse() { // Changed back to void, AST obtained via getAST()
-        logRule("Iniciando análisis sintáctico...");
+        event(ParseEvent.INICIO_ANALISIS);
         this.astRootNode = null;
         this.erroresSintacticos.clear();
 
-        boolean isEmptyOrCommentsOnly = tokens.stream().allMatch(t -> t.getType() == TokenType.COMMENT);
-        if (tokens.isEmpty() || isEmptyOrCommentsOnly && currentToken == null ) {
-             logRule("No hay sentencias válidas para analizar.");
-             return;
-        }
-        if (currentToken == null && !tokens.isEmpty() && !isEmptyOrCommentsOnly){
-             reportError("Se llegó al final del archivo inesperadamente antes de iniciar el análisis del programa.");
+        // The lexer never emits COMMENT tokens, so an empty stream is the only "nothing to parse" case.
+        if (currentToken == null) {
+             event(ParseEvent.SIN_SENTENCIAS);
              return;
         }
 
@@ -110,105 +161,156 @@ public class SyntaxAnalyzer {
         if (currentToken != null) {
             reportError("Se esperaba FinDeArchivo pero se encontraron tokens adicionales a partir de: " + currentToken.getLexeme());
         }
+        // Drain the stream so a streaming lexer still sees (and reports errors in) the whole input.
+        while (currentToken != null) {
+            advance();
+        }
 
         if (erroresSintacticos.isEmpty() && programaNode != null) {
             this.astRootNode = programaNode;
         }
-        logRule("Análisis sintáctico completado.");
+        event(ParseEvent.FIN_ANALISIS);
     }
 
     private ProgramaNode parsePrograma() {
-        logRule("Analizando <programa>");
-        Token tokenProceso = expectKeyword("Proceso", "Se esperaba 'Proceso'");
+        event(ParseEvent.PROGRAMA);
+        Token tokenProceso = expectKeyword(TokenKind.PROCESO, "Se esperaba 'Proceso'");
         if (tokenProceso == null && !erroresSintacticos.isEmpty()) return null;
 
         IdentificadorNode nombreProcesoNode = null;
         Token nombreProcesoToken = currentToken;
         if (nombreProcesoToken != null && nombreProcesoToken.getType() == TokenType.IDENTIFIER) {
-            nombreProcesoNode = new IdentificadorNode(nombreProcesoToken);
+            nombreProcesoNode = identificador(nombreProcesoToken);
             // El tamaño para "nombre_proceso" es 0, ya que no almacena datos como una variable.
-            Simbolo procSimbolo = new Simbolo( nombreProcesoToken.getLexeme(), "N/A", "nombre_proceso", "global", nombreProcesoToken.getLineNumber(), null, 0);
+            Simbolo procSimbolo = new Simbolo( nombreProcesoToken.getLexeme(), "N/A", "nombre_proceso", TablaDeSimbolos.ALCANCE_GLOBAL, nombreProcesoToken.getLineNumber(), null, 0);
             if (!tablaDeSimbolos.agregar(procSimbolo)) reportError("Error interno al agregar nombre de proceso.");
-            tablaDeSimbolos.setAlcanceActual("global");
-            logRule("Nombre del proceso '" + nombreProcesoToken.getLexeme() + "' agregado. Alcance: global");
+            event(ParseEvent.PROCESO_AGREGADO);
         }
         expect(TokenType.IDENTIFIER, "Se esperaba IDENTIFICADOR para nombre de proceso");
         if (nombreProcesoNode == null && nombreProcesoToken != null && nombreProcesoToken.getType() == TokenType.IDENTIFIER) { // If expect advanced currentToken but node wasn't created due to prior error state
-             nombreProcesoNode = new IdentificadorNode(nombreProcesoToken); // Create with the token that was expected
+             nombreProcesoNode = identificador(nombreProcesoToken); // Create with the token that was expected
         }
 
 
         List<NodoAST> sentencias = parseBloqueSentencias();
-        expectKeyword("FinProceso", "Se esperaba 'FinProceso'");
-        logRule("Fin <programa>");
-        if(nombreProcesoNode == null && nombreProcesoToken != null) nombreProcesoNode = new IdentificadorNode(nombreProcesoToken); // Fallback if expect failed but token was an ID
+        expectKeyword(TokenKind.FINPROCESO, "Se esperaba 'FinProceso'");
+        event(ParseEvent.FIN_PROGRAMA);
+        if(nombreProcesoNode == null && nombreProcesoToken != null) nombreProcesoNode = identificador(nombreProcesoToken); // Fallback if expect failed but token was an ID
         if(nombreProcesoNode == null) { reportError("Nombre de proceso inválido para AST."); return null;}
 
         return new ProgramaNode(tokenProceso, nombreProcesoNode, sentencias);
     }
 
-    private int calculateSizeForType(String tipoNombre) {
-        if (tipoNombre == null) return 0;
-        switch (tipoNombre.toLowerCase()) {
-            case "entero": return 4;
-            case "real": return 8;
-            case "logico": return 1;
-            case "cadena": // O "caracter" si se usa como string de un solo char
-            case "caracter":
+    private int calculateSizeForType(TokenKind tipo) {
+        if (tipo == null) return 0;
+        switch (tipo) {
+            case ENTERO: return 4;
+            case REAL: return 8;
+            case LOGICO: return 1;
+            case CADENA: // O "caracter" si se usa como string de un solo char
+            case CARACTER:
                 return 0; // Placeholder para tipos de tamaño variable o referencias
             default:
                 return 0; // Para otros tipos o si no es un tipo de dato estándar
         }
     }
 
+    // A Si whose blocks are still being parsed; parseBloqueSentencias keeps these on an explicit
+    // stack so nested Si depth is not limited by the Java call stack.
+    private static final class SiEnCurso {
+        final Token tokenSi;
+        final NodoAST condicion;
+        final List<NodoAST> bloquePadre; // Block the finished SiNode is added to
+        List<NodoAST> bloqueEntonces;     // null while the Entonces block is being parsed
+        List<NodoAST> bloqueSiNo;
+
+        SiEnCurso(Token tokenSi, NodoAST condicion, List<NodoAST> bloquePadre) {
+            this.tokenSi = tokenSi;
+            this.condicion = condicion;
+            this.bloquePadre = bloquePadre;
+        }
+    }
+
     private List<NodoAST> parseBloqueSentencias() {
-        logRule("Analizando <bloque_sentencias>");
+        List<SiEnCurso> sisAbiertos = new ArrayList<>();
+        event(ParseEvent.BLOQUE_SENTENCIAS);
         List<NodoAST> sentencias = new ArrayList<>();
-        while (currentToken != null && canStartSentencia(currentToken) && !isEndOfBlockMarker(currentToken)) {
-            NodoAST sentencia = parseSentencia();
-            if (sentencia != null) sentencias.add(sentencia);
-            else if (!erroresSintacticos.isEmpty()){ // Error occurred in parseSentencia
-                 // Try to advance to recover if parseSentencia didn't or couldn't.
-                 // This is a simple recovery, might need more sophistication.
-                Token problematicToken = currentToken;
-                advance();
-                if(currentToken == problematicToken) break; // Avoid infinite loop if advance doesn't move
-            } else { // Should not happen if canStartSentencia is true and no error
-                break;
+        boolean finDeBloque = false;
+        while (true) {
+            if (!finDeBloque && currentToken != null && canStartSentencia(currentToken) && !isEndOfBlockMarker(currentToken)) {
+                if (check(TokenKind.SI)) {
+                    // Enter the Entonces block of a nested Si instead of recursing into it.
+                    sisAbiertos.add(abrirSentenciaSi(sentencias));
+                    event(ParseEvent.BLOQUE_SENTENCIAS);
+                    sentencias = new ArrayList<>();
+                } else {
+                    finDeBloque = !agregarSentencia(sentencias, parseSentencia());
+                }
+                continue;
+            }
+            finDeBloque = false;
+            event(ParseEvent.FIN_BLOQUE_SENTENCIAS);
+            if (sisAbiertos.isEmpty()) {
+                return sentencias;
             }
+
+            SiEnCurso si = sisAbiertos.get(sisAbiertos.size() - 1);
+            if (si.bloqueEntonces == null) {
+                si.bloqueEntonces = sentencias;
+                if (check(TokenKind.SINO)) {
+                    matchKeyword(TokenKind.SINO);
+                    event(ParseEvent.BLOQUE_SENTENCIAS);
+                    sentencias = new ArrayList<>();
+                    continue;
+                }
+            } else {
+                si.bloqueSiNo = sentencias;
+            }
+            sisAbiertos.remove(sisAbiertos.size() - 1);
+            SiNode siNode = cerrarSentenciaSi(si);
+            sentencias = si.bloquePadre;
+            finDeBloque = !agregarSentencia(sentencias, siNode);
+        }
+    }
+
+    // Adds a parsed statement to its block, recovering from a failed one by skipping a token.
+    // Returns false when the block has to end.
+    private boolean agregarSentencia(List<NodoAST> sentencias, NodoAST sentencia) {
+        if (sentencia != null) {
+            sentencias.add(sentencia);
+            return true;
+        } else if (!erroresSintacticos.isEmpty()) { // Error occurred in parseSentencia
+            // Try to advance to recover if parseSentencia didn't or couldn't.
+            // This is a simple recovery, might need more sophistication.
+            Token problematicToken = currentToken;
+            advance();
+            return currentToken != problematicToken; // Avoid infinite loop if advance doesn't move
+        } else { // Should not happen if canStartSentencia is true and no error
+            return false;
         }
-        logRule("Fin <bloque_sentencias>");
-        return sentencias;
     }
 
     private boolean canStartSentencia(Token token) {
         if (token == null) return false;
-        if (token.getType() == TokenType.KEYWORD) {
-            String lexeme = token.getLexeme().toLowerCase();
-            switch (lexeme) { case "definir": case "leer": case "escribir": case "si": return true; }
-        } else if (token.getType() == TokenType.IDENTIFIER) return true;
-        return false;
+        switch (token.getKind()) { case DEFINIR: case LEER: case ESCRIBIR: case SI: return true; default: break; }
+        return token.getType() == TokenType.IDENTIFIER;
     }
     private boolean isEndOfBlockMarker(Token token) {
         if (token == null) return true;
-        if (token.getType() == TokenType.KEYWORD) {
-            String lexeme = token.getLexeme().toLowerCase();
-            switch (lexeme) { case "finproceso": case "finsi": case "sino": return true; }
-        }
-        return false;
+        switch (token.getKind()) { case FINPROCESO: case FINSI: case SINO: return true; default: return false; }
     }
 
     private NodoAST parseSentencia() {
-        logRule("Analizando <sentencia>");
+        event(ParseEvent.SENTENCIA);
         if (currentToken == null) { reportError("Fin de archivo inesperado, se esperaba una sentencia."); return null; }
         Token primerTokenSentencia = currentToken;
 
         if (primerTokenSentencia.getType() == TokenType.KEYWORD) {
-            switch (primerTokenSentencia.getLexeme().toLowerCase()) {
-                case "definir": return parseSentenciaDefinir();
-                case "leer": return parseSentenciaLeer();
-                case "escribir": return parseSentenciaEscribir();
-                case "si": return parseSentenciaSi();
+            switch (primerTokenSentencia.getKind()) {
+                case DEFINIR: return parseSentenciaDefinir();
+                case LEER: return parseSentenciaLeer();
+                case ESCRIBIR: return parseSentenciaEscribir();
+                // Si is opened by parseBloqueSentencias, which parses its blocks without recursion.
                 default:
                     reportError("Palabra clave no esperada para iniciar sentencia: " + primerTokenSentencia.getLexeme());
                     advance(); return null;
@@ -222,125 +324,136 @@ public class SyntaxAnalyzer {
     }
 
     private DefinirNode parseSentenciaDefinir() {
-        logRule("Analizando <sent_definir>");
-        Token tokenDefinir = expectKeyword("Definir", "Se esperaba 'Definir'");
+        event(ParseEvent.SENT_DEFINIR);
+        Token tokenDefinir = expectKeyword(TokenKind.DEFINIR, "Se esperaba 'Definir'");
         if (tokenDefinir == null && !erroresSintacticos.isEmpty()) return null;
 
         List<IdentificadorNode> variablesNodes = new ArrayList<>();
         List<Token> variablesTokens = parseListaVariables();
-        for(Token t : variablesTokens) variablesNodes.add(new IdentificadorNode(t));
+        for(Token t : variablesTokens) variablesNodes.add(identificador(t));
 
-        expectKeyword("Como", "Se esperaba 'Como'");
+        expectKeyword(TokenKind.COMO, "Se esperaba 'Como'");
         Token tipoDatoToken = parseTipoDato();
 
         if (tipoDatoToken != null && !variablesNodes.isEmpty()) {
-            for (IdentificadorNode varNode : variablesNodes) {
+            for (int i = 0; i < variablesNodes.size(); i++) {
+                IdentificadorNode varNode = variablesNodes.get(i);
                 String tipoNombre = tipoDatoToken.getLexeme();
-                int sizeInBytes = calculateSizeForType(tipoNombre);
+                int sizeInBytes = calculateSizeForType(tipoDatoToken.getKind());
                 Simbolo s = new Simbolo(varNode.getNombre(), tipoNombre, "variable", tablaDeSimbolos.getAlcanceActual(), varNode.getLinea(), null, sizeInBytes);
                 if (!tablaDeSimbolos.agregar(s)) {
                     reportError("Variable '" + varNode.getNombre() + "' ya definida. Línea: " + varNode.getLinea());
                 } else {
-                    logRule("Variable '" + varNode.getNombre() + "' ("+tipoDatoToken.getLexeme()+") agregada a tabla.");
+                    event(ParseEvent.VARIABLE_AGREGADA, variableIndices[i], tipoDatoIndex);
                 }
             }
         }
         expect(TokenType.DELIMITER, "Se esperaba ';' al final de Definir");
-        logRule("Fin <sent_definir>");
+        event(ParseEvent.FIN_SENT_DEFINIR);
         if (tokenDefinir == null || tipoDatoToken == null || variablesNodes.isEmpty() && !variablesTokens.isEmpty() /* check if nodes failed from tokens */) return null;
         return new DefinirNode(tokenDefinir, variablesNodes, tipoDatoToken);
     }
 
     private List<Token> parseListaVariables() {
-        logRule("Analizando <lista_variables>");
+        event(ParseEvent.LISTA_VARIABLES);
         List<Token> variables = new ArrayList<>();
+        int idIndex = currentTokenIndex;
         Token idToken = expect(TokenType.IDENTIFIER, "Se esperaba IDENTIFICADOR de variable inicial");
-        if (idToken != null) variables.add(idToken);
+        if (idToken != null) addVariable(variables, idToken, idIndex);
         else return variables; // Si el primero falla, no hay lista
 
-        while (currentToken != null && currentToken.getType() == TokenType.DELIMITER && currentToken.getLexeme().equals(",")) {
+        while (check(TokenKind.COMMA)) {
             match(TokenType.DELIMITER);
+            idIndex = currentTokenIndex;
             idToken = expect(TokenType.IDENTIFIER, "Se esperaba IDENTIFICADOR de variable después de la coma");
-            if (idToken != null) variables.add(idToken);
+            if (idToken != null) addVariable(variables, idToken, idIndex);
             else break;
         }
-        logRule("Fin <lista_variables>");
+        event(ParseEvent.FIN_LISTA_VARIABLES);
         return variables;
     }
+    private void addVariable(List<Token> variables, Token idToken, int idIndex) {
+        if (variables.size() == variableIndices.length) {
+            variableIndices = Arrays.copyOf(variableIndices, variables.size() * 2);
+        }
+        variableIndices[variables.size()] = idIndex;
+        variables.add(idToken);
+    }
+
     private Token parseTipoDato() {
-        logRule("Analizando <tipo_dato>");
+        event(ParseEvent.TIPO_DATO);
         Token tipoToken = null;
         if (currentToken != null && currentToken.getType() == TokenType.KEYWORD) {
-            String lexeme = currentToken.getLexeme().toLowerCase();
-            switch (lexeme) {
-                case "entero": case "real": case "caracter": case "logico": case "cadena":
+            switch (currentToken.getKind()) {
+                case ENTERO: case REAL: case CARACTER: case LOGICO: case CADENA:
                     tipoToken = currentToken;
-                    logRule("Tipo de dato reconocido: " + tipoToken.getLexeme());
+                    tipoDatoIndex = currentTokenIndex;
+                    event(ParseEvent.TIPO_RECONOCIDO);
                     advance();
                     break;
-                default: reportError("Tipo de dato keyword no reconocido: " + lexeme);
+                default: reportError("Tipo de dato keyword no reconocido: " + currentToken.getLexeme().toLowerCase());
             }
         } else {
             reportError("Se esperaba una palabra clave de tipo de dato. Encontrado: " + (currentToken != null ? currentToken.getType() + " ('" + currentToken.getLexeme() + "')" : "FIN DE ARCHIVO"));
         }
-        logRule("Fin <tipo_dato>");
+        event(ParseEvent.FIN_TIPO_DATO);
         return tipoToken;
     }
 
     private LeerNode parseSentenciaLeer() {
-        logRule("Analizando <sent_leer>");
-        Token tokenLeer = expectKeyword("Leer", "Se esperaba 'Leer'");
+        event(ParseEvent.SENT_LEER);
+        Token tokenLeer = expectKeyword(TokenKind.LEER, "Se esperaba 'Leer'");
         if (tokenLeer == null && !erroresSintacticos.isEmpty()) return null;
 
         List<IdentificadorNode> variablesNodes = new ArrayList<>();
         List<Token> varTokens = parseListaVariables();
         for(Token vt : varTokens) {
-            IdentificadorNode idNode = new IdentificadorNode(vt);
+            IdentificadorNode idNode = identificador(vt);
             variablesNodes.add(idNode);
-            if (tablaDeSimbolos.buscarConPrioridad(vt.getLexeme(), tablaDeSimbolos.getAlcanceActual()) == null) {
+            if (tablaDeSimbolos.buscar(idNode.getNombreId()) == null) {
                 reportError("Variable '" + vt.getLexeme() + "' no definida (en Leer). Línea: " + vt.getLineNumber());
             }
         }
         expect(TokenType.DELIMITER, "Se esperaba ';' al final de Leer");
-        logRule("Fin <sent_leer>");
+        event(ParseEvent.FIN_SENT_LEER);
         return new LeerNode(tokenLeer, variablesNodes);
     }
 
     private EscribirNode parseSentenciaEscribir() {
-        logRule("Analizando <sent_escribir>");
-        Token tokenEscribir = expectKeyword("Escribir", "Se esperaba 'Escribir'");
+        event(ParseEvent.SENT_ESCRIBIR);
+        Token tokenEscribir = expectKeyword(TokenKind.ESCRIBIR, "Se esperaba 'Escribir'");
         if (tokenEscribir == null && !erroresSintacticos.isEmpty()) return null;
         List<NodoAST> expresiones = parseListaExpresiones();
         expect(TokenType.DELIMITER, "Se esperaba ';' al final de Escribir");
-        logRule("Fin <sent_escribir>");
+        event(ParseEvent.FIN_SENT_ESCRIBIR);
         return new EscribirNode(tokenEscribir, expresiones);
     }
 
     private List<NodoAST> parseListaExpresiones() {
-        logRule("Analizando <lista_expresiones>");
+        event(ParseEvent.LISTA_EXPRESIONES);
         List<NodoAST> expresiones = new ArrayList<>();
         NodoAST expr = parseExpresion();
         if (expr != null) expresiones.add(expr);
         else { return expresiones; }
 
-        while (currentToken != null && currentToken.getType() == TokenType.DELIMITER && currentToken.getLexeme().equals(",")) {
+        while (check(TokenKind.COMMA)) {
             match(TokenType.DELIMITER);
             expr = parseExpresion();
             if (expr != null) expresiones.add(expr);
             else break;
         }
-        logRule("Fin <lista_expresiones>");
+        event(ParseEvent.FIN_LISTA_EXPRESIONES);
         return expresiones;
     }
 
     private AsignacionNode parseSentenciaAsignacion() {
-        logRule("Analizando <sent_asignacion>");
+        event(ParseEvent.SENT_ASIGNACION);
         Token idToken = currentToken;
         IdentificadorNode variableNode = null;
 
         if (idToken != null && idToken.getType() == TokenType.IDENTIFIER) {
-            variableNode = new IdentificadorNode(idToken);
-             if (tablaDeSimbolos.buscarConPrioridad(idToken.getLexeme(), tablaDeSimbolos.getAlcanceActual()) == null) {
+            variableNode = identificador(idToken);
+             if (tablaDeSimbolos.buscar(variableNode.getNombreId()) == null) {
                 reportError("Variable '" + idToken.getLexeme() + "' no definida. Línea: " + idToken.getLineNumber());
             }
         }
@@ -363,7 +476,7 @@ public class SyntaxAnalyzer {
         // The `variableNode` above is constructed with `currentToken` *before* `expect`. That's correct.
 
         Token opAsignacionToken = currentToken;
-        if (currentToken != null && currentToken.getType() == TokenType.OPERATOR && (currentToken.getLexeme().equals("<-") || currentToken.getLexeme().equals("="))) {
+        if (check(TokenKind.ASSIGN) || check(TokenKind.EQUAL)) {
             advance();
         } else {
             reportError("Se esperaba '<-' o '=' para asignación. Encontrado: " + (currentToken != null ? currentToken.getLexeme() : "EOF"));
@@ -372,107 +485,163 @@ public class SyntaxAnalyzer {
 
         NodoAST exprNode = parseExpresion();
         expect(TokenType.DELIMITER, "Se esperaba ';' al final de asignación");
-        logRule("Fin <sent_asignacion>");
+        event(ParseEvent.FIN_SENT_ASIGNACION);
 
         if (variableNode == null || opAsignacionToken == null || exprNode == null) return null;
         return new AsignacionNode(variableNode, opAsignacionToken, exprNode);
     }
 
-    private NodoAST parseExpresion() {
-        logRule("Analizando <expresion>");
-        NodoAST izquierda = parseExpresionSimple();
-        if (izquierda == null && !erroresSintacticos.isEmpty()) { // Check if error occurred in parseExpresionSimple
-             Token lastErrorToken = erroresSintacticos.get(erroresSintacticos.size()-1).getLexemaProblematico() != null ?
-                                   new Token(TokenType.ERROR, erroresSintacticos.get(erroresSintacticos.size()-1).getLexemaProblematico(), "", erroresSintacticos.get(erroresSintacticos.size()-1).getLinea(), erroresSintacticos.get(erroresSintacticos.size()-1).getColumna())
-                                   : currentToken; // Fallback
-            if(lastErrorToken == currentToken || currentTokenIndex > 0 && tokens.get(currentTokenIndex-1) == lastErrorToken ) return null;
-        }
+    // Precedence levels of the expression grammar, from loosest to tightest:
+    // <expresion> (O), its conjunctions (Y), its comparisons (relational operators),
+    // <expresion_simple> (+ -), <termino> (* /) and <factor> (which may be NO <factor>).
+    private static final int NIVEL_EXPRESION = 0;
+    private static final int NIVEL_CONJUNCION = 1;
+    private static final int NIVEL_COMPARACION = 2;
+    private static final int NIVEL_EXPRESION_SIMPLE = 3;
+    private static final int NIVEL_TERMINO = 4;
+    private static final int NIVEL_FACTOR = 5;
+
+    // The conjunction and comparison levels notify nothing, so the log of an expression without
+    // Y or O reads as before they had levels of their own.
+    private static final ParseEvent[] EVENTO_NIVEL = {ParseEvent.EXPRESION, null, null, ParseEvent.EXPRESION_SIMPLE, ParseEvent.TERMINO, ParseEvent.FACTOR};
+    private static final ParseEvent[] EVENTO_FIN_NIVEL = {ParseEvent.FIN_EXPRESION, null, null, ParseEvent.FIN_EXPRESION_SIMPLE, ParseEvent.FIN_TERMINO};
+    private static final String[] OPERANDO_NIVEL = {"expresión", "expresión", "expresión", "término", "factor"};
+
+    // States of an expression frame.
+    private static final int INICIO = 0;          // Level entered, nothing parsed yet
+    private static final int OPERANDO = 1;        // Left operand parsed (value in 'resultado')
+    private static final int DERECHA = 2;         // Right operand of 'operador' parsed
+    private static final int PARENTESIS = 3;      // Factor level: expression inside '(' parsed
+    private static final int NEGACION = 4;        // Factor level: the factor after 'NO' parsed
+
+    // One pending level of the grammar on the expression stack.
+    private static final class ExprFrame {
+        int nivel;
+        int estado;
+        NodoAST izquierda;
+        Token operador; // Binary operator, 'NO', or the '(' of a parenthesized factor
+    }
 
-        while (currentToken != null && currentToken.getType() == TokenType.OPERATOR && isRelationalOrLogicalOperator(currentToken.getLexeme())) {
-            Token operador = currentToken;
-            advance();
-            NodoAST derecha = parseExpresionSimple();
-            if (derecha == null) {
-                 reportError("Se esperaba expresión después del operador '" + operador.getLexeme() + "'");
-                 return izquierda; // Return what was parsed on left, even if incomplete
-            }
-            if (izquierda == null) { // Should not happen if first part is mandatory.
-                reportError("Operando izquierdo faltante para operador '" + operador.getLexeme() + "'");
-                return null;
+    private final List<ExprFrame> exprStack = new ArrayList<>();
+
+    /**
+     * Parses an expression with an explicit stack of precedence levels instead of one Java call
+     * per level and parenthesis, so nesting depth is only limited by the heap. It notifies the
+     * same events and reports the same errors, in the same order, as the recursive grammar
+     * <expresion> (O) -> Y -> comparisons -> <expresion_simple> -> <termino> -> <factor> it
+     * implements.
+     */
+    private NodoAST parseExpresion() {
+        int base = exprStack.size(); // parseExpresion is not re-entered, but stay safe if it is
+        pushExprFrame(NIVEL_EXPRESION);
+        NodoAST resultado = null; // Value of the level that just finished
+        while (exprStack.size() > base) {
+            ExprFrame frame = exprStack.get(exprStack.size() - 1);
+            switch (frame.estado) {
+                case INICIO:
+                    if (EVENTO_NIVEL[frame.nivel] != null) event(EVENTO_NIVEL[frame.nivel]);
+                    if (frame.nivel < NIVEL_FACTOR) {
+                        frame.estado = OPERANDO;
+                        pushExprFrame(frame.nivel + 1);
+                    } else if (currentToken != null && currentToken.getKind() == TokenKind.LPAREN) {
+                        frame.operador = match(TokenType.DELIMITER); // Consume "("
+                        frame.estado = PARENTESIS;
+                        pushExprFrame(NIVEL_EXPRESION);
+                    } else if (currentToken != null && currentToken.getKind() == TokenKind.NOT) {
+                        frame.operador = currentToken;
+                        advance();
+                        frame.estado = NEGACION;
+                        pushExprFrame(NIVEL_FACTOR);
+                    } else {
+                        resultado = parseFactorSimple();
+                        popExprFrame();
+                    }
+                    break;
+                case OPERANDO:
+                    frame.izquierda = resultado;
+                    if (currentToken != null && isOperatorOfLevel(currentToken.getKind(), frame.nivel)) {
+                        frame.operador = currentToken;
+                        advance();
+                        frame.estado = DERECHA;
+                        pushExprFrame(frame.nivel + 1);
+                    } else {
+                        if (EVENTO_FIN_NIVEL[frame.nivel] != null) event(EVENTO_FIN_NIVEL[frame.nivel]);
+                        resultado = frame.izquierda;
+                        popExprFrame();
+                    }
+                    break;
+                case DERECHA:
+                    if (resultado == null) {
+                        reportError("Se esperaba " + OPERANDO_NIVEL[frame.nivel] + " después del operador '" + frame.operador.getLexeme() + "'");
+                        resultado = frame.izquierda; // Return what was parsed on left, even if incomplete
+                        popExprFrame();
+                    } else if (frame.izquierda == null) {
+                        reportError("Operando izquierdo faltante para operador '" + frame.operador.getLexeme() + "'");
+                        resultado = null;
+                        popExprFrame();
+                    } else {
+                        // Left-associative: the new node becomes the left operand of the next operator.
+                        resultado = new ExpresionBinariaNode(frame.izquierda, frame.operador, resultado);
+                        frame.estado = OPERANDO;
+                    }
+                    break;
+                case PARENTESIS:
+                    expect(TokenType.DELIMITER, "Se esperaba ')'");
+                    if (resultado != null) { // null: error en la expresión interna
+                        resultado = new ExpresionParentizadaNode(resultado, frame.operador);
+                    }
+                    popExprFrame();
+                    break;
+                case NEGACION:
+                    if (resultado == null) {
+                        reportError("Se esperaba factor después del operador '" + frame.operador.getLexeme() + "'");
+                    } else {
+                        resultado = new ExpresionUnariaNode(frame.operador, resultado);
+                    }
+                    popExprFrame();
+                    break;
+                default:
+                    throw new IllegalStateException("Estado de expresión desconocido: " + frame.estado);
             }
-            izquierda = new ExpresionBinariaNode(izquierda, operador, derecha);
         }
-        logRule("Fin <expresion>");
-        return izquierda;
+        return resultado;
     }
 
-    private boolean isRelationalOrLogicalOperator(String lexeme) {
-        switch (lexeme.toLowerCase()) {
-            case ">": case "<": case ">=": case "<=": case "==":
-            case "=": case "<>": case "y": case "o":
-                return true;
-            default: return false;
-        }
+    private void pushExprFrame(int nivel) {
+        ExprFrame frame = new ExprFrame();
+        frame.nivel = nivel;
+        frame.estado = INICIO;
+        exprStack.add(frame);
     }
 
-    private NodoAST parseExpresionSimple() {
-        logRule("Analizando <expresion_simple>");
-        NodoAST izquierda = parseTermino();
-         if (izquierda == null && !erroresSintacticos.isEmpty()){
-            Token lastErrorToken = erroresSintacticos.get(erroresSintacticos.size()-1).getLexemaProblematico() != null ?
-                                   new Token(TokenType.ERROR, erroresSintacticos.get(erroresSintacticos.size()-1).getLexemaProblematico(), "", erroresSintacticos.get(erroresSintacticos.size()-1).getLinea(), erroresSintacticos.get(erroresSintacticos.size()-1).getColumna())
-                                   : currentToken;
-            if(lastErrorToken == currentToken || currentTokenIndex > 0 && tokens.get(currentTokenIndex-1) == lastErrorToken ) return null;
-        }
+    private void popExprFrame() {
+        exprStack.remove(exprStack.size() - 1);
+    }
 
-        while (currentToken != null && currentToken.getType() == TokenType.OPERATOR && (currentToken.getLexeme().equals("+") || currentToken.getLexeme().equals("-"))) {
-            Token operador = currentToken;
-            advance();
-            NodoAST derecha = parseTermino();
-            if (derecha == null) {
-                reportError("Se esperaba término después del operador '" + operador.getLexeme() + "'");
-                return izquierda;
-            }
-            if (izquierda == null) {
-                 reportError("Operando izquierdo faltante para operador '" + operador.getLexeme() + "'");
-                return null;
-            }
-            izquierda = new ExpresionBinariaNode(izquierda, operador, derecha);
-        }
-        logRule("Fin <expresion_simple>");
-        return izquierda;
-    }
-
-    private NodoAST parseTermino() {
-        logRule("Analizando <termino>");
-        NodoAST izquierda = parseFactor();
-        if (izquierda == null && !erroresSintacticos.isEmpty()){
-            Token lastErrorToken = erroresSintacticos.get(erroresSintacticos.size()-1).getLexemaProblematico() != null ?
-                                   new Token(TokenType.ERROR, erroresSintacticos.get(erroresSintacticos.size()-1).getLexemaProblematico(), "", erroresSintacticos.get(erroresSintacticos.size()-1).getLinea(), erroresSintacticos.get(erroresSintacticos.size()-1).getColumna())
-                                   : currentToken;
-            if(lastErrorToken == currentToken || currentTokenIndex > 0 && tokens.get(currentTokenIndex-1) == lastErrorToken ) return null;
+    private boolean isOperatorOfLevel(TokenKind kind, int nivel) {
+        switch (nivel) {
+            case NIVEL_EXPRESION: return kind == TokenKind.OR;
+            case NIVEL_CONJUNCION: return kind == TokenKind.AND;
+            case NIVEL_COMPARACION: return isRelationalOperator(kind);
+            case NIVEL_EXPRESION_SIMPLE: return kind == TokenKind.PLUS || kind == TokenKind.MINUS;
+            case NIVEL_TERMINO: return kind == TokenKind.STAR || kind == TokenKind.SLASH;
+            default: return false;
         }
+    }
 
-        while (currentToken != null && currentToken.getType() == TokenType.OPERATOR && (currentToken.getLexeme().equals("*") || currentToken.getLexeme().equals("/"))) {
-            Token operador = currentToken;
-            advance();
-            NodoAST derecha = parseFactor();
-            if (derecha == null) {
-                reportError("Se esperaba factor después del operador '" + operador.getLexeme() + "'");
-                return izquierda;
-            }
-            if (izquierda == null) {
-                reportError("Operando izquierdo faltante para operador '" + operador.getLexeme() + "'");
-                return null;
-            }
-            izquierda = new ExpresionBinariaNode(izquierda, operador, derecha);
+    private boolean isRelationalOperator(TokenKind kind) {
+        switch (kind) {
+            case GREATER: case LESS: case GREATER_EQUAL: case LESS_EQUAL: case EQUAL_EQUAL:
+            case EQUAL: case NOT_EQUAL:
+                return true;
+            default: return false;
         }
-        logRule("Fin <termino>");
-        return izquierda;
     }
 
-    private NodoAST parseFactor() {
-        logRule("Analizando <factor>");
+    // <factor> other than a parenthesized expression or NO <factor>, which parseExpresion handles
+    // itself.
+    // The FACTOR event has already been notified.
+    private NodoAST parseFactorSimple() {
         if (currentToken == null) {
             reportError("Factor inesperado: Fin de archivo.");
             return null;
@@ -480,12 +649,13 @@ public class SyntaxAnalyzer {
         Token factorToken = currentToken; // Captura el token actual para usar en la creación del nodo
         switch (factorToken.getType()) {
             case IDENTIFIER:
-                Simbolo s = tablaDeSimbolos.buscarConPrioridad(factorToken.getLexeme(), tablaDeSimbolos.getAlcanceActual());
+                IdentificadorNode idNode = identificador(factorToken);
+                Simbolo s = tablaDeSimbolos.buscar(idNode.getNombreId());
                 if (s == null) {
                     reportError("Variable '" + factorToken.getLexeme() + "' no definida. Línea: " + factorToken.getLineNumber());
                 }
                 advance();
-                return new IdentificadorNode(factorToken);
+                return idNode;
             case NUMBER:
             case STRING:
                 // factorToken es el token actual. Lo guardamos antes de avanzar.
@@ -493,7 +663,7 @@ public class SyntaxAnalyzer {
                 advance();
                 return new LiteralNode(literalToken);
             case KEYWORD:
-                 if (factorToken.getLexeme().equalsIgnoreCase("verdadero") || factorToken.getLexeme().equalsIgnoreCase("falso")) {
+                 if (factorToken.getKind() == TokenKind.VERDADERO || factorToken.getKind() == TokenKind.FALSO) {
                     Token booleanLiteralToken = factorToken;
                     advance();
                     return new LiteralNode(booleanLiteralToken);
@@ -503,40 +673,29 @@ public class SyntaxAnalyzer {
                     return null;
                  }
             case DELIMITER:
-                if (factorToken.getLexeme().equals("(")) {
-                    Token parenApertura = match(TokenType.DELIMITER); // Consume "("
-                    NodoAST exprInterna = parseExpresion();
-                    expect(TokenType.DELIMITER, "Se esperaba ')'");
-                    if(exprInterna == null) return null; // Error en la expresión interna
-                    return new ExpresionParentizadaNode(exprInterna, parenApertura);
-                } else {
-                    reportError("Delimitador inesperado como factor: '" + factorToken.getLexeme() + "'");
-                    advance(); return null;
-                }
+                reportError("Delimitador inesperado como factor: '" + factorToken.getLexeme() + "'");
+                advance(); return null;
             default:
                 reportError("Factor inesperado: " + factorToken.getType() + " ('" + factorToken.getLexeme() + "')");
                 advance(); return null;
         }
     }
 
-    private SiNode parseSentenciaSi() {
-        logRule("Analizando <sent_si>");
-        Token tokenSi = expectKeyword("Si", "Se esperaba 'Si'");
-        if(tokenSi == null && !erroresSintacticos.isEmpty()) return null;
-
+    // <sent_si> up to 'Entonces'; the blocks are parsed by parseBloqueSentencias.
+    private SiEnCurso abrirSentenciaSi(List<NodoAST> bloquePadre) {
+        event(ParseEvent.SENTENCIA);
+        event(ParseEvent.SENT_SI);
+        Token tokenSi = expectKeyword(TokenKind.SI, "Se esperaba 'Si'");
         NodoAST condicion = parseExpresion();
-        expectKeyword("Entonces", "Se esperaba 'Entonces'");
-        List<NodoAST> bloqueEntonces = parseBloqueSentencias();
-        List<NodoAST> bloqueSiNo = null;
-
-        if (currentToken != null && currentToken.getType() == TokenType.KEYWORD && currentToken.getLexeme().equalsIgnoreCase("SiNo")) {
-            matchKeyword("SiNo");
-            bloqueSiNo = parseBloqueSentencias();
-        }
+        expectKeyword(TokenKind.ENTONCES, "Se esperaba 'Entonces'");
+        return new SiEnCurso(tokenSi, condicion, bloquePadre);
+    }
 
-        expectKeyword("FinSi", "Se esperaba 'FinSi'");
-        logRule("Fin <sent_si>");
-        if(condicion == null && !erroresSintacticos.isEmpty()) return null;
-        return new SiNode(tokenSi, condicion, bloqueEntonces, bloqueSiNo);
+    // 'FinSi' after the last block of the Si.
+    private SiNode cerrarSentenciaSi(SiEnCurso si) {
+        expectKeyword(TokenKind.FINSI, "Se esperaba 'FinSi'");
+        event(ParseEvent.FIN_SENT_SI);
+        if(si.condicion == null && !erroresSintacticos.isEmpty()) return null;
+        return new SiNode(si.tokenSi, si.condicion, si.bloqueEntonces, si.bloqueSiNo);
     }
 }
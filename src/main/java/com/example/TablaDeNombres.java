@@ -0,0 +1,137 @@
+package com.example;
+
+import java.util.Arrays;
+
+/**
+ * Tabla de internado de identificadores de una compilación: a cada nombre distinto le asigna
+ * un ID entero consecutivo (desde 0) la primera vez que el lexer lo encuentra. Todas las
+ * apariciones de un identificador comparten el mismo String, y la tabla de símbolos y el resto
+ * de fases comparan y buscan por ID en lugar de construir claves de texto.
+ * Los nombres distinguen mayúsculas, igual que la búsqueda por nombre que reemplaza.
+ */
+public class TablaDeNombres {
+    private static final int INITIAL_CAPACITY = 64; // Potencia de 2
+
+    private String[] nombres;    // Nombre de cada ID
+    private int[] hashes;        // Hash de cada ID, para crecer sin volver a calcularlo
+    private int[] casillas;      // Dispersión abierta: ID + 1 de cada casilla, 0 si está libre
+    private int size;
+
+    public TablaDeNombres() {
+        this.nombres = new String[INITIAL_CAPACITY / 2];
+        this.hashes = new int[INITIAL_CAPACITY / 2];
+        this.casillas = new int[INITIAL_CAPACITY];
+    }
+
+    /**
+     * Interna el nombre {@code s[start, end)} sin crear un String si ya estaba registrado.
+     * @return El ID del nombre.
+     */
+    public int intern(char[] s, int start, int end) {
+        int hash = hash(s, start, end);
+        int mask = casillas.length - 1;
+        for (int i = casilla(hash, mask); ; i = (i + 1) & mask) {
+            int id = casillas[i] - 1;
+            if (id < 0) {
+                return agregar(new String(s, start, end - start), hash, i);
+            }
+            if (hashes[id] == hash && iguales(nombres[id], s, start, end)) {
+                return id;
+            }
+        }
+    }
+
+    /**
+     * Interna {@code nombre}, para identificadores que no pasaron por el lexer.
+     * @return El ID del nombre.
+     */
+    public int intern(String nombre) {
+        int hash = nombre.hashCode();
+        int mask = casillas.length - 1;
+        for (int i = casilla(hash, mask); ; i = (i + 1) & mask) {
+            int id = casillas[i] - 1;
+            if (id < 0) {
+                return agregar(nombre, hash, i);
+            }
+            if (hashes[id] == hash && nombres[id].equals(nombre)) {
+                return id;
+            }
+        }
+    }
+
+    /**
+     * Busca {@code nombre} sin registrarlo.
+     * @return Su ID, o -1 si nunca se internó.
+     */
+    public int buscar(String nombre) {
+        int hash = nombre.hashCode();
+        int mask = casillas.length - 1;
+        for (int i = casilla(hash, mask); ; i = (i + 1) & mask) {
+            int id = casillas[i] - 1;
+            if (id < 0) {
+                return -1;
+            }
+            if (hashes[id] == hash && nombres[id].equals(nombre)) {
+                return id;
+            }
+        }
+    }
+
+    public String getNombre(int id) {
+        return nombres[id];
+    }
+
+    /**
+     * @return Cantidad de nombres distintos; los IDs válidos van de 0 a {@code size() - 1}.
+     */
+    public int size() {
+        return size;
+    }
+
+    private int agregar(String nombre, int hash, int casilla) {
+        if (size == nombres.length) {
+            nombres = Arrays.copyOf(nombres, size * 2);
+            hashes = Arrays.copyOf(hashes, size * 2);
+        }
+        int id = size++;
+        nombres[id] = nombre;
+        hashes[id] = hash;
+        casillas[casilla] = id + 1;
+        // Se mantiene la ocupación por debajo de la mitad para que las secuencias de sondeo sean cortas.
+        if (size * 2 > casillas.length) {
+            redimensionar();
+        }
+        return id;
+    }
+
+    private void redimensionar() {
+        casillas = new int[casillas.length * 2];
+        int mask = casillas.length - 1;
+        for (int id = 0; id < size; id++) {
+            int i = casilla(hashes[id], mask);
+            while (casillas[i] != 0) i = (i + 1) & mask;
+            casillas[i] = id + 1;
+        }
+    }
+
+    private static int casilla(int hash, int mask) {
+        return (hash ^ (hash >>> 16)) & mask;
+    }
+
+    // Mismo hash que String.hashCode, para que intern(char[]) e intern(String) coincidan.
+    private static int hash(char[] s, int start, int end) {
+        int h = 0;
+        for (int i = start; i < end; i++) {
+            h = 31 * h + s[i];
+        }
+        return h;
+    }
+
+    private static boolean iguales(String nombre, char[] s, int start, int end) {
+        if (nombre.length() != end - start) return false;
+        for (int i = start; i < end; i++) {
+            if (nombre.charAt(i - start) != s[i]) return false;
+        }
+        return true;
+    }
+}
@@ -1,48 +1,135 @@
 package com.example;
 
-import java.util.LinkedHashMap;
-import java.util.Map;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection; // Importación añadida
+import java.util.Collections;
+import java.util.List;
 
+/**
+ * Tabla de símbolos con alcances anidados (proceso, Funcion/SubProceso y bloques).
+ * <p>
+ * Cada nombre (por su ID en la TablaDeNombres) apunta a su declaración visible más interna, y
+ * cada símbolo guarda la declaración que sombrea. Buscar un nombre es leer una posición del
+ * arreglo, sin importar cuántos alcances haya abiertos; entrar a un alcance es apilar una marca
+ * y salir es deshacer solo las declaraciones hechas dentro de él.
+ * <p>
+ * Los símbolos de alcances ya cerrados dejan de ser visibles pero se conservan para mostrar la
+ * tabla y para las fases posteriores.
+ */
 public class TablaDeSimbolos {
-    // Usamos LinkedHashMap para mantener el orden de inserción, útil para imprimir la tabla.
-    private Map<String, Simbolo> tabla;
-    // Podríamos añadir una pila de tablas para manejar alcances anidados en el futuro.
-    // private Stack<Map<String, Simbolo>> alcances;
-    private String alcanceActual; // Simple manejo de alcance por ahora
+    public static final String ALCANCE_GLOBAL = "global";
+
+    private final TablaDeNombres nombres;
+    // Declaración visible de cada nombre (indexado por ID); las que sombrea siguen en su cadena.
+    private Simbolo[] visiblePorNombre;
+    // Primera declaración de cada nombre en cualquier alcance, para las fases posteriores al análisis.
+    private Simbolo[] primeroPorNombre;
+    // Todos los símbolos en orden de inserción, útil para imprimir la tabla.
+    private final List<Simbolo> simbolos;
+
+    // Pila de alcances: nombre de cada nivel y cuántas declaraciones había en 'vinculos' al entrar.
+    private String[] nombresAlcance;
+    private int[] marcasAlcance;
+    private int profundidad; // Nivel del alcance actual; 0 es el global
+    // Declaraciones de los alcances abiertos, en orden, para deshacerlas al salir.
+    private final List<Simbolo> vinculos;
 
     public TablaDeSimbolos() {
-        this.tabla = new LinkedHashMap<>();
-        this.alcanceActual = "global"; // Alcance por defecto
+        this(new TablaDeNombres());
+    }
+
+    /**
+     * Tabla de símbolos que comparte los IDs de nombre asignados por el lexer en {@code nombres}.
+     */
+    public TablaDeSimbolos(TablaDeNombres nombres) {
+        this.nombres = nombres;
+        int capacidad = Math.max(16, nombres.size());
+        this.visiblePorNombre = new Simbolo[capacidad];
+        this.primeroPorNombre = new Simbolo[capacidad];
+        this.simbolos = new ArrayList<>();
+        this.vinculos = new ArrayList<>();
+        this.nombresAlcance = new String[8];
+        this.marcasAlcance = new int[8];
+        this.nombresAlcance[0] = ALCANCE_GLOBAL; // Alcance por defecto
+        this.profundidad = 0;
+    }
+
+    public TablaDeNombres getTablaDeNombres() {
+        return nombres;
     }
 
-    public void setAlcanceActual(String alcance) {
-        this.alcanceActual = alcance;
+    /**
+     * Abre un alcance anidado dentro del actual (el cuerpo de una Funcion/SubProceso o un bloque).
+     * @param alcance Nombre del alcance, el que se mostrará en la columna Alcance de sus símbolos.
+     */
+    public void entrarAlcance(String alcance) {
+        profundidad++;
+        if (profundidad == nombresAlcance.length) {
+            nombresAlcance = Arrays.copyOf(nombresAlcance, profundidad * 2);
+            marcasAlcance = Arrays.copyOf(marcasAlcance, profundidad * 2);
+        }
+        nombresAlcance[profundidad] = alcance;
+        marcasAlcance[profundidad] = vinculos.size();
+    }
+
+    /**
+     * Cierra el alcance actual: sus declaraciones dejan de ser visibles y vuelven a verse las que
+     * sombreaban. El alcance global no se puede cerrar.
+     */
+    public void salirAlcance() {
+        if (profundidad == 0) {
+            throw new IllegalStateException("No hay un alcance anidado abierto.");
+        }
+        int marca = marcasAlcance[profundidad];
+        for (int i = vinculos.size() - 1; i >= marca; i--) {
+            Simbolo s = vinculos.remove(i);
+            visiblePorNombre[s.nombreId] = s.sombreado;
+            s.sombreado = null;
+        }
+        nombresAlcance[profundidad] = null;
+        profundidad--;
     }
 
     public String getAlcanceActual() {
-        return this.alcanceActual;
+        return nombresAlcance[profundidad];
+    }
+
+    public int getProfundidad() {
+        return profundidad;
     }
 
     /**
-     * Agrega un símbolo a la tabla.
-     * Verifica si ya existe un símbolo con el mismo nombre en el alcance actual.
+     * Agrega un símbolo al alcance actual.
+     * Verifica si ya existe un símbolo con el mismo nombre en el alcance actual; uno de un
+     * alcance exterior no es error, queda sombreado hasta salir del alcance actual.
      * @param simbolo El símbolo a agregar.
      * @return true si se agregó exitosamente, false si ya existía (error de redeclaración).
      */
     public boolean agregar(Simbolo simbolo) {
-        // Para un manejo de alcance más complejo, la clave podría ser "nombre@alcance"
-        // o se buscaría solo en la tabla del tope de la pila de alcances.
-        // Por ahora, asumimos un solo espacio de nombres global o que el alcance se maneja en el nombre del símbolo.
-        String nombreKey = simbolo.getNombre() + "@" + simbolo.getAlcance(); // Clave única por nombre y alcance
+        int nombreId = nombres.intern(simbolo.getNombre());
+        if (nombreId >= visiblePorNombre.length) {
+            int capacidad = Math.max(nombreId + 1, visiblePorNombre.length * 2);
+            visiblePorNombre = Arrays.copyOf(visiblePorNombre, capacidad);
+            primeroPorNombre = Arrays.copyOf(primeroPorNombre, capacidad);
+        }
 
-        if (tabla.containsKey(nombreKey)) {
+        Simbolo visible = visiblePorNombre[nombreId];
+        if (visible != null && visible.profundidad == profundidad) {
             // Error: Símbolo ya definido en este alcance.
             // El SyntaxAnalyzer se encargará de reportar este error usando esta info.
             return false;
         }
         // Ahora se asume que el Simbolo viene con el sizeInBytes correcto desde SyntaxAnalyzer.
-        tabla.put(nombreKey, simbolo);
+        simbolo.nombreId = nombreId;
+        simbolo.profundidad = profundidad;
+        simbolo.sombreado = visible;
+        visiblePorNombre[nombreId] = simbolo;
+        if (primeroPorNombre[nombreId] == null) {
+            primeroPorNombre[nombreId] = simbolo;
+        }
+        vinculos.add(simbolo);
+        simbolos.add(simbolo);
         return true;
     }
 
@@ -50,46 +137,57 @@ public class TablaDeSimbolos {
     // Fue movido a SyntaxAnalyzer.
 
     /**
-     * Busca un símbolo por nombre en el alcance actual y luego en alcances superiores si se implementa.
-     * @param nombre El nombre del símbolo a buscar.
-     * @param alcance El alcance en el que buscar.
+     * Busca la declaración visible de un nombre desde el alcance actual: la del alcance más
+     * interno que lo declare.
+     * @param nombreId El ID del nombre en la tabla de nombres.
      * @return El Simbolo encontrado, o null si no existe.
      */
-    public Simbolo buscar(String nombre, String alcance) {
-        // Búsqueda simple por ahora:
-        return tabla.get(nombre + "@" + alcance);
+    public Simbolo buscar(int nombreId) {
+        if (nombreId < 0 || nombreId >= visiblePorNombre.length) return null;
+        return visiblePorNombre[nombreId];
     }
 
     /**
-     * Busca un símbolo por nombre. Primero en el alcance actual, luego en global si no se encuentra.
-     * (Simplificado para un sistema de dos niveles: local y global)
+     * Busca la declaración visible de un nombre desde el alcance actual.
      * @param nombre El nombre del símbolo a buscar.
-     * @param alcancePrioritario El alcance actual/prioritario (e.g., nombre de una función).
      * @return El Simbolo encontrado, o null si no existe.
      */
-    public Simbolo buscarConPrioridad(String nombre, String alcancePrioritario) {
-        Simbolo s = buscar(nombre, alcancePrioritario);
-        if (s == null && !alcancePrioritario.equals("global")) {
-            // Si no se encuentra en el alcance prioritario (y no es ya el global), buscar en global.
-            s = buscar(nombre, "global");
-        }
-        return s;
+    public Simbolo buscar(String nombre) {
+        return buscar(nombres.buscar(nombre));
+    }
+
+    /**
+     * Busca el primer símbolo agregado con el ID de nombre dado, sin importar su alcance ni si
+     * ese alcance sigue abierto.
+     * @return El Simbolo encontrado, o null si ningún alcance define ese nombre.
+     */
+    public Simbolo buscarEnCualquierAlcance(int nombreId) {
+        if (nombreId < 0 || nombreId >= primeroPorNombre.length) return null;
+        return primeroPorNombre[nombreId];
     }
 
 
     public void imprimirTabla() {
         System.out.println("\n--- Tabla de Símbolos ---");
-        if (tabla.isEmpty()) {
+        if (simbolos.isEmpty()) {
             System.out.println("La tabla de símbolos está vacía.");
             return;
         }
         System.out.println(Simbolo.getHeader());
-        for (Simbolo simbolo : tabla.values()) {
+        for (Simbolo simbolo : simbolos) {
             System.out.println(simbolo.toString());
         }
     }
 
     public Collection<Simbolo> getSimbolosAsCollection() {
-        return tabla.values();
+        return Collections.unmodifiableList(simbolos);
+    }
+
+    /**
+     * Copia inmutable de los símbolos en orden de inserción, para mostrarla (por ejemplo en
+     * SimboloTableModel) sin que le afecten cambios posteriores de la tabla.
+     */
+    public List<Simbolo> snapshot() {
+        return Collections.unmodifiableList(new ArrayList<>(simbolos));
     }
 }
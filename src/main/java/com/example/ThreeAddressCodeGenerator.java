@@ -1,6 +1,9 @@
 package com.example;
 
 import com.example.ast.*;
+import com.example.tac.Instruction;
+import com.example.tac.Opcode;
+import com.example.tac.Operand;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -8,17 +11,48 @@ public class ThreeAddressCodeGenerator {
 
     private int labelCount = 1;
     private int tempCount = 1;
-    private final List<String> code = new ArrayList<>();
+    private final List<Instruction> code = new ArrayList<>();
+    // Work still to emit, as a stack: statements to visit (NodoAST) or finished instructions.
+    // Generation never recurses on the tree, so nesting depth is bounded by the heap only.
+    private final List<Object> pending = new ArrayList<>();
+    // What the statement being visited schedules after its own lines, in order.
+    private final List<Object> scheduled = new ArrayList<>();
+    private final StatementVisitor statementVisitor = new StatementVisitor();
 
-    public List<String> generate(ProgramaNode programNode) {
+    // Expression evaluation stacks: nodes still to visit (true once a binary node's operands are
+    // scheduled) and the operands computed so far.
+    private final List<NodoAST> exprNodes = new ArrayList<>();
+    private final List<Boolean> exprExpanded = new ArrayList<>();
+    private final List<Operand> operands = new ArrayList<>();
+    private final ExpressionVisitor expressionVisitor = new ExpressionVisitor();
+
+    // Jumping-code stacks for conditions: nodes still to translate with the step each is at, and
+    // the jumps of the conditions translated so far.
+    private final List<NodoAST> conditionNodes = new ArrayList<>();
+    private final List<Integer> conditionSteps = new ArrayList<>();
+    private final List<Jumps> conditionJumps = new ArrayList<>();
+    private final ConditionVisitor conditionVisitor = new ConditionVisitor();
+
+    private static final int CONDITION_VISIT = 0;   // Not looked at yet
+    private static final int CONDITION_RIGHT = 1;   // Y/O: left operand translated
+    private static final int CONDITION_COMBINE = 2; // Every operand translated
+
+    // Jumps of a condition whose target is not known yet, as positions in 'code': the ones taken
+    // when it is true and when it is false.
+    private static final class Jumps {
+        List<Integer> whenTrue = new ArrayList<>();
+        List<Integer> whenFalse = new ArrayList<>();
+    }
+
+    public List<Instruction> generate(ProgramaNode programNode) {
         if (programNode == null) {
-            code.add("Error: No se proporcionó un árbol de sintaxis abstracta (AST).");
+            code.add(Instruction.error("Error: No se proporcionó un árbol de sintaxis abstracta (AST)."));
             return code;
         }
         try {
             visit(programNode);
         } catch (Exception e) {
-            code.add("Error durante la generación de código: " + e.getMessage());
+            code.add(Instruction.error("Error durante la generación de código: " + e.getMessage()));
             // Opcional: imprimir el stack trace para depuración
             // e.printStackTrace();
         }
@@ -29,25 +63,105 @@ public class ThreeAddressCodeGenerator {
         return "L" + labelCount++;
     }
 
-    private String newTemp() {
-        return "t" + tempCount++;
+    private Operand newTemp() {
+        return Operand.temp(tempCount++);
     }
 
-    private void visit(NodoAST node) {
-        if (node instanceof ProgramaNode) {
-            visitProgramaNode((ProgramaNode) node);
-        } else if (node instanceof AsignacionNode) {
-            visitAsignacionNode((AsignacionNode) node);
-        } else if (node instanceof SiNode) {
-            visitSiNode((SiNode) node);
-        } else if (node instanceof EscribirNode) {
-            visitEscribirNode((EscribirNode) node);
-        } else if (node instanceof LeerNode) {
-            visitLeerNode((LeerNode) node);
-        } else if (node instanceof DefinirNode) {
-            visitDefinirNode((DefinirNode) node);
+    private void visit(NodoAST root) {
+        pending.add(root);
+        while (!pending.isEmpty()) {
+            Object next = pending.remove(pending.size() - 1);
+            if (next instanceof Instruction) {
+                code.add((Instruction) next);
+                continue;
+            }
+            visitStatement((NodoAST) next);
+            for (int i = scheduled.size() - 1; i >= 0; i--) {
+                pending.add(scheduled.get(i));
+            }
+            scheduled.clear();
+        }
+    }
+
+    // Emitted after everything scheduled before it by the current statement.
+    private void schedule(NodoAST statement) {
+        scheduled.add(statement);
+    }
+
+    private void schedule(Instruction instruction) {
+        scheduled.add(instruction);
+    }
+
+    private void visitStatement(NodoAST node) {
+        node.accept(statementVisitor);
+    }
+
+    // Dispatches each statement to its visit method; an expression on its own is not a statement.
+    private final class StatementVisitor implements NodoVisitor<Void> {
+        @Override
+        public Void visitarPrograma(ProgramaNode node) {
+            visitProgramaNode(node);
+            return null;
+        }
+
+        @Override
+        public Void visitarDefinir(DefinirNode node) {
+            visitDefinirNode(node);
+            return null;
+        }
+
+        @Override
+        public Void visitarAsignacion(AsignacionNode node) {
+            visitAsignacionNode(node);
+            return null;
+        }
+
+        @Override
+        public Void visitarEscribir(EscribirNode node) {
+            visitEscribirNode(node);
+            return null;
+        }
+
+        @Override
+        public Void visitarLeer(LeerNode node) {
+            visitLeerNode(node);
+            return null;
+        }
+
+        @Override
+        public Void visitarSi(SiNode node) {
+            visitSiNode(node);
+            return null;
+        }
+
+        @Override
+        public Void visitarExpresionBinaria(ExpresionBinariaNode node) {
+            throw notAStatement(node);
+        }
+
+        @Override
+        public Void visitarExpresionUnaria(ExpresionUnariaNode node) {
+            throw notAStatement(node);
+        }
+
+        @Override
+        public Void visitarExpresionParentizada(ExpresionParentizadaNode node) {
+            throw notAStatement(node);
+        }
+
+        @Override
+        public Void visitarIdentificador(IdentificadorNode node) {
+            throw notAStatement(node);
+        }
+
+        @Override
+        public Void visitarLiteral(LiteralNode node) {
+            throw notAStatement(node);
+        }
+
+        private IllegalStateException notAStatement(NodoAST node) {
+            return new IllegalStateException("una expresión no es una sentencia (" + node.getClass().getSimpleName() + ")");
         }
-        // Agrega más casos para otros tipos de nodos si es necesario
     }
 
     private void visitDefinirNode(DefinirNode node) {
@@ -56,110 +170,358 @@ public class ThreeAddressCodeGenerator {
             tipoDato = "BOOLEAN";
         }
         for (IdentificadorNode variable : node.getVariables()) {
-            code.add("DECLARE " + variable.getNombre() + " " + tipoDato);
+            code.add(Instruction.declare(variable(variable), tipoDato));
         }
     }
 
     private void visitProgramaNode(ProgramaNode node) {
         // code.add("start_program: " + node.getNombreProceso().getNombre());
         for (NodoAST statement : node.getSentencias()) {
-            visit(statement);
+            schedule(statement);
         }
-        code.add("END");
+        schedule(Instruction.end());
     }
 
     private void visitAsignacionNode(AsignacionNode node) {
-        String exprResult = visitExpression(node.getExpresion());
+        Operand exprResult = visitExpression(node.getExpresion());
         if (node.getExpresion() instanceof LiteralNode) {
-            String temp = newTemp();
-            code.add(temp + " = " + exprResult);
-            code.add(node.getIdentificador().getNombre() + " = " + temp);
+            Operand temp = newTemp();
+            code.add(Instruction.copy(temp, exprResult));
+            code.add(Instruction.copy(variable(node.getIdentificador()), temp));
         } else {
-            code.add(node.getIdentificador().getNombre() + " = " + exprResult);
+            code.add(Instruction.copy(variable(node.getIdentificador()), exprResult));
         }
     }
 
     private void visitSiNode(SiNode node) {
-        String conditionResult = visitExpression(node.getCondicion());
+        Jumps condition = visitCondition(node.getCondicion());
 
         String labelTrue = newLabel();
         String labelFalse = newLabel();
         String labelEnd = newLabel();
 
+        backpatch(condition.whenTrue, labelTrue);
+        backpatch(condition.whenFalse, node.tieneSiNo() ? labelFalse : labelEnd);
         if (node.tieneSiNo()) {
-            code.add("IF " + conditionResult + " GOTO " + labelTrue);
-            code.add("GOTO " + labelFalse);
-
             // Bloque "entonces"
-            code.add(labelTrue + ":");
+            code.add(Instruction.label(labelTrue));
             for (NodoAST statement : node.getBloqueEntonces()) {
-                visit(statement);
+                schedule(statement);
             }
-            code.add("GOTO " + labelEnd);
+            schedule(Instruction.gotoLabel(labelEnd));
 
             // Bloque "sino"
-            code.add(labelFalse + ":");
+            schedule(Instruction.label(labelFalse));
             for (NodoAST statement : node.getBloqueSiNo()) {
-                visit(statement);
+                schedule(statement);
             }
-            code.add("GOTO " + labelEnd);
+            schedule(Instruction.gotoLabel(labelEnd));
 
         } else {
-            code.add("IF " + conditionResult + " GOTO " + labelTrue);
-            code.add("GOTO " + labelEnd);
-
             // Bloque "entonces"
-            code.add(labelTrue + ":");
+            code.add(Instruction.label(labelTrue));
             for (NodoAST statement : node.getBloqueEntonces()) {
-                visit(statement);
+                schedule(statement);
             }
-            code.add("GOTO " + labelEnd);
+            schedule(Instruction.gotoLabel(labelEnd));
         }
 
-        code.add(labelEnd + ":");
+        schedule(Instruction.label(labelEnd));
     }
 
     private void visitEscribirNode(EscribirNode node) {
-        List<String> expressions = new ArrayList<>();
+        List<Operand> expressions = new ArrayList<>();
         for (NodoAST expr : node.getExpresiones()) {
-            if (expr instanceof LiteralNode) {
-                Object value = ((LiteralNode) expr).getValor();
-                if (value instanceof String) {
-                    expressions.add("\"" + value + "\"");
-                } else {
-                    expressions.add(String.valueOf(value));
+            expressions.add(visitExpression(expr));
+        }
+        code.add(Instruction.print(expressions));
+    }
+
+    private void visitLeerNode(LeerNode node) {
+        for (IdentificadorNode var : node.getVariables()) {
+            code.add(Instruction.read(variable(var)));
+        }
+    }
+
+    /**
+     * Evaluates an expression tree in post-order with an explicit stack: operands first, left
+     * before right, then one temp per binary node, so temps are numbered as a recursive walk
+     * would number them.
+     * @return The operand holding the value (a temp, variable or constant).
+     */
+    private Operand visitExpression(NodoAST root) {
+        int base = operands.size();
+        exprNodes.add(root);
+        exprExpanded.add(false);
+        while (!exprNodes.isEmpty()) {
+            int top = exprNodes.size() - 1;
+            NodoAST node = exprNodes.remove(top);
+            if (exprExpanded.remove(top)) {
+                // Inner nodes are re-pushed once all their operands are on the operand stack.
+                if (node instanceof ExpresionUnariaNode) {
+                    operands.add(emitNegation(operands.remove(operands.size() - 1)));
+                    continue;
                 }
+                Operand right = operands.remove(operands.size() - 1);
+                Operand left = operands.remove(operands.size() - 1);
+                operands.add(emitBinary((ExpresionBinariaNode) node, left, right));
             } else {
-                expressions.add(visitExpression(expr));
+                node.accept(expressionVisitor);
             }
         }
-        code.add("PRINT " + String.join(", ", expressions));
+        return operands.remove(base);
     }
 
-    private void visitLeerNode(LeerNode node) {
-        for (IdentificadorNode var : node.getVariables()) {
-            code.add("read " + var.getNombre());
+    // One step of visitExpression: leaves push their operand, inner nodes push their children.
+    private final class ExpressionVisitor implements NodoVisitor<Void> {
+        @Override
+        public Void visitarLiteral(LiteralNode node) {
+            operands.add(constant(node));
+            return null;
+        }
+
+        @Override
+        public Void visitarIdentificador(IdentificadorNode node) {
+            operands.add(variable(node));
+            return null;
+        }
+
+        @Override
+        public Void visitarExpresionBinaria(ExpresionBinariaNode node) {
+            exprNodes.add(node);
+            exprExpanded.add(true);
+            exprNodes.add(node.getDerecha());
+            exprExpanded.add(false);
+            exprNodes.add(node.getIzquierda());
+            exprExpanded.add(false);
+            return null;
+        }
+
+        @Override
+        public Void visitarExpresionUnaria(ExpresionUnariaNode node) {
+            exprNodes.add(node);
+            exprExpanded.add(true);
+            exprNodes.add(node.getOperando());
+            exprExpanded.add(false);
+            return null;
+        }
+
+        @Override
+        public Void visitarExpresionParentizada(ExpresionParentizadaNode node) {
+            exprNodes.add(node.getExpresionInterna());
+            exprExpanded.add(false);
+            return null;
+        }
+
+        @Override
+        public Void visitarPrograma(ProgramaNode node) {
+            throw notAnExpression(node);
+        }
+
+        @Override
+        public Void visitarDefinir(DefinirNode node) {
+            throw notAnExpression(node);
+        }
+
+        @Override
+        public Void visitarAsignacion(AsignacionNode node) {
+            throw notAnExpression(node);
+        }
+
+        @Override
+        public Void visitarEscribir(EscribirNode node) {
+            throw notAnExpression(node);
+        }
+
+        @Override
+        public Void visitarLeer(LeerNode node) {
+            throw notAnExpression(node);
+        }
+
+        @Override
+        public Void visitarSi(SiNode node) {
+            throw notAnExpression(node);
+        }
+
+        private IllegalStateException notAnExpression(NodoAST node) {
+            return new IllegalStateException("una sentencia no es una expresión (" + node.getClass().getSimpleName() + ")");
+        }
+    }
+
+    /**
+     * Translates a condition into jumping code, with an explicit stack like visitExpression. Y
+     * and O only evaluate their right operand when the left one does not decide the result, NO
+     * swaps the true and false jumps of its operand, and anything else is evaluated into an
+     * operand c and tested with {@code IF c GOTO _; GOTO _}.
+     * @return The jumps out of the condition, still without a target; see {@link #backpatch}.
+     */
+    private Jumps visitCondition(NodoAST root) {
+        int base = conditionJumps.size();
+        conditionNodes.add(root);
+        conditionSteps.add(CONDITION_VISIT);
+        while (!conditionNodes.isEmpty()) {
+            int top = conditionNodes.size() - 1;
+            NodoAST node = conditionNodes.remove(top);
+            int step = conditionSteps.remove(top);
+            if (step == CONDITION_VISIT) {
+                node.accept(conditionVisitor);
+            } else if (step == CONDITION_RIGHT) {
+                // The right operand runs only on the left operand's undecided exit: true for Y,
+                // false for O
+                ExpresionBinariaNode binary = (ExpresionBinariaNode) node;
+                Jumps left = conditionJumps.get(conditionJumps.size() - 1);
+                String label = newLabel();
+                backpatch(binary.getOperador().getKind() == TokenKind.AND ? left.whenTrue : left.whenFalse, label);
+                code.add(Instruction.label(label));
+                pushCondition(binary, CONDITION_COMBINE);
+                pushCondition(binary.getDerecha(), CONDITION_VISIT);
+            } else if (node instanceof ExpresionUnariaNode) {
+                // NO: it jumps where its operand would with the opposite value
+                Jumps operand = conditionJumps.get(conditionJumps.size() - 1);
+                List<Integer> whenTrue = operand.whenTrue;
+                operand.whenTrue = operand.whenFalse;
+                operand.whenFalse = whenTrue;
+            } else {
+                // Y/O: the exits the left operand still has decide the result on their own, like
+                // the right operand's
+                Jumps right = conditionJumps.remove(conditionJumps.size() - 1);
+                Jumps left = conditionJumps.get(conditionJumps.size() - 1);
+                left.whenTrue.addAll(right.whenTrue);
+                left.whenFalse.addAll(right.whenFalse);
+            }
+        }
+        return conditionJumps.remove(base);
+    }
+
+    private void pushCondition(NodoAST node, int step) {
+        conditionNodes.add(node);
+        conditionSteps.add(step);
+    }
+
+    // The CONDITION_VISIT step of visitCondition.
+    private final class ConditionVisitor implements NodoVisitor<Void> {
+        @Override
+        public Void visitarExpresionBinaria(ExpresionBinariaNode node) {
+            TokenKind operator = node.getOperador().getKind();
+            if (operator != TokenKind.AND && operator != TokenKind.OR) {
+                return test(node);
+            }
+            pushCondition(node, CONDITION_RIGHT);
+            pushCondition(node.getIzquierda(), CONDITION_VISIT);
+            return null;
+        }
+
+        @Override
+        public Void visitarExpresionUnaria(ExpresionUnariaNode node) {
+            pushCondition(node, CONDITION_COMBINE);
+            pushCondition(node.getOperando(), CONDITION_VISIT);
+            return null;
+        }
+
+        @Override
+        public Void visitarExpresionParentizada(ExpresionParentizadaNode node) {
+            pushCondition(node.getExpresionInterna(), CONDITION_VISIT);
+            return null;
+        }
+
+        @Override
+        public Void visitarIdentificador(IdentificadorNode node) {
+            return test(node);
+        }
+
+        @Override
+        public Void visitarLiteral(LiteralNode node) {
+            return test(node);
+        }
+
+        @Override
+        public Void visitarPrograma(ProgramaNode node) {
+            throw notAnExpression(node);
+        }
+
+        @Override
+        public Void visitarDefinir(DefinirNode node) {
+            throw notAnExpression(node);
+        }
+
+        @Override
+        public Void visitarAsignacion(AsignacionNode node) {
+            throw notAnExpression(node);
+        }
+
+        @Override
+        public Void visitarEscribir(EscribirNode node) {
+            throw notAnExpression(node);
+        }
+
+        @Override
+        public Void visitarLeer(LeerNode node) {
+            throw notAnExpression(node);
+        }
+
+        @Override
+        public Void visitarSi(SiNode node) {
+            throw notAnExpression(node);
+        }
+
+        // A condition without Y, O or NO on top: its value decides the jump.
+        private Void test(NodoAST node) {
+            Operand value = visitExpression(node);
+            Jumps jumps = new Jumps();
+            jumps.whenTrue.add(code.size());
+            code.add(Instruction.ifGoto(value, null));
+            jumps.whenFalse.add(code.size());
+            code.add(Instruction.gotoLabel(null));
+            conditionJumps.add(jumps);
+            return null;
+        }
+
+        private IllegalStateException notAnExpression(NodoAST node) {
+            return new IllegalStateException("una sentencia no es una condición (" + node.getClass().getSimpleName() + ")");
         }
     }
 
-    private String visitExpression(NodoAST node) {
-        if (node instanceof LiteralNode) {
-            return String.valueOf(((LiteralNode) node).getValor());
-        } else if (node instanceof IdentificadorNode) {
-            return ((IdentificadorNode) node).getNombre();
-        } else if (node instanceof ExpresionBinariaNode) {
-            return visitExpresionBinariaNode((ExpresionBinariaNode) node);
-        } else if (node instanceof ExpresionParentizadaNode) {
-            return visitExpression(((ExpresionParentizadaNode) node).getExpresionInterna());
+    // Points the jumps at 'positions' of 'code' to 'label'; they are done with, so the list empties.
+    private void backpatch(List<Integer> positions, String label) {
+        for (int position : positions) {
+            Instruction jump = code.get(position);
+            code.set(position, jump.getOpcode() == Opcode.IF
+                    ? Instruction.ifGoto(jump.getOperand(0), label)
+                    : Instruction.gotoLabel(label));
         }
-        return "unknown_expr";
+        positions.clear();
+    }
+
+    // NO x as a value: there is no unary opcode, and x == FALSE holds exactly when x is false.
+    private Operand emitNegation(Operand operand) {
+        Operand temp = newTemp();
+        code.add(Instruction.binary(Opcode.EQ, temp, operand, Operand.FALSE));
+        return temp;
     }
 
-    private String visitExpresionBinariaNode(ExpresionBinariaNode node) {
-        String left = visitExpression(node.getIzquierda());
-        String right = visitExpression(node.getDerecha());
-        String temp = newTemp();
-        code.add(temp + " = " + left + " " + node.getOperador().getLexeme() + " " + right);
+    private Operand emitBinary(ExpresionBinariaNode node, Operand left, Operand right) {
+        Opcode opcode = Opcode.forOperator(node.getOperador().getKind());
+        if (opcode == null) {
+            throw new IllegalStateException("operador no soportado: " + node.getOperador().getLexeme());
+        }
+        Operand temp = newTemp();
+        code.add(Instruction.binary(opcode, temp, left, right));
         return temp;
     }
+
+    private static Operand variable(IdentificadorNode node) {
+        return Operand.variable(node.getNombre());
+    }
+
+    private static Operand constant(LiteralNode node) {
+        Object value = node.getValor();
+        if (value instanceof Integer) return Operand.integer((Integer) value);
+        if (value instanceof Double) return Operand.real((Double) value);
+        if (value instanceof Boolean) return Operand.bool((Boolean) value);
+        if (node.getTipoLiteral() == TokenType.NUMBER) {
+            // Integer literal too large for an int
+            return Operand.real(Double.parseDouble(node.getToken().getLexeme()));
+        }
+        return Operand.string(String.valueOf(value));
+    }
 }
@@ -2,17 +2,41 @@ package com.example;
 
 public class Token {
     private final TokenType type;
+    // Which keyword, operator or delimiter this is; NONE for identifiers, literals and errors.
+    private final TokenKind kind;
+    // ID del identificador en la TablaDeNombres del lexer; -1 para el resto de tokens.
+    private final int nameId;
     private final String lexeme;
     private final String pattern;
     private final int lineNumber;
     private final int columnNumber;
+    // When set, line and column are derived on demand from the token's source offset.
+    private final LineIndex lineIndex;
+    private final int offset;
 
     public Token(TokenType type, String lexeme, String pattern, int lineNumber, int columnNumber) {
         this.type = type;
+        this.kind = TokenKind.of(type, lexeme);
+        this.nameId = -1;
         this.lexeme = lexeme;
         this.pattern = pattern;
         this.lineNumber = lineNumber;
         this.columnNumber = columnNumber;
+        this.lineIndex = null;
+        this.offset = -1;
+    }
+
+    // Token produced by the lexer: only the source offset is stored, the position comes from the line index.
+    public Token(TokenType type, TokenKind kind, int nameId, String lexeme, String pattern, LineIndex lineIndex, int offset) {
+        this.type = type;
+        this.kind = kind;
+        this.nameId = nameId;
+        this.lexeme = lexeme;
+        this.pattern = pattern;
+        this.lineNumber = 0;
+        this.columnNumber = 0;
+        this.lineIndex = lineIndex;
+        this.offset = offset;
     }
 
     // Existing constructor without column, for compatibility or specific cases (e.g. EOF token)
@@ -28,6 +52,14 @@ public class Token {
         return type;
     }
 
+    public TokenKind getKind() {
+        return kind;
+    }
+
+    public int getNameId() {
+        return nameId;
+    }
+
     public String getLexeme() {
         return lexeme;
     }
@@ -37,11 +69,11 @@ public class Token {
     }
 
     public int getLineNumber() {
-        return lineNumber;
+        return lineIndex != null ? lineIndex.getLinea(offset) : lineNumber;
     }
 
     public int getColumnNumber() {
-        return columnNumber;
+        return lineIndex != null ? lineIndex.getColumna(offset) : columnNumber;
     }
 
     @Override
@@ -51,7 +83,7 @@ public class Token {
             type,
             lexeme,
             (pattern != null && pattern.length() > 25) ? pattern.substring(0, 22) + "..." : pattern,
-            lineNumber,
-            columnNumber);
+            getLineNumber(),
+            getColumnNumber());
     }
 }
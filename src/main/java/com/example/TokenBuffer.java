@@ -0,0 +1,159 @@
+package com.example;
+
+import java.nio.CharBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Tokens de un código fuente guardados por columnas (tipo, clase, ID de nombre, inicio y longitud)
+ * en arreglos primitivos que crecen según se necesita, en lugar de un objeto Token con su propio
+ * String por cada lexema. Los lexemas se exponen como vistas sobre el código original, los
+ * identificadores comparten el nombre internado en la TablaDeNombres y la línea y columna de
+ * cada token se obtienen del índice de líneas.
+ */
+public class TokenBuffer {
+    private static final int INITIAL_CAPACITY = 256;
+    private static final TokenType[] TYPES = TokenType.values();
+    private static final TokenKind[] KINDS = TokenKind.values();
+
+    private final String source;
+    private final LineIndex lineIndex;
+    private final TablaDeNombres nombres;
+    private byte[] types;
+    private byte[] kinds;
+    private int[] nameIds;
+    private int[] starts;
+    private int[] lengths;
+    private int size;
+
+    public TokenBuffer(String source, LineIndex lineIndex, TablaDeNombres nombres) {
+        this.source = source;
+        this.lineIndex = lineIndex;
+        this.nombres = nombres;
+        this.types = new byte[INITIAL_CAPACITY];
+        this.kinds = new byte[INITIAL_CAPACITY];
+        this.nameIds = new int[INITIAL_CAPACITY];
+        this.starts = new int[INITIAL_CAPACITY];
+        this.lengths = new int[INITIAL_CAPACITY];
+    }
+
+    public void add(TokenType type, TokenKind kind, int nameId, int start, int length) {
+        if (size == types.length) {
+            int capacity = Math.max(INITIAL_CAPACITY, size * 2);
+            types = Arrays.copyOf(types, capacity);
+            kinds = Arrays.copyOf(kinds, capacity);
+            nameIds = Arrays.copyOf(nameIds, capacity);
+            starts = Arrays.copyOf(starts, capacity);
+            lengths = Arrays.copyOf(lengths, capacity);
+        }
+        types[size] = (byte) type.ordinal();
+        kinds[size] = (byte) kind.ordinal();
+        nameIds[size] = nameId;
+        starts[size] = start;
+        lengths[size] = length;
+        size++;
+    }
+
+    /**
+     * Libera la capacidad sobrante de las columnas una vez que ya no se agregarán tokens.
+     */
+    public void trimToSize() {
+        types = Arrays.copyOf(types, size);
+        kinds = Arrays.copyOf(kinds, size);
+        nameIds = Arrays.copyOf(nameIds, size);
+        starts = Arrays.copyOf(starts, size);
+        lengths = Arrays.copyOf(lengths, size);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public TokenType getType(int index) {
+        return TYPES[types[index]];
+    }
+
+    public TokenKind getKind(int index) {
+        return KINDS[kinds[index]];
+    }
+
+    /**
+     * @return El ID en la TablaDeNombres si el token es un identificador, o -1.
+     */
+    public int getNameId(int index) {
+        return nameIds[index];
+    }
+
+    public TablaDeNombres getTablaDeNombres() {
+        return nombres;
+    }
+
+    public int getStart(int index) {
+        return starts[index];
+    }
+
+    public int getLength(int index) {
+        return lengths[index];
+    }
+
+    public int getLineNumber(int index) {
+        return lineIndex.getLinea(starts[index]);
+    }
+
+    public int getColumnNumber(int index) {
+        return lineIndex.getColumna(starts[index]);
+    }
+
+    public LineIndex getLineIndex() {
+        return lineIndex;
+    }
+
+    /**
+     * @return El lexema del token como vista sobre el código fuente (no se copia).
+     */
+    public CharSequence getLexeme(int index) {
+        return CharBuffer.wrap(source, starts[index], starts[index] + lengths[index]);
+    }
+
+    public String getPattern(int index) {
+        return Lexer.getPattern(getType(index));
+    }
+
+    /**
+     * Crea un Token independiente para el token {@code index}, para quien todavía trabaja con objetos Token.
+     */
+    public Token getToken(int index) {
+        int start = starts[index];
+        int nameId = nameIds[index];
+        String lexeme = nameId >= 0 ? nombres.getNombre(nameId) : source.substring(start, start + lengths[index]);
+        return new Token(getType(index), getKind(index), nameId, lexeme, getPattern(index), lineIndex, start);
+    }
+
+    public List<Token> toTokens() {
+        List<Token> tokens = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            tokens.add(getToken(i));
+        }
+        return tokens;
+    }
+
+    /**
+     * @return Un TokenStream que recorre el buffer creando cada Token solo cuando se pide.
+     */
+    public TokenStream stream() {
+        return new TokenStream() {
+            private int next = 0;
+
+            @Override
+            public Token nextToken() {
+                return next < size ? getToken(next++) : null;
+            }
+
+            @Override
+            public TablaDeNombres getTablaDeNombres() {
+                return nombres;
+            }
+        };
+    }
+}
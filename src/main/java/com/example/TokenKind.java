@@ -0,0 +1,116 @@
+package com.example;
+
+import java.util.Arrays;
+
+/**
+ * Clase concreta de un token dentro de su TokenType: qué palabra reservada, operador o
+ * delimitador es. El lexer la asigna una sola vez, de modo que el parser compara enums en
+ * lugar de volver a comparar lexemas sin distinguir mayúsculas.
+ */
+public enum TokenKind {
+    NONE(null), // Identificadores, números, cadenas y errores
+
+    // Palabras reservadas
+    PROCESO("proceso"), FINPROCESO("finproceso"), SI("si"), ENTONCES("entonces"), SINO("sino"),
+    FINSI("finsi"), MIENTRAS("mientras"), HACER("hacer"), FINMIENTRAS("finmientras"),
+    REPETIR("repetir"), HASTAQUE("hastaque"), ESCRIBIR("escribir"), LEER("leer"),
+    DEFINIR("definir"), COMO("como"), INICIO("inicio"), FIN("fin"), SEGUN("segun"),
+    FINSEGUN("finsegun"), CASO("caso"), DE("de"), FUNCION("funcion"), FINFUNCION("finfuncion"),
+    ENTERO("entero"), REAL("real"), CARACTER("caracter"), LOGICO("logico"), CADENA("cadena"),
+    VERDADERO("verdadero"), FALSO("falso"),
+
+    // Operadores
+    LESS_EQUAL("<="), GREATER_EQUAL(">="), NOT_EQUAL("<>"), EQUAL_EQUAL("=="), ASSIGN("<-"),
+    ARROW("->"), PLUS("+"), MINUS("-"), STAR("*"), SLASH("/"), PERCENT("%"), CARET("^"),
+    EQUAL("="), LESS("<"), GREATER(">"), AND("y"), OR("o"), NOT("no"),
+
+    // Delimitadores
+    LPAREN("("), RPAREN(")"), LBRACKET("["), RBRACKET("]"), COLON(":"), COMMA(","), SEMICOLON(";");
+
+    private final String text;
+
+    TokenKind(String text) {
+        this.text = text;
+    }
+
+    /**
+     * @return El texto del token en minúsculas, o null para NONE.
+     */
+    public String getText() {
+        return text;
+    }
+
+    public boolean isKeyword() {
+        return compareTo(PROCESO) >= 0 && compareTo(FALSO) <= 0;
+    }
+
+    public boolean isWordOperator() {
+        return this == AND || this == OR || this == NOT;
+    }
+
+    /**
+     * @return El TokenType de los tokens de esta clase, o null para NONE.
+     */
+    public TokenType getTokenType() {
+        if (this == NONE) return null;
+        if (isKeyword()) return TokenType.KEYWORD;
+        return compareTo(LPAREN) < 0 ? TokenType.OPERATOR : TokenType.DELIMITER;
+    }
+
+    // Hash perfecto de las palabras (reservadas y Y/O/NO): ningún par comparte casilla en WORD_TABLE.
+    private static final int WORD_TABLE_SIZE = 128;
+    private static final TokenKind[] WORD_TABLE = new TokenKind[WORD_TABLE_SIZE];
+    private static final int WORD_HASH_SEED = findWordHashSeed();
+
+    private static int findWordHashSeed() {
+        for (int seed = 1; ; seed++) {
+            Arrays.fill(WORD_TABLE, null);
+            boolean collision = false;
+            for (TokenKind kind : values()) {
+                if (!kind.isKeyword() && !kind.isWordOperator()) continue;
+                char[] chars = kind.text.toCharArray();
+                int slot = wordHash(seed, chars, 0, chars.length);
+                if (WORD_TABLE[slot] != null) {
+                    collision = true;
+                    break;
+                }
+                WORD_TABLE[slot] = kind;
+            }
+            if (!collision) return seed;
+        }
+    }
+
+    // Case-insensitive for ASCII letters, the only characters a word candidate can contain.
+    private static int wordHash(int seed, char[] s, int start, int end) {
+        int h = seed;
+        for (int i = start; i < end; i++) {
+            h = h * 31 + (s[i] | 0x20);
+        }
+        h ^= h >>> 7;
+        return (h * 0x9E3779B1 >>> 16) & (WORD_TABLE_SIZE - 1);
+    }
+
+    /**
+     * Clasifica la palabra de letras ASCII {@code s[start, end)} sin distinguir mayúsculas.
+     * @return La palabra reservada u operador Y/O/NO, o null si es un identificador.
+     */
+    static TokenKind lookupWord(char[] s, int start, int end) {
+        TokenKind kind = WORD_TABLE[wordHash(WORD_HASH_SEED, s, start, end)];
+        if (kind == null || kind.text.length() != end - start) return null;
+        for (int i = start; i < end; i++) {
+            if ((s[i] | 0x20) != kind.text.charAt(i - start)) return null;
+        }
+        return kind;
+    }
+
+    /**
+     * Clasifica un lexema ya separado, para los tokens que no vienen del lexer.
+     */
+    public static TokenKind of(TokenType type, String lexeme) {
+        if (lexeme == null) return NONE;
+        for (TokenKind kind : values()) {
+            if (kind != NONE && kind.getTokenType() == type && kind.text.equalsIgnoreCase(lexeme)) return kind;
+        }
+        return NONE;
+    }
+}
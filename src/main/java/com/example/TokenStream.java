@@ -0,0 +1,20 @@
+package com.example;
+
+/**
+ * Fuente de tokens bajo demanda: el analizador sintáctico pide un token a la vez
+ * en lugar de recibir la lista completa.
+ */
+public interface TokenStream {
+    /**
+     * @return El siguiente token, o null cuando ya no quedan tokens.
+     */
+    Token nextToken();
+
+    /**
+     * @return La tabla con la que se asignaron los IDs de los identificadores
+     *         ({@link Token#getNameId()}), o null si los tokens no traen IDs.
+     */
+    default TablaDeNombres getTablaDeNombres() {
+        return null;
+    }
+}
@@ -1,35 +1,38 @@
 package com.example;
 
 import javax.swing.table.AbstractTableModel;
-import java.util.List;
-import java.util.ArrayList;
 
 public class TokenTableModel extends AbstractTableModel {
     private final String[] columnNames = {"Tipo", "Lexema", "Patrón", "Línea", "Columna"};
-    private List<Token> tokens;
+    private TokenBuffer tokens;
+    private int[] filas; // Índice en el buffer del token de cada fila
+    private int rowCount;
 
     public TokenTableModel() {
-        this.tokens = new ArrayList<>();
+        this.filas = new int[0];
     }
 
-    public void setTokens(List<Token> tokens) {
-        this.tokens = new ArrayList<>(); // Crear nueva lista para evitar modificar la original directamente
-        for (Token t : tokens) {
-            if (t.getType() != TokenType.ERROR) { // No incluir tokens de error léxico si se muestran por separado
-                this.tokens.add(t);
+    public void setTokens(TokenBuffer tokens) {
+        this.tokens = tokens;
+        this.filas = new int[tokens.size()];
+        this.rowCount = 0;
+        for (int i = 0; i < tokens.size(); i++) {
+            if (tokens.getType(i) != TokenType.ERROR) { // No incluir tokens de error léxico si se muestran por separado
+                filas[rowCount++] = i;
             }
         }
         fireTableDataChanged(); // Notificar a la JTable que los datos cambiaron
     }
 
     public void clearData() {
-        this.tokens.clear();
+        this.tokens = null;
+        this.rowCount = 0;
         fireTableDataChanged();
     }
 
     @Override
     public int getRowCount() {
-        return tokens.size();
+        return rowCount;
     }
 
     @Override
@@ -44,13 +47,13 @@ public class TokenTableModel extends AbstractTableModel {
 
     @Override
     public Object getValueAt(int rowIndex, int columnIndex) {
-        Token token = tokens.get(rowIndex);
+        int token = filas[rowIndex];
         switch (columnIndex) {
-            case 0: return token.getType();
-            case 1: return token.getLexeme();
-            case 2: return token.getPattern();
-            case 3: return token.getLineNumber();
-            case 4: return token.getColumnNumber();
+            case 0: return tokens.getType(token);
+            case 1: return tokens.getLexeme(token).toString();
+            case 2: return tokens.getPattern(token);
+            case 3: return tokens.getLineNumber(token);
+            case 4: return tokens.getColumnNumber(token);
             default: return null;
         }
     }
@@ -26,16 +26,20 @@ public class AsignacionNode implements NodoAST { // Es un tipo de NodoSentencia
     }
 
     @Override
-    public String aRepresentacionTextual(String indentacion, boolean esUltimo) {
-        StringBuilder sb = new StringBuilder();
+    public <R> R accept(NodoVisitor<R> visitor) {
+        return visitor.visitarAsignacion(this);
+    }
+
+    @Override
+    public void imprimir(ImpresorAST impresor, String indentacion, boolean esUltimo) {
+        StringBuilder sb = impresor.getSalida();
         sb.append(indentacion);
         sb.append(esUltimo ? "└── " : "├── ");
         sb.append("Asignacion: ").append(operadorAsignacion.getLexeme());
         sb.append(" (L:").append(operadorAsignacion.getLineNumber()).append(")\n");
 
         String indentacionHijos = indentacion + (esUltimo ? "    " : "│   ");
-        sb.append(identificador.aRepresentacionTextual(indentacionHijos, false));
-        sb.append(expresion.aRepresentacionTextual(indentacionHijos, true));
-        return sb.toString();
+        impresor.hijo(identificador, indentacionHijos, false);
+        impresor.hijo(expresion, indentacionHijos, true);
     }
 }
@@ -28,8 +28,13 @@ public class DefinirNode implements NodoAST { // Es un tipo de NodoSentencia
 
 
     @Override
-    public String aRepresentacionTextual(String indentacion, boolean esUltimo) {
-        StringBuilder sb = new StringBuilder();
+    public <R> R accept(NodoVisitor<R> visitor) {
+        return visitor.visitarDefinir(this);
+    }
+
+    @Override
+    public void imprimir(ImpresorAST impresor, String indentacion, boolean esUltimo) {
+        StringBuilder sb = impresor.getSalida();
         sb.append(indentacion);
         sb.append(esUltimo ? "└── " : "├── ");
         sb.append("Definir (Tipo: ").append(tipoDato.getLexeme()).append(")");
@@ -37,8 +42,7 @@ public class DefinirNode implements NodoAST { // Es un tipo de NodoSentencia
 
         String indentacionHijos = indentacion + (esUltimo ? "    " : "│   ");
         for (int i = 0; i < variables.size(); i++) {
-            sb.append(variables.get(i).aRepresentacionTextual(indentacionHijos, i == variables.size() - 1));
+            impresor.hijo(variables.get(i), indentacionHijos, i == variables.size() - 1);
         }
-        return sb.toString();
     }
 }
@@ -17,8 +17,13 @@ public class EscribirNode implements NodoAST { // Es un tipo de NodoSentencia
     }
 
     @Override
-    public String aRepresentacionTextual(String indentacion, boolean esUltimo) {
-        StringBuilder sb = new StringBuilder();
+    public <R> R accept(NodoVisitor<R> visitor) {
+        return visitor.visitarEscribir(this);
+    }
+
+    @Override
+    public void imprimir(ImpresorAST impresor, String indentacion, boolean esUltimo) {
+        StringBuilder sb = impresor.getSalida();
         sb.append(indentacion);
         sb.append(esUltimo ? "└── " : "├── ");
         sb.append("Escribir");
@@ -26,8 +31,7 @@ public class EscribirNode implements NodoAST { // Es un tipo de NodoSentencia
 
         String indentacionHijos = indentacion + (esUltimo ? "    " : "│   ");
         for (int i = 0; i < expresiones.size(); i++) {
-            sb.append(expresiones.get(i).aRepresentacionTextual(indentacionHijos, i == expresiones.size() - 1));
+            impresor.hijo(expresiones.get(i), indentacionHijos, i == expresiones.size() - 1);
         }
-        return sb.toString();
     }
 }
@@ -26,16 +26,20 @@ public class ExpresionBinariaNode implements NodoAST { // Es un tipo de NodoExpr
     }
 
     @Override
-    public String aRepresentacionTextual(String indentacion, boolean esUltimo) {
-        StringBuilder sb = new StringBuilder();
+    public <R> R accept(NodoVisitor<R> visitor) {
+        return visitor.visitarExpresionBinaria(this);
+    }
+
+    @Override
+    public void imprimir(ImpresorAST impresor, String indentacion, boolean esUltimo) {
+        StringBuilder sb = impresor.getSalida();
         sb.append(indentacion);
         sb.append(esUltimo ? "└── " : "├── ");
         sb.append("ExpresionBinaria: ").append(operador.getLexeme());
         sb.append(" (L:").append(operador.getLineNumber()).append(", C:").append(operador.getColumnNumber()).append(")\n");
 
         String indentacionHijos = indentacion + (esUltimo ? "    " : "│   ");
-        sb.append(izquierda.aRepresentacionTextual(indentacionHijos, false)); // Izquierda nunca es el último si hay derecha
-        sb.append(derecha.aRepresentacionTextual(indentacionHijos, true));  // Derecha es el último
-        return sb.toString();
+        impresor.hijo(izquierda, indentacionHijos, false); // Izquierda nunca es el último si hay derecha
+        impresor.hijo(derecha, indentacionHijos, true);  // Derecha es el último
     }
 }
@@ -16,8 +16,13 @@ public class ExpresionParentizadaNode implements NodoAST {
     }
 
     @Override
-    public String aRepresentacionTextual(String indentacion, boolean esUltimo) {
-        StringBuilder sb = new StringBuilder();
+    public <R> R accept(NodoVisitor<R> visitor) {
+        return visitor.visitarExpresionParentizada(this);
+    }
+
+    @Override
+    public void imprimir(ImpresorAST impresor, String indentacion, boolean esUltimo) {
+        StringBuilder sb = impresor.getSalida();
         sb.append(indentacion);
         sb.append(esUltimo ? "└── " : "├── ");
         sb.append("ExpresionParentizada");
@@ -28,7 +33,6 @@ public class ExpresionParentizadaNode implements NodoAST {
         }
 
         String indentacionHijo = indentacion + (esUltimo ? "    " : "│   ");
-        sb.append(expresionInterna.aRepresentacionTextual(indentacionHijo, true));
-        return sb.toString();
+        impresor.hijo(expresionInterna, indentacionHijo, true);
     }
 }
@@ -0,0 +1,38 @@
+package com.example.ast;
+
+import com.example.Token; // Para el operador
+
+public class ExpresionUnariaNode implements NodoAST { // Es un tipo de NodoExpresion
+    private Token operador;
+    private NodoAST operando;
+
+    public ExpresionUnariaNode(Token operador, NodoAST operando) {
+        this.operador = operador;
+        this.operando = operando;
+    }
+
+    public Token getOperador() {
+        return operador;
+    }
+
+    public NodoAST getOperando() {
+        return operando;
+    }
+
+    @Override
+    public <R> R accept(NodoVisitor<R> visitor) {
+        return visitor.visitarExpresionUnaria(this);
+    }
+
+    @Override
+    public void imprimir(ImpresorAST impresor, String indentacion, boolean esUltimo) {
+        StringBuilder sb = impresor.getSalida();
+        sb.append(indentacion);
+        sb.append(esUltimo ? "└── " : "├── ");
+        sb.append("ExpresionUnaria: ").append(operador.getLexeme());
+        sb.append(" (L:").append(operador.getLineNumber()).append(", C:").append(operador.getColumnNumber()).append(")\n");
+
+        String indentacionHijo = indentacion + (esUltimo ? "    " : "│   ");
+        impresor.hijo(operando, indentacionHijo, true);
+    }
+}
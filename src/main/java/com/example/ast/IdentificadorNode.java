@@ -4,20 +4,30 @@ import com.example.Token;
 
 public class IdentificadorNode implements NodoAST { // Podría ser también un NodoExpresion
     private Token token; // El token IDENTIFIER
+    private int nombreId; // ID del nombre en la TablaDeNombres de la compilación
 
     public IdentificadorNode(Token token) {
+        this(token, token != null ? token.getNameId() : -1);
+    }
+
+    public IdentificadorNode(Token token, int nombreId) {
         if (token == null || token.getType() != com.example.TokenType.IDENTIFIER) {
             // Considerar lanzar una excepción si el token no es un identificador,
             // aunque el parser debería asegurar esto.
             // Por ahora, permitimos la creación, pero el nombre podría ser incorrecto.
         }
         this.token = token;
+        this.nombreId = nombreId;
     }
 
     public String getNombre() {
         return token != null ? token.getLexeme() : "<identificador_desconocido>";
     }
 
+    public int getNombreId() {
+        return nombreId;
+    }
+
     public Token getToken() {
         return token;
     }
@@ -32,12 +42,16 @@ public class IdentificadorNode implements NodoAST { // Podría ser también un N
 
 
     @Override
-    public String aRepresentacionTextual(String indentacion, boolean esUltimo) {
-        StringBuilder sb = new StringBuilder();
+    public <R> R accept(NodoVisitor<R> visitor) {
+        return visitor.visitarIdentificador(this);
+    }
+
+    @Override
+    public void imprimir(ImpresorAST impresor, String indentacion, boolean esUltimo) {
+        StringBuilder sb = impresor.getSalida();
         sb.append(indentacion);
         sb.append(esUltimo ? "└── " : "├── ");
         sb.append("Identificador: ").append(getNombre());
         sb.append(" (L:").append(getLinea()).append(", C:").append(getColumna()).append(")\n");
-        return sb.toString();
     }
 }
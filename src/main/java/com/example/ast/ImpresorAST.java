@@ -0,0 +1,82 @@
+package com.example.ast;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Genera la representación textual de un subárbol con una pila explícita en lugar de recursión,
+ * de modo que la profundidad del árbol (expresiones largas, Si anidados) no está limitada por la
+ * pila de Java.
+ * <p>
+ * Cada nodo escribe su propia línea en {@link #getSalida()} y programa lo que va debajo de ella,
+ * en orden, con {@link #hijo} y {@link #texto}; el impresor lo saca luego de la pila en ese mismo
+ * orden, así que el resultado es el de un recorrido en preorden.
+ */
+public final class ImpresorAST {
+
+    // Elemento pendiente: un nodo por imprimir con su indentación, o una línea ya armada.
+    private static final class Pendiente {
+        final NodoAST nodo;
+        final String texto;
+        final String indentacion;
+        final boolean esUltimo;
+
+        Pendiente(NodoAST nodo, String texto, String indentacion, boolean esUltimo) {
+            this.nodo = nodo;
+            this.texto = texto;
+            this.indentacion = indentacion;
+            this.esUltimo = esUltimo;
+        }
+    }
+
+    private final StringBuilder salida = new StringBuilder();
+    private final List<Pendiente> pila = new ArrayList<>();
+    // Lo que programa el nodo actual, en orden; se apila al revés cuando el nodo termina.
+    private final List<Pendiente> programados = new ArrayList<>();
+
+    private ImpresorAST() {
+    }
+
+    /**
+     * @return La representación de {@code raiz} y sus descendientes, igual a la que arma
+     *         {@link NodoAST#aRepresentacionTextual}.
+     */
+    public static String imprimir(NodoAST raiz, String indentacion, boolean esUltimo) {
+        ImpresorAST impresor = new ImpresorAST();
+        impresor.pila.add(new Pendiente(raiz, null, indentacion, esUltimo));
+        while (!impresor.pila.isEmpty()) {
+            Pendiente p = impresor.pila.remove(impresor.pila.size() - 1);
+            if (p.nodo == null) {
+                impresor.salida.append(p.texto);
+                continue;
+            }
+            p.nodo.imprimir(impresor, p.indentacion, p.esUltimo);
+            for (int i = impresor.programados.size() - 1; i >= 0; i--) {
+                impresor.pila.add(impresor.programados.get(i));
+            }
+            impresor.programados.clear();
+        }
+        return impresor.salida.toString();
+    }
+
+    /**
+     * Donde el nodo que se está imprimiendo escribe su propia línea.
+     */
+    public StringBuilder getSalida() {
+        return salida;
+    }
+
+    /**
+     * Programa la impresión de {@code nodo} debajo del nodo actual.
+     */
+    public void hijo(NodoAST nodo, String indentacion, boolean esUltimo) {
+        programados.add(new Pendiente(nodo, null, indentacion, esUltimo));
+    }
+
+    /**
+     * Programa una línea fija debajo del nodo actual (los encabezados de sección del Si).
+     */
+    public void texto(String linea) {
+        programados.add(new Pendiente(null, linea, null, false));
+    }
+}
@@ -1,6 +1,7 @@
 package com.example.ast;
 
 import com.example.Token;
+import com.example.TokenKind;
 import com.example.TokenType;
 
 public class LiteralNode implements NodoAST { // Podría ser también un NodoExpresion
@@ -27,8 +28,7 @@ public class LiteralNode implements NodoAST { // Podría ser también un NodoExp
         TokenType type = localToken.getType();
         return type == TokenType.NUMBER ||
                type == TokenType.STRING ||
-               (type == TokenType.KEYWORD &&
-                (localToken.getLexeme().equalsIgnoreCase("verdadero") || localToken.getLexeme().equalsIgnoreCase("falso")));
+               localToken.getKind() == TokenKind.VERDADERO || localToken.getKind() == TokenKind.FALSO;
     }
 
     // Constructor corregido para usar la versión estática de isLiteralType
@@ -117,7 +117,7 @@ public class LiteralNode implements NodoAST { // Podría ser también un NodoExp
                 }
                 return lexeme;
             case KEYWORD: // Verdadero o Falso
-                return Boolean.parseBoolean(token.getLexeme().toLowerCase());
+                return token.getKind() == TokenKind.VERDADERO;
             default:
                 return token.getLexeme(); // Como fallback
         }
@@ -141,22 +141,27 @@ public class LiteralNode implements NodoAST { // Podría ser también un NodoExp
     }
 
     @Override
-    public String aRepresentacionTextual(String indentacion, boolean esUltimo) {
+    public <R> R accept(NodoVisitor<R> visitor) {
+        return visitor.visitarLiteral(this);
+    }
+
+    @Override
+    public void imprimir(ImpresorAST impresor, String indentacion, boolean esUltimo) {
+        StringBuilder sb = impresor.getSalida();
         if (token == null) { // Salvaguarda
-             return indentacion + (esUltimo ? "└── " : "├── ") + "Literal (Token NULO)\n";
+             sb.append(indentacion).append(esUltimo ? "└── " : "├── ").append("Literal (Token NULO)\n");
+             return;
         }
-        StringBuilder sb = new StringBuilder();
         sb.append(indentacion);
         sb.append(esUltimo ? "└── " : "├── ");
         String tipoStr = "";
         if (token.getType() == TokenType.STRING) tipoStr = "Cadena";
         else if (token.getType() == TokenType.NUMBER) tipoStr = "Numero";
-        else if (token.getType() == TokenType.KEYWORD && (token.getLexeme().equalsIgnoreCase("verdadero") || token.getLexeme().equalsIgnoreCase("falso"))) tipoStr = "Logico";
+        else if (token.getKind() == TokenKind.VERDADERO || token.getKind() == TokenKind.FALSO) tipoStr = "Logico";
         else tipoStr = token.getType().toString();
 
 
         sb.append("Literal ").append(tipoStr).append(": ").append(token.getLexeme());
         sb.append(" (L:").append(getLinea()).append(", C:").append(getColumna()).append(")\n");
-        return sb.toString();
     }
 }
@@ -9,5 +9,19 @@ public interface NodoAST {
      * @param esUltimo Para la conexión de líneas en la visualización de árbol (opcional, estético)
      * @return Una representación en cadena del subárbol AST.
      */
-    String aRepresentacionTextual(String indentacion, boolean esUltimo);
+    default String aRepresentacionTextual(String indentacion, boolean esUltimo) {
+        return ImpresorAST.imprimir(this, indentacion, esUltimo);
+    }
+
+    /**
+     * Escribe la línea de este nodo en el impresor y programa la de sus hijos, sin imprimirlos
+     * directamente (el impresor los recorre con su propia pila).
+     */
+    void imprimir(ImpresorAST impresor, String indentacion, boolean esUltimo);
+
+    /**
+     * Llama al método de {@code visitor} que corresponde al tipo de este nodo.
+     * @return Lo que devuelva ese método.
+     */
+    <R> R accept(NodoVisitor<R> visitor);
 }
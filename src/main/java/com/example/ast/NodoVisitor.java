@@ -0,0 +1,35 @@
+package com.example.ast;
+
+/**
+ * Operación sobre el AST con un método por tipo de nodo. Cada nodo la despacha con
+ * {@link NodoAST#accept}, así que una fase elige el caso con una sola llamada virtual en lugar de
+ * una cadena de instanceof, y un tipo de nodo nuevo obliga a cada fase a decidir qué hacer con él
+ * (no compila hasta que lo hace) en vez de ignorarlo en silencio.
+ *
+ * @param <R> Lo que devuelve la operación para cada nodo ({@link Void} si no devuelve nada).
+ */
+public interface NodoVisitor<R> {
+    // Sentencias
+    R visitarPrograma(ProgramaNode nodo);
+
+    R visitarDefinir(DefinirNode nodo);
+
+    R visitarAsignacion(AsignacionNode nodo);
+
+    R visitarEscribir(EscribirNode nodo);
+
+    R visitarLeer(LeerNode nodo);
+
+    R visitarSi(SiNode nodo);
+
+    // Expresiones
+    R visitarExpresionBinaria(ExpresionBinariaNode nodo);
+
+    R visitarExpresionUnaria(ExpresionUnariaNode nodo);
+
+    R visitarExpresionParentizada(ExpresionParentizadaNode nodo);
+
+    R visitarIdentificador(IdentificadorNode nodo);
+
+    R visitarLiteral(LiteralNode nodo);
+}
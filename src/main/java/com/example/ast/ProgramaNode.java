@@ -23,8 +23,13 @@ public class ProgramaNode implements NodoAST {
     }
 
     @Override
-    public String aRepresentacionTextual(String indentacion, boolean esUltimo) {
-        StringBuilder sb = new StringBuilder();
+    public <R> R accept(NodoVisitor<R> visitor) {
+        return visitor.visitarPrograma(this);
+    }
+
+    @Override
+    public void imprimir(ImpresorAST impresor, String indentacion, boolean esUltimo) {
+        StringBuilder sb = impresor.getSalida();
         sb.append(indentacion);
         sb.append(esUltimo ? "└── " : "├── ");
         sb.append("Programa: ").append(nombreProceso.getNombre());
@@ -36,8 +41,7 @@ public class ProgramaNode implements NodoAST {
 
         String indentacionHijos = indentacion + (esUltimo ? "    " : "│   ");
         for (int i = 0; i < sentencias.size(); i++) {
-            sb.append(sentencias.get(i).aRepresentacionTextual(indentacionHijos, i == sentencias.size() - 1));
+            impresor.hijo(sentencias.get(i), indentacionHijos, i == sentencias.size() - 1);
         }
-        return sb.toString();
     }
 }
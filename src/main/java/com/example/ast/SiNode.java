@@ -33,8 +33,13 @@ public class SiNode implements NodoAST { // Es un tipo de NodoSentencia
     }
 
     @Override
-    public String aRepresentacionTextual(String indentacion, boolean esUltimo) {
-        StringBuilder sb = new StringBuilder();
+    public <R> R accept(NodoVisitor<R> visitor) {
+        return visitor.visitarSi(this);
+    }
+
+    @Override
+    public void imprimir(ImpresorAST impresor, String indentacion, boolean esUltimo) {
+        StringBuilder sb = impresor.getSalida();
         sb.append(indentacion);
         sb.append(esUltimo ? "└── " : "├── ");
         sb.append("Si");
@@ -42,20 +47,19 @@ public class SiNode implements NodoAST { // Es un tipo de NodoSentencia
 
         String indentacionHijos = indentacion + (esUltimo ? "    " : "│   ");
 
-        sb.append(indentacionHijos).append("├── Condicion:\n");
-        sb.append(condicion.aRepresentacionTextual(indentacionHijos + "│   ", true)); // Condición es el último de su "sub-bloque"
+        impresor.texto(indentacionHijos + "├── Condicion:\n");
+        impresor.hijo(condicion, indentacionHijos + "│   ", true); // Condición es el último de su "sub-bloque"
 
-        sb.append(indentacionHijos).append("├── Bloque Entonces:\n");
+        impresor.texto(indentacionHijos + "├── Bloque Entonces:\n");
         for (int i = 0; i < bloqueEntonces.size(); i++) {
-            sb.append(bloqueEntonces.get(i).aRepresentacionTextual(indentacionHijos + "│   ", i == bloqueEntonces.size() - 1));
+            impresor.hijo(bloqueEntonces.get(i), indentacionHijos + "│   ", i == bloqueEntonces.size() - 1);
         }
 
         if (tieneSiNo()) {
-            sb.append(indentacionHijos).append("└── Bloque SiNo:\n"); // SiNo es el último si existe
+            impresor.texto(indentacionHijos + "└── Bloque SiNo:\n"); // SiNo es el último si existe
             for (int i = 0; i < bloqueSiNo.size(); i++) {
-                sb.append(bloqueSiNo.get(i).aRepresentacionTextual(indentacionHijos + "    ", i == bloqueSiNo.size() - 1));
+                impresor.hijo(bloqueSiNo.get(i), indentacionHijos + "    ", i == bloqueSiNo.size() - 1);
             }
         }
-        return sb.toString();
     }
 }
@@ -1,6 +1,8 @@
 package com.example.semantico;
 
-import com.example.ast.NodoAST;
+import com.example.ast.*;
+import java.util.ArrayList;
+import java.util.List;
 
 public class ArbolSemantico {
 
@@ -12,77 +14,149 @@ public class ArbolSemantico {
         this.tipo = tipo;
     }
 
+    /**
+     * Recorre el subárbol en preorden con una pila explícita, de modo que la profundidad del AST
+     * no está limitada por la pila de Java.
+     */
     public String aRepresentacionTextual(String prefijo, boolean esUltimo) {
         StringBuilder sb = new StringBuilder();
+        List<Pendiente> pila = new ArrayList<>();
+        List<Pendiente> hijos = new ArrayList<>();
+        HijosSemanticos visitante = new HijosSemanticos(hijos);
+        pila.add(new Pendiente(this, prefijo, esUltimo));
+        while (!pila.isEmpty()) {
+            Pendiente actual = pila.remove(pila.size() - 1);
+            actual.arbol.agregarLinea(sb, actual.prefijo, actual.esUltimo);
+            visitante.agregar(actual.arbol.nodo, actual.prefijo + (actual.esUltimo ? "    " : "│   "));
+            // Se apilan al revés para que salgan en orden.
+            for (int i = hijos.size() - 1; i >= 0; i--) {
+                pila.add(hijos.get(i));
+            }
+            hijos.clear();
+        }
+        return sb.toString();
+    }
+
+    private void agregarLinea(StringBuilder sb, String prefijo, boolean esUltimo) {
         sb.append(prefijo);
         sb.append(esUltimo ? "└── " : "├── ");
         sb.append(nodo.getClass().getSimpleName());
         sb.append(" [tipo: ").append(tipo).append("]");
         sb.append("\n");
+    }
 
-        if (nodo instanceof com.example.ast.ProgramaNode) {
-            com.example.ast.ProgramaNode programa = (com.example.ast.ProgramaNode) nodo;
-            for (int i = 0; i < programa.getSentencias().size(); i++) {
-                NodoAST sentencia = programa.getSentencias().get(i);
-                ArbolSemantico subArbol = new ArbolSemantico(sentencia, "sentencia");
-                sb.append(subArbol.aRepresentacionTextual(prefijo + (esUltimo ? "    " : "│   "), i == programa.getSentencias().size() - 1));
-            }
-        } else if (nodo instanceof com.example.ast.DefinirNode) {
-            com.example.ast.DefinirNode definir = (com.example.ast.DefinirNode) nodo;
-            for (int i = 0; i < definir.getVariables().size(); i++) {
-                ArbolSemantico subArbol = new ArbolSemantico(definir.getVariables().get(i), "identificador");
-                sb.append(subArbol.aRepresentacionTextual(prefijo + (esUltimo ? "    " : "│   "), i == definir.getVariables().size() - 1));
-            }
-        } else if (nodo instanceof com.example.ast.AsignacionNode) {
-            com.example.ast.AsignacionNode asignacion = (com.example.ast.AsignacionNode) nodo;
-            ArbolSemantico subArbolIdentificador = new ArbolSemantico(asignacion.getIdentificador(), "identificador");
-            sb.append(subArbolIdentificador.aRepresentacionTextual(prefijo + (esUltimo ? "    " : "│   "), false));
-            ArbolSemantico subArbolExpresion = new ArbolSemantico(asignacion.getExpresion(), "expresion");
-            sb.append(subArbolExpresion.aRepresentacionTextual(prefijo + (esUltimo ? "    " : "│   "), true));
-        } else if (nodo instanceof com.example.ast.EscribirNode) {
-            com.example.ast.EscribirNode escribir = (com.example.ast.EscribirNode) nodo;
-            for (int i = 0; i < escribir.getExpresiones().size(); i++) {
-                ArbolSemantico subArbol = new ArbolSemantico(escribir.getExpresiones().get(i), "expresion");
-                sb.append(subArbol.aRepresentacionTextual(prefijo + (esUltimo ? "    " : "│   "), i == escribir.getExpresiones().size() - 1));
-            }
-        } else if (nodo instanceof com.example.ast.LeerNode) {
-            com.example.ast.LeerNode leer = (com.example.ast.LeerNode) nodo;
-            for (int i = 0; i < leer.getVariables().size(); i++) {
-                ArbolSemantico subArbol = new ArbolSemantico(leer.getVariables().get(i), "identificador");
-                sb.append(subArbol.aRepresentacionTextual(prefijo + (esUltimo ? "    " : "│   "), i == leer.getVariables().size() - 1));
+    /**
+     * Agrega a {@code hijos}, en orden, los subárboles que se imprimen debajo del nodo visitado,
+     * cada uno con la etiqueta de tipo que le corresponde.
+     */
+    private static final class HijosSemanticos implements NodoVisitor<Void> {
+        private final List<Pendiente> hijos;
+        private String prefijoHijos;
+
+        HijosSemanticos(List<Pendiente> hijos) {
+            this.hijos = hijos;
+        }
+
+        void agregar(NodoAST nodo, String prefijoHijos) {
+            this.prefijoHijos = prefijoHijos;
+            nodo.accept(this);
+        }
+
+        private void hijo(NodoAST nodo, String tipo, boolean esUltimo) {
+            hijos.add(new Pendiente(new ArbolSemantico(nodo, tipo), prefijoHijos, esUltimo));
+        }
+
+        private void lista(List<? extends NodoAST> nodos, String tipo) {
+            for (int i = 0; i < nodos.size(); i++) {
+                hijo(nodos.get(i), tipo, i == nodos.size() - 1);
             }
-        } else if (nodo instanceof com.example.ast.SiNode) {
-            com.example.ast.SiNode si = (com.example.ast.SiNode) nodo;
-            ArbolSemantico subArbolCondicion = new ArbolSemantico(si.getCondicion(), "condicion");
-            sb.append(subArbolCondicion.aRepresentacionTextual(prefijo + (esUltimo ? "    " : "│   "), false));
+        }
+
+        @Override
+        public Void visitarPrograma(ProgramaNode programa) {
+            lista(programa.getSentencias(), "sentencia");
+            return null;
+        }
+
+        @Override
+        public Void visitarDefinir(DefinirNode definir) {
+            lista(definir.getVariables(), "identificador");
+            return null;
+        }
+
+        @Override
+        public Void visitarAsignacion(AsignacionNode asignacion) {
+            hijo(asignacion.getIdentificador(), "identificador", false);
+            hijo(asignacion.getExpresion(), "expresion", true);
+            return null;
+        }
+
+        @Override
+        public Void visitarEscribir(EscribirNode escribir) {
+            lista(escribir.getExpresiones(), "expresion");
+            return null;
+        }
+
+        @Override
+        public Void visitarLeer(LeerNode leer) {
+            lista(leer.getVariables(), "identificador");
+            return null;
+        }
+
+        @Override
+        public Void visitarSi(SiNode si) {
+            hijo(si.getCondicion(), "condicion", false);
 
             for (int i = 0; i < si.getBloqueEntonces().size(); i++) {
-                ArbolSemantico subArbol = new ArbolSemantico(si.getBloqueEntonces().get(i), "sentencia");
-                sb.append(subArbol.aRepresentacionTextual(prefijo + (esUltimo ? "    " : "│   "), i == si.getBloqueEntonces().size() - 1 && si.getBloqueSiNo() == null));
+                hijo(si.getBloqueEntonces().get(i), "sentencia", i == si.getBloqueEntonces().size() - 1 && si.getBloqueSiNo() == null);
             }
 
             if (si.getBloqueSiNo() != null) {
-                for (int i = 0; i < si.getBloqueSiNo().size(); i++) {
-                    ArbolSemantico subArbol = new ArbolSemantico(si.getBloqueSiNo().get(i), "sentencia");
-                    sb.append(subArbol.aRepresentacionTextual(prefijo + (esUltimo ? "    " : "│   "), i == si.getBloqueSiNo().size() - 1));
-                }
+                lista(si.getBloqueSiNo(), "sentencia");
             }
-        } else if (nodo instanceof com.example.ast.ExpresionBinariaNode) {
-            com.example.ast.ExpresionBinariaNode expresion = (com.example.ast.ExpresionBinariaNode) nodo;
-            ArbolSemantico subArbolIzquierda = new ArbolSemantico(expresion.getIzquierda(), "izquierda");
-            sb.append(subArbolIzquierda.aRepresentacionTextual(prefijo + (esUltimo ? "    " : "│   "), false));
-            ArbolSemantico subArbolDerecha = new ArbolSemantico(expresion.getDerecha(), "derecha");
-            sb.append(subArbolDerecha.aRepresentacionTextual(prefijo + (esUltimo ? "    " : "│   "), true));
-        } else if (nodo instanceof com.example.ast.ExpresionParentizadaNode) {
-            com.example.ast.ExpresionParentizadaNode expresion = (com.example.ast.ExpresionParentizadaNode) nodo;
-            ArbolSemantico subArbol = new ArbolSemantico(expresion.getExpresionInterna(), "expresion");
-            sb.append(subArbol.aRepresentacionTextual(prefijo + (esUltimo ? "    " : "│   "), true));
-        } else if (nodo instanceof com.example.ast.IdentificadorNode) {
-            // No children
-        } else if (nodo instanceof com.example.ast.LiteralNode) {
-            // No children
+            return null;
         }
 
-        return sb.toString();
+        @Override
+        public Void visitarExpresionBinaria(ExpresionBinariaNode expresion) {
+            hijo(expresion.getIzquierda(), "izquierda", false);
+            hijo(expresion.getDerecha(), "derecha", true);
+            return null;
+        }
+
+        @Override
+        public Void visitarExpresionUnaria(ExpresionUnariaNode expresion) {
+            hijo(expresion.getOperando(), "operando", true);
+            return null;
+        }
+
+        @Override
+        public Void visitarExpresionParentizada(ExpresionParentizadaNode expresion) {
+            hijo(expresion.getExpresionInterna(), "expresion", true);
+            return null;
+        }
+
+        @Override
+        public Void visitarIdentificador(IdentificadorNode identificador) {
+            return null; // No children
+        }
+
+        @Override
+        public Void visitarLiteral(LiteralNode literal) {
+            return null; // No children
+        }
+    }
+
+    // Subárbol pendiente de imprimir, con la indentación que le toca.
+    private static final class Pendiente {
+        final ArbolSemantico arbol;
+        final String prefijo;
+        final boolean esUltimo;
+
+        Pendiente(ArbolSemantico arbol, String prefijo, boolean esUltimo) {
+            this.arbol = arbol;
+            this.prefijo = prefijo;
+            this.esUltimo = esUltimo;
+        }
     }
 }
@@ -0,0 +1,313 @@
+package com.example.tac;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Rewrites binary operations with one trivial or special operand into cheaper ones: algebraic
+ * identities ({@code x + 0}, {@code x * 1}, {@code x Y TRUE}, ...) become copies and
+ * multiplications and divisions by powers of two become additions and shifts. Operations whose
+ * operands are both constants are left to {@link ConstantFolder}.
+ * <p>
+ * The rewrites live in a table of {@link Rule}s per opcode, tried in the order they were
+ * added; the first one that applies replaces the instruction. Most identities only hold for
+ * integers ({@code x * 0} is not 0 for an infinite real, {@code -0.0 + 0} is not {@code -0.0}),
+ * so rules ask the {@link Context} whether an operand is known to hold one.
+ */
+public final class AlgebraicSimplifier {
+
+    /**
+     * One rewrite of a binary operation.
+     */
+    @FunctionalInterface
+    public interface Rule {
+        /**
+         * @return The instructions that compute the same value into the same destination, or
+         *         null if the rule does not apply to {@code binary}.
+         */
+        List<Instruction> apply(Instruction binary, Context context);
+    }
+
+    /**
+     * What a rule may ask about the program being rewritten.
+     */
+    public static final class Context {
+        private final ControlFlowGraph cfg;
+        private Set<Operand> integers; // Computed on first use
+        private int nextTemp;          // Computed on first use
+
+        private Context(ControlFlowGraph cfg) {
+            this.cfg = cfg;
+        }
+
+        /**
+         * @return true if {@code operand} always holds an integer: an integer constant, a
+         *         variable declared ENTERO that is only ever given integers, or a temp computed
+         *         from those with integer arithmetic.
+         */
+        public boolean isInteger(Operand operand) {
+            if (operand.getKind() == Operand.Kind.INTEGER) return true;
+            if (!operand.isName()) return false;
+            if (integers == null) {
+                integers = findIntegers(cfg);
+            }
+            return integers.contains(operand);
+        }
+
+        /**
+         * @return A temp not used anywhere else in the program.
+         */
+        public Operand newTemp() {
+            if (nextTemp == 0) {
+                nextTemp = 1;
+                for (BasicBlock block : cfg.getBlocks()) {
+                    for (Instruction instruction : block.instructions) {
+                        Operand dest = instruction.getDest();
+                        if (dest != null && dest.isTemp()) {
+                            nextTemp = Math.max(nextTemp, dest.getTempNumber() + 1);
+                        }
+                    }
+                }
+            }
+            return Operand.temp(nextTemp++);
+        }
+    }
+
+    private final Map<Opcode, List<Rule>> rules = new EnumMap<>(Opcode.class);
+
+    /**
+     * @return A simplifier with the identities and strength reductions described above.
+     */
+    public static AlgebraicSimplifier withDefaultRules() {
+        return new AlgebraicSimplifier()
+            .add(Opcode.ADD, AlgebraicSimplifier::addZero)
+            .add(Opcode.SUB, AlgebraicSimplifier::subtractZero)
+            .add(Opcode.SUB, AlgebraicSimplifier::subtractSelf)
+            .add(Opcode.MUL, AlgebraicSimplifier::multiplyByConstant)
+            .add(Opcode.DIV, AlgebraicSimplifier::divideByConstant)
+            .add(Opcode.EQ, AlgebraicSimplifier::compareSelf)
+            .add(Opcode.NE, AlgebraicSimplifier::compareSelf)
+            .add(Opcode.LT, AlgebraicSimplifier::compareSelf)
+            .add(Opcode.LE, AlgebraicSimplifier::compareSelf)
+            .add(Opcode.GT, AlgebraicSimplifier::compareSelf)
+            .add(Opcode.GE, AlgebraicSimplifier::compareSelf)
+            .add(Opcode.AND, AlgebraicSimplifier::logicalIdentity)
+            .add(Opcode.OR, AlgebraicSimplifier::logicalIdentity);
+    }
+
+    /**
+     * Adds a rule for {@code opcode}, tried after the ones already added for it.
+     * @return This simplifier, for chaining.
+     */
+    public AlgebraicSimplifier add(Opcode opcode, Rule rule) {
+        if (!opcode.isBinary()) {
+            throw new IllegalArgumentException(opcode + " is not a binary operation");
+        }
+        rules.computeIfAbsent(opcode, k -> new ArrayList<>()).add(rule);
+        return this;
+    }
+
+    /**
+     * Rewrites the binary operations of {@code blocks}; a rule only looks at one instruction,
+     * so the blocks that did not change since the last run have nothing new to rewrite.
+     * @return true if any block changed.
+     */
+    public boolean run(ControlFlowGraph cfg, List<BasicBlock> blocks) {
+        Context context = new Context(cfg);
+        boolean changedAny = false;
+        for (BasicBlock block : blocks) {
+            List<Instruction> code = block.getInstructions();
+            List<Instruction> newCode = null;
+            for (int i = 0; i < code.size(); i++) {
+                Instruction instruction = code.get(i);
+                List<Instruction> replacement = rewrite(instruction, context);
+                if (replacement != null && newCode == null) {
+                    newCode = new ArrayList<>(code.subList(0, i));
+                }
+                if (newCode != null) {
+                    if (replacement != null) {
+                        newCode.addAll(replacement);
+                    } else {
+                        newCode.add(instruction);
+                    }
+                }
+            }
+            if (newCode != null) {
+                cfg.setInstructions(block, newCode);
+                changedAny = true;
+            }
+        }
+        return changedAny;
+    }
+
+    private List<Instruction> rewrite(Instruction instruction, Context context) {
+        List<Rule> candidates = rules.get(instruction.getOpcode());
+        if (candidates == null || instruction.getOperand(0).isConstant() && instruction.getOperand(1).isConstant()) {
+            return null;
+        }
+        for (Rule rule : candidates) {
+            List<Instruction> replacement = rule.apply(instruction, context);
+            if (replacement != null) {
+                return replacement;
+            }
+        }
+        return null;
+    }
+
+    // Optimistic: every temp and ENTERO variable starts out as an integer and loses that as soon
+    // as one of its assignments can give it something else, until nothing changes.
+    private static Set<Operand> findIntegers(ControlFlowGraph cfg) {
+        Set<Operand> integers = new HashSet<>();
+        List<Instruction> definitions = new ArrayList<>();
+        for (BasicBlock block : cfg.getBlocks()) {
+            for (Instruction instruction : block.instructions) {
+                if (instruction.getOpcode() == Opcode.DECLARE && "ENTERO".equals(instruction.getDeclaredType())) {
+                    integers.add(instruction.getDest());
+                }
+                Operand dest = instruction.getDefinedVariable();
+                if (dest != null) {
+                    definitions.add(instruction);
+                    if (dest.isTemp()) {
+                        integers.add(dest);
+                    }
+                }
+            }
+        }
+        boolean changed = true;
+        while (changed) {
+            changed = false;
+            for (Instruction definition : definitions) {
+                Operand dest = definition.getDefinedVariable();
+                if (integers.contains(dest) && !givesInteger(definition, integers)) {
+                    integers.remove(dest);
+                    changed = true;
+                }
+            }
+        }
+        return integers;
+    }
+
+    private static boolean givesInteger(Instruction definition, Set<Operand> integers) {
+        Opcode opcode = definition.getOpcode();
+        if (opcode == Opcode.READ) {
+            return !definition.getDest().isTemp(); // Read as the variable's declared type
+        }
+        if (opcode == Opcode.COPY || opcode.isArithmetic() || opcode.isShift()) {
+            for (Operand operand : definition.getOperands()) {
+                if (operand.getKind() != Operand.Kind.INTEGER && !integers.contains(operand)) return false;
+            }
+            return true;
+        }
+        return false;
+    }
+
+    // The rules. Each one handles the constant on either side of a commutative operator.
+
+    private static List<Instruction> addZero(Instruction binary, Context context) {
+        Operand other = otherThan(binary, 0);
+        return other != null && context.isInteger(other) ? copy(binary, other) : null;
+    }
+
+    private static List<Instruction> subtractZero(Instruction binary, Context context) {
+        Operand x = binary.getOperand(0);
+        return isConstant(binary.getOperand(1), 0) && context.isInteger(x) ? copy(binary, x) : null;
+    }
+
+    private static List<Instruction> subtractSelf(Instruction binary, Context context) {
+        Operand x = binary.getOperand(0);
+        return x.isName() && x.equals(binary.getOperand(1)) && context.isInteger(x)
+                ? copy(binary, Operand.integer(0)) : null;
+    }
+
+    // x * 0 = 0, x * 1 = x, x * -1 = 0 - x, x * 2 = x + x, x * 2^k = x << k. These all hold in
+    // wrapping 32-bit arithmetic.
+    private static List<Instruction> multiplyByConstant(Instruction binary, Context context) {
+        Operand left = binary.getOperand(0);
+        Operand right = binary.getOperand(1);
+        Operand x = left.getKind() == Operand.Kind.INTEGER ? right : left;
+        Operand factor = x == left ? right : left;
+        if (factor.getKind() != Operand.Kind.INTEGER || !context.isInteger(x)) return null;
+        int n = factor.getIntValue();
+        Operand dest = binary.getDest();
+        if (n == 0) return copy(binary, factor);
+        if (n == 1) return copy(binary, x);
+        if (n == -1) return Collections.singletonList(Instruction.binary(Opcode.SUB, dest, Operand.integer(0), x));
+        if (n == 2) return Collections.singletonList(Instruction.binary(Opcode.ADD, dest, x, x));
+        int k = log2(n);
+        return k > 0 ? Collections.singletonList(Instruction.binary(Opcode.SHL, dest, x, Operand.integer(k))) : null;
+    }
+
+    // An arithmetic right shift rounds towards minus infinity but division truncates towards
+    // zero, so a negative dividend is first biased by 2^k - 1: the sign bit, spread by x >> 31
+    // and cut to k bits by >>> (32 - k). MIN_VALUE / -1 wraps to MIN_VALUE, as does 0 - MIN_VALUE.
+    private static List<Instruction> divideByConstant(Instruction binary, Context context) {
+        Operand x = binary.getOperand(0);
+        Operand divisor = binary.getOperand(1);
+        if (divisor.getKind() != Operand.Kind.INTEGER || !context.isInteger(x)) return null;
+        int n = divisor.getIntValue();
+        Operand dest = binary.getDest();
+        if (n == 1) return copy(binary, x);
+        if (n == -1) return Collections.singletonList(Instruction.binary(Opcode.SUB, dest, Operand.integer(0), x));
+        int k = log2(n);
+        if (k <= 0) return null;
+        List<Instruction> code = new ArrayList<>(4);
+        Operand bias = context.newTemp();
+        if (k == 1) {
+            code.add(Instruction.binary(Opcode.USHR, bias, x, Operand.integer(31)));
+        } else {
+            Operand sign = context.newTemp();
+            code.add(Instruction.binary(Opcode.SHR, sign, x, Operand.integer(31)));
+            code.add(Instruction.binary(Opcode.USHR, bias, sign, Operand.integer(32 - k)));
+        }
+        Operand biased = context.newTemp();
+        code.add(Instruction.binary(Opcode.ADD, biased, x, bias));
+        code.add(Instruction.binary(Opcode.SHR, dest, biased, Operand.integer(k)));
+        return code;
+    }
+
+    // x op x for integers; with reals NaN compares unequal to itself.
+    private static List<Instruction> compareSelf(Instruction binary, Context context) {
+        Operand x = binary.getOperand(0);
+        if (!x.isName() || !x.equals(binary.getOperand(1)) || !context.isInteger(x)) return null;
+        Opcode opcode = binary.getOpcode();
+        return copy(binary, Operand.bool(opcode == Opcode.EQ || opcode == Opcode.LE || opcode == Opcode.GE));
+    }
+
+    // x Y TRUE = x, x Y FALSE = FALSE, x O FALSE = x, x O TRUE = TRUE, x op x = x.
+    private static List<Instruction> logicalIdentity(Instruction binary, Context context) {
+        Operand left = binary.getOperand(0);
+        Operand right = binary.getOperand(1);
+        if (left.equals(right)) return copy(binary, left);
+        Operand x = left.getKind() == Operand.Kind.BOOLEAN ? right : left;
+        Operand constant = x == left ? right : left;
+        if (constant.getKind() != Operand.Kind.BOOLEAN) return null;
+        // The neutral value leaves x; the other one decides the result on its own
+        boolean neutral = binary.getOpcode() == Opcode.AND;
+        return copy(binary, constant.getBooleanValue() == neutral ? x : constant);
+    }
+
+    private static List<Instruction> copy(Instruction binary, Operand value) {
+        return Collections.singletonList(Instruction.copy(binary.getDest(), value));
+    }
+
+    // The operand that is not the integer constant {@code value}, if the other one is.
+    private static Operand otherThan(Instruction binary, int value) {
+        if (isConstant(binary.getOperand(1), value)) return binary.getOperand(0);
+        if (isConstant(binary.getOperand(0), value)) return binary.getOperand(1);
+        return null;
+    }
+
+    private static boolean isConstant(Operand operand, int value) {
+        return operand.getKind() == Operand.Kind.INTEGER && operand.getIntValue() == value;
+    }
+
+    // k if n is 2^k with k > 0, else -1.
+    private static int log2(int n) {
+        return n > 1 && (n & (n - 1)) == 0 ? Integer.numberOfTrailingZeros(n) : -1;
+    }
+}
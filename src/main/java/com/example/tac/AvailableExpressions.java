@@ -0,0 +1,145 @@
+package com.example.tac;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Available expressions: {@code a op b} is available at a point if every path to it computes
+ * {@code a op b} and assigns neither {@code a} nor {@code b} afterwards. Expressions are the
+ * distinct right-hand sides of the binary instructions, numbered in program order.
+ */
+public final class AvailableExpressions extends DataflowAnalysis {
+
+    /**
+     * Right-hand side {@code left op right} of a binary instruction, compared by value.
+     */
+    public static final class Expression {
+        private final Opcode opcode;
+        private final Operand left;
+        private final Operand right;
+
+        public Expression(Opcode opcode, Operand left, Operand right) {
+            this.opcode = opcode;
+            this.left = left;
+            this.right = right;
+        }
+
+        public static Expression of(Instruction binary) {
+            return new Expression(binary.getOpcode(), binary.getOperand(0), binary.getOperand(1));
+        }
+
+        public Opcode getOpcode() {
+            return opcode;
+        }
+
+        public Operand getLeft() {
+            return left;
+        }
+
+        public Operand getRight() {
+            return right;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Expression)) return false;
+            Expression e = (Expression) o;
+            return opcode == e.opcode && left.equals(e.left) && right.equals(e.right);
+        }
+
+        @Override
+        public int hashCode() {
+            return (opcode.hashCode() * 31 + left.hashCode()) * 31 + right.hashCode();
+        }
+
+        @Override
+        public String toString() {
+            return left + " " + opcode.getSymbol() + " " + right;
+        }
+    }
+
+    private final VariableIndex variables;
+    private final Map<Expression, Integer> ids = new HashMap<>();
+    private final List<Expression> expressions = new ArrayList<>();
+    private final BitSet[] expressionsUsing; // Indexed by variable ID
+
+    public AvailableExpressions(ControlFlowGraph cfg, VariableIndex variables) {
+        super(cfg, Direction.FORWARD, Meet.INTERSECTION);
+        this.variables = variables;
+        expressionsUsing = new BitSet[variables.size()];
+        for (int v = 0; v < expressionsUsing.length; v++) {
+            expressionsUsing[v] = new BitSet();
+        }
+        for (BasicBlock block : cfg.getBlocks()) {
+            for (Instruction instruction : block.instructions) {
+                if (!instruction.getOpcode().isBinary()) continue;
+                Expression expression = Expression.of(instruction);
+                if (ids.containsKey(expression)) continue;
+                int id = expressions.size();
+                ids.put(expression, id);
+                expressions.add(expression);
+                for (int i = 0; i < 2; i++) {
+                    int v = variables.getId(instruction.getOperand(i));
+                    if (v >= 0) {
+                        expressionsUsing[v].set(id);
+                    }
+                }
+            }
+        }
+        solve();
+    }
+
+    @Override
+    protected int domainSize() {
+        return expressions.size();
+    }
+
+    // gen: expressions computed and not invalidated later in the block; kill: expressions over
+    // a name the block assigns.
+    @Override
+    protected void initialize(BasicBlock block, BitSet gen, BitSet kill) {
+        for (Instruction instruction : block.instructions) {
+            if (instruction.getOpcode().isBinary()) {
+                gen.set(ids.get(Expression.of(instruction)));
+            }
+            int v = variables.getId(instruction.getDefinedVariable());
+            if (v >= 0) {
+                gen.andNot(expressionsUsing[v]);
+                kill.or(expressionsUsing[v]);
+            }
+        }
+    }
+
+    /**
+     * @return The ID of {@code expression}, or -1 if no instruction computes it.
+     */
+    public int getId(Expression expression) {
+        Integer id = ids.get(expression);
+        return id != null ? id : -1;
+    }
+
+    public Expression getExpression(int id) {
+        return expressions.get(id);
+    }
+
+    /**
+     * Updates {@code available} across {@code instruction}: the expression it computes becomes
+     * available and those over the name it assigns stop being so.
+     */
+    public void transfer(Instruction instruction, BitSet available) {
+        if (instruction.getOpcode().isBinary()) {
+            int id = getId(Expression.of(instruction));
+            if (id >= 0) {
+                available.set(id);
+            }
+        }
+        int v = variables.getId(instruction.getDefinedVariable());
+        if (v >= 0) {
+            available.andNot(expressionsUsing[v]);
+        }
+    }
+}
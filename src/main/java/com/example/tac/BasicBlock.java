@@ -0,0 +1,93 @@
+package com.example.tac;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Maximal straight-line run of instructions: control enters only at the first one (which may
+ * be a LABEL) and leaves only after the last one (which may be a jump or END).
+ * <p>
+ * Blocks belong to a {@link ControlFlowGraph}; their instructions and edges are changed through
+ * it so that the edges stay consistent with the terminators.
+ */
+public final class BasicBlock {
+    int index; // Position in the layout order of the graph
+    final List<Instruction> instructions = new ArrayList<>();
+    final List<BasicBlock> successors = new ArrayList<>(2);
+    final List<BasicBlock> predecessors = new ArrayList<>(2);
+    long lastModified; // Graph modification count of the last change to this block
+
+    BasicBlock(int index) {
+        this.index = index;
+    }
+
+    /**
+     * @return The position of the block in the program; blocks are numbered 0..n-1 in layout
+     *         order and renumbered when the graph removes blocks.
+     */
+    public int getIndex() {
+        return index;
+    }
+
+    public List<Instruction> getInstructions() {
+        return Collections.unmodifiableList(instructions);
+    }
+
+    public boolean isEmpty() {
+        return instructions.isEmpty();
+    }
+
+    /**
+     * @return The label defined by the first instruction, or null.
+     */
+    public String getLabel() {
+        if (instructions.isEmpty()) return null;
+        Instruction first = instructions.get(0);
+        return first.getOpcode() == Opcode.LABEL ? first.getLabel() : null;
+    }
+
+    /**
+     * @return The jump or END that ends the block, or null if it falls through.
+     */
+    public Instruction getTerminator() {
+        if (instructions.isEmpty()) return null;
+        Instruction last = instructions.get(instructions.size() - 1);
+        return isTerminator(last) ? last : null;
+    }
+
+    /**
+     * @return true if control can leave the block into the next one in layout order: it has
+     *         no terminator or ends in a conditional jump.
+     */
+    public boolean fallsThrough() {
+        Instruction terminator = getTerminator();
+        return terminator == null || terminator.isConditionalJump();
+    }
+
+    /**
+     * @return The value {@link ControlFlowGraph#getModificationCount()} had right after the last
+     *         change to the instructions or predecessors of this block; 0 if it never changed.
+     */
+    public long getLastModified() {
+        return lastModified;
+    }
+
+    public List<BasicBlock> getSuccessors() {
+        return Collections.unmodifiableList(successors);
+    }
+
+    public List<BasicBlock> getPredecessors() {
+        return Collections.unmodifiableList(predecessors);
+    }
+
+    static boolean isTerminator(Instruction instruction) {
+        return instruction.isJump() || instruction.getOpcode() == Opcode.END;
+    }
+
+    @Override
+    public String toString() {
+        String label = getLabel();
+        return "B" + index + (label != null ? " (" + label + ")" : "");
+    }
+}
@@ -0,0 +1,201 @@
+package com.example.tac;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Rewrites jumps and orders the blocks of a graph so that fewer jumps run. Every Si starts with
+ * {@code IF c GOTO L1; GOTO L2; L1:}, which jumps once whichever way it goes; inverted to
+ * {@code IFFALSE c GOTO L2; L1:} the then-block falls through and only the other path jumps.
+ * <p>
+ * A jump to a block that holds nothing but a GOTO goes straight to where that GOTO leads.
+ * Blocks are then placed in chains: a block that ends in {@code GOTO L} goes right before L's
+ * block when no other block falls into it, so the GOTO jumps to the next instruction and the
+ * pass that removes those can drop it. Blocks that fall through keep their next block, so no
+ * edge changes.
+ */
+public final class BlockLayout {
+
+    private BlockLayout() {
+    }
+
+    /**
+     * Rewrites the jumps and the layout of {@code cfg}.
+     * @return true if the program changed.
+     */
+    public static boolean run(ControlFlowGraph cfg) {
+        long before = cfg.getModificationCount();
+        Map<String, String> targets = new HashMap<>();
+        for (BasicBlock block : cfg.getBlocks()) {
+            threadJump(cfg, block, targets);
+        }
+        for (BasicBlock block : cfg.getBlocks()) {
+            invertBranch(cfg, block);
+        }
+        cfg.setLayout(chain(cfg));
+        return cfg.getModificationCount() != before;
+    }
+
+    // Retargets the jump that ends the block past blocks that only jump on.
+    private static void threadJump(ControlFlowGraph cfg, BasicBlock block, Map<String, String> targets) {
+        Instruction terminator = block.getTerminator();
+        if (terminator == null || !terminator.isJump()) return;
+        String label = finalTarget(cfg, terminator.getLabel(), targets);
+        if (!label.equals(terminator.getLabel())) {
+            setTerminator(cfg, block, jumpTo(terminator, label));
+        }
+    }
+
+    /**
+     * Where a jump to {@code label} ends up past the blocks that only jump on. Every label met on
+     * the way gets the same answer in {@code targets}, so each chain is walked once per run; a
+     * label mapped to null is being resolved, and meeting it again means the chain loops.
+     */
+    private static String finalTarget(ControlFlowGraph cfg, String label, Map<String, String> targets) {
+        List<String> path = new ArrayList<>();
+        String target = label;
+        while (true) {
+            if (targets.containsKey(target)) {
+                String known = targets.get(target);
+                // On a loop any label of it will do: none of them ever leaves it
+                if (known != null) target = known;
+                break;
+            }
+            targets.put(target, null);
+            path.add(target);
+            String forward = forwardedLabel(cfg.getBlock(target));
+            if (forward == null) break;
+            target = forward;
+        }
+        for (String passed : path) {
+            targets.put(passed, target);
+        }
+        return target;
+    }
+
+    // The target of a block made of its label and a GOTO, or null.
+    private static String forwardedLabel(BasicBlock block) {
+        if (block == null || block.instructions.size() != 2) return null;
+        Instruction last = block.instructions.get(1);
+        return last.getOpcode() == Opcode.GOTO ? last.getLabel() : null;
+    }
+
+    // IF c GOTO L1; GOTO L2; L1:  ->  IFFALSE c GOTO L2; L1:  (and the other way round)
+    private static void invertBranch(ControlFlowGraph cfg, BasicBlock block) {
+        Instruction terminator = block.getTerminator();
+        if (terminator == null || !terminator.isConditionalJump()) return;
+        BasicBlock jump = nextNonEmpty(cfg, block);
+        if (jump == null || jump.instructions.size() != 1 || jump.getTerminator() == null
+                || jump.getTerminator().getOpcode() != Opcode.GOTO) {
+            return;
+        }
+        if (nextNonEmpty(cfg, jump) != cfg.getBlock(terminator.getLabel())) return;
+
+        String otherLabel = jump.getTerminator().getLabel();
+        Operand condition = terminator.getOperand(0);
+        setTerminator(cfg, block, terminator.getOpcode() == Opcode.IF
+                ? Instruction.ifFalseGoto(condition, otherLabel)
+                : Instruction.ifGoto(condition, otherLabel));
+        cfg.setInstructions(jump, Collections.<Instruction>emptyList());
+    }
+
+    private static BasicBlock nextNonEmpty(ControlFlowGraph cfg, BasicBlock block) {
+        BasicBlock next = cfg.next(block);
+        while (next != null && next.isEmpty()) {
+            next = cfg.next(next);
+        }
+        return next;
+    }
+
+    // Chains of blocks that must or should be adjacent, in the order of their first blocks.
+    private static List<BasicBlock> chain(ControlFlowGraph cfg) {
+        List<BasicBlock> blocks = cfg.getBlocks();
+        int n = blocks.size();
+        BasicBlock[] after = new BasicBlock[n]; // Next block of the chain
+        boolean[] linked = new boolean[n];      // Some block comes right before this one
+        // Blocks that fall through, or whose GOTO is about to go because it jumps to the next
+        // block anyway, stay where they are
+        for (BasicBlock block : blocks) {
+            BasicBlock next = cfg.next(block);
+            Instruction terminator = block.getTerminator();
+            if (next != null && (block.fallsThrough() || terminator.getOpcode() == Opcode.GOTO
+                    && cfg.getBlock(terminator.getLabel()) == nextNonEmpty(cfg, block))) {
+                after[block.index] = next;
+                linked[next.index] = true;
+            }
+        }
+        // Ends of each chain: tail[head] and head[tail]
+        int[] tail = new int[n];
+        int[] head = new int[n];
+        for (BasicBlock block : blocks) {
+            if (linked[block.index]) continue;
+            BasicBlock last = block;
+            while (after[last.index] != null) {
+                last = after[last.index];
+            }
+            tail[block.index] = last.index;
+            head[last.index] = block.index;
+        }
+
+        // A GOTO joins its chain to the one its target starts, if that is not its own chain and
+        // does not have to stay last because it falls off the end of the program. A lone GOTO
+        // right after a conditional jump is left for invertBranch, which keeps the then-block
+        // where it is once the blocks in between are gone.
+        for (BasicBlock block : blocks) {
+            Instruction terminator = block.getTerminator();
+            if (terminator == null || terminator.getOpcode() != Opcode.GOTO || after[block.index] != null
+                    || block.instructions.size() == 1 && followsConditionalJump(cfg, block)) {
+                continue;
+            }
+            BasicBlock target = cfg.getBlock(terminator.getLabel());
+            if (target == null || target == cfg.getEntry() || linked[target.index]
+                    || tail[target.index] == block.index || blocks.get(tail[target.index]).fallsThrough()) {
+                continue;
+            }
+            after[block.index] = target;
+            linked[target.index] = true;
+            int first = head[block.index];
+            int last = tail[target.index];
+            tail[first] = last;
+            head[last] = first;
+        }
+
+        List<BasicBlock> layout = new ArrayList<>(n);
+        for (BasicBlock block : blocks) {
+            if (linked[block.index]) continue;
+            for (BasicBlock b = block; b != null; b = after[b.index]) {
+                layout.add(b);
+            }
+        }
+        return layout;
+    }
+
+    private static boolean followsConditionalJump(ControlFlowGraph cfg, BasicBlock block) {
+        int i = block.index - 1;
+        while (i >= 0 && cfg.getBlocks().get(i).isEmpty()) {
+            i--;
+        }
+        Instruction terminator = i >= 0 ? cfg.getBlocks().get(i).getTerminator() : null;
+        return terminator != null && terminator.isConditionalJump();
+    }
+
+    private static Instruction jumpTo(Instruction jump, String label) {
+        switch (jump.getOpcode()) {
+            case IF:
+                return Instruction.ifGoto(jump.getOperand(0), label);
+            case IF_FALSE:
+                return Instruction.ifFalseGoto(jump.getOperand(0), label);
+            default:
+                return Instruction.gotoLabel(label);
+        }
+    }
+
+    private static void setTerminator(ControlFlowGraph cfg, BasicBlock block, Instruction terminator) {
+        List<Instruction> code = new ArrayList<>(block.instructions);
+        code.set(code.size() - 1, terminator);
+        cfg.setInstructions(block, code);
+    }
+}
@@ -0,0 +1,102 @@
+package com.example.tac;
+
+/**
+ * Compile-time evaluation of binary operations on constants, shared by the passes that fold
+ * them. Results follow the generated code: integer arithmetic wraps around in 32 bits and a
+ * division by zero is left for run time.
+ */
+public final class ConstantFolder {
+
+    private ConstantFolder() {
+    }
+
+    /**
+     * Folds {@code a op b} when both operands are numeric constants.
+     * @return The constant result, or null if it cannot be computed at compile time.
+     */
+    public static Operand fold(Opcode operator, Operand a, Operand b) {
+        if (!a.isNumeric() || !b.isNumeric()) {
+            return null;
+        }
+        if (operator.isShift()) {
+            return a.getKind() == Operand.Kind.INTEGER && b.getKind() == Operand.Kind.INTEGER
+                    ? evaluateShift(a.getIntValue(), operator, b.getIntValue()) : null;
+        }
+        if (operator.isComparison()) {
+            return evaluateComparison(a.getNumericValue(), operator, b.getNumericValue());
+        }
+        if (!operator.isArithmetic()) {
+            return null;
+        }
+        if (a.getKind() == Operand.Kind.INTEGER && b.getKind() == Operand.Kind.INTEGER) {
+            return evaluateExpression(a.getIntValue(), operator, b.getIntValue());
+        }
+        return evaluateExpression(a.getNumericValue(), operator, b.getNumericValue());
+    }
+
+    private static Operand evaluateComparison(double val1, Opcode operator, double val2) {
+        switch (operator) {
+            case GT:
+                return Operand.bool(val1 > val2);
+            case LT:
+                return Operand.bool(val1 < val2);
+            case GE:
+                return Operand.bool(val1 >= val2);
+            case LE:
+                return Operand.bool(val1 <= val2);
+            case EQ:
+                return Operand.bool(val1 == val2);
+            case NE:
+                return Operand.bool(val1 != val2);
+        }
+        return null;
+    }
+
+    // Like the hardware, only the low five bits of the count matter.
+    private static Operand evaluateShift(int value, Opcode operator, int count) {
+        switch (operator) {
+            case SHL:
+                return Operand.integer(value << count);
+            case SHR:
+                return Operand.integer(value >> count);
+            case USHR:
+                return Operand.integer(value >>> count);
+        }
+        return null;
+    }
+
+    // Integer arithmetic wraps around like the 32-bit registers of the generated code.
+    private static Operand evaluateExpression(int val1, Opcode operator, int val2) {
+        switch (operator) {
+            case ADD:
+                return Operand.integer(val1 + val2);
+            case SUB:
+                return Operand.integer(val1 - val2);
+            case MUL:
+                return Operand.integer(val1 * val2);
+            case DIV:
+                if (val2 != 0) {
+                    return Operand.integer(val1 / val2);
+                }
+                break;
+        }
+        return null;
+    }
+
+    private static Operand evaluateExpression(double val1, Opcode operator, double val2) {
+        switch (operator) {
+            case ADD:
+                return Operand.real(val1 + val2);
+            case SUB:
+                return Operand.real(val1 - val2);
+            case MUL:
+                return Operand.real(val1 * val2);
+            case DIV:
+                if (val2 != 0) {
+                    return Operand.real(val1 / val2);
+                }
+                break;
+        }
+        return null;
+    }
+}
@@ -0,0 +1,348 @@
+package com.example.tac;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Control-flow graph of a three-address program: its basic blocks in program (layout) order,
+ * with predecessor and successor edges and jump labels resolved to blocks once.
+ * <p>
+ * Passes edit one block at a time through {@link #setInstructions}; only the edges of that
+ * block are recomputed; {@link #setLayout} reorders blocks without changing any edge. The
+ * reverse post-order and the dominator tree are derived on demand and cached until the next
+ * change to an edge or to the set or order of the blocks.
+ * <p>
+ * Every change is numbered: each block remembers the number of its last change, so a pass can
+ * revisit only the blocks changed since it last ran.
+ * <p>
+ * Instructions falling off the end of a block continue with the next block in layout order.
+ * A jump to a label that does not exist has no edge, and END has no successors.
+ */
+public final class ControlFlowGraph {
+    private final List<BasicBlock> blocks = new ArrayList<>();
+    private final Map<String, BasicBlock> blocksByLabel = new HashMap<>();
+    private long modificationCount;
+
+    // Derived from the edges; null when stale.
+    private List<BasicBlock> reversePostOrder;
+    private int[] rpoNumbers; // Indexed by block index; -1 for unreachable blocks
+    private DominatorTree dominatorTree;
+
+    private ControlFlowGraph() {
+    }
+
+    /**
+     * Splits {@code code} into basic blocks: a block starts at the first instruction, at every
+     * LABEL and after every jump and END.
+     */
+    public static ControlFlowGraph build(List<Instruction> code) {
+        ControlFlowGraph cfg = new ControlFlowGraph();
+        BasicBlock current = null;
+        for (Instruction instruction : code) {
+            if (current == null || instruction.getOpcode() == Opcode.LABEL) {
+                if (current == null || !current.isEmpty()) {
+                    current = new BasicBlock(cfg.blocks.size());
+                    cfg.blocks.add(current);
+                }
+                if (instruction.getOpcode() == Opcode.LABEL) {
+                    cfg.blocksByLabel.put(instruction.getLabel(), current);
+                }
+            }
+            current.instructions.add(instruction);
+            if (BasicBlock.isTerminator(instruction)) {
+                current = null;
+            }
+        }
+        if (cfg.blocks.isEmpty()) {
+            cfg.blocks.add(new BasicBlock(0));
+        }
+        for (BasicBlock block : cfg.blocks) {
+            cfg.addEdges(block);
+        }
+        return cfg;
+    }
+
+    /**
+     * @return The blocks in layout order; {@code getBlocks().get(i).getIndex() == i}.
+     */
+    public List<BasicBlock> getBlocks() {
+        return Collections.unmodifiableList(blocks);
+    }
+
+    public BasicBlock getEntry() {
+        return blocks.get(0);
+    }
+
+    /**
+     * @return The block that starts with {@code label}, or null if no block defines it.
+     */
+    public BasicBlock getBlock(String label) {
+        return blocksByLabel.get(label);
+    }
+
+    /**
+     * @return The block after {@code block} in layout order, or null for the last one.
+     */
+    public BasicBlock next(BasicBlock block) {
+        int i = block.index + 1;
+        return i < blocks.size() ? blocks.get(i) : null;
+    }
+
+    /**
+     * @return How many changes the graph has had; it only grows.
+     */
+    public long getModificationCount() {
+        return modificationCount;
+    }
+
+    /**
+     * @return The blocks changed after the graph had {@code modificationCount} changes, in
+     *         layout order.
+     */
+    public List<BasicBlock> getBlocksModifiedSince(long modificationCount) {
+        List<BasicBlock> modified = new ArrayList<>();
+        for (BasicBlock block : blocks) {
+            if (block.lastModified > modificationCount) {
+                modified.add(block);
+            }
+        }
+        return modified;
+    }
+
+    /**
+     * Replaces the instructions of {@code block}. A LABEL may only come first and jumps or END
+     * only last, so the edit cannot split the block; if the terminator changes, the edges of
+     * this block (and only these) are recomputed. Replacing the instructions with the same ones
+     * is not a change.
+     */
+    public void setInstructions(BasicBlock block, List<Instruction> code) {
+        if (block.instructions.equals(code)) return;
+        for (int i = 0; i < code.size(); i++) {
+            Instruction instruction = code.get(i);
+            if ((instruction.getOpcode() == Opcode.LABEL && i > 0)
+                    || (BasicBlock.isTerminator(instruction) && i < code.size() - 1)) {
+                throw new IllegalArgumentException("'" + instruction + "' would split block " + block);
+            }
+        }
+        String oldLabel = block.getLabel();
+        Instruction oldTerminator = block.getTerminator();
+        block.instructions.clear();
+        block.instructions.addAll(code);
+        block.lastModified = ++modificationCount;
+
+        String newLabel = block.getLabel();
+        if (oldLabel != null && !oldLabel.equals(newLabel)) {
+            blocksByLabel.remove(oldLabel);
+        }
+        if (newLabel != null) {
+            blocksByLabel.put(newLabel, block);
+        }
+        if (!sameTarget(oldTerminator, block.getTerminator())) {
+            removeEdges(block);
+            addEdges(block);
+            invalidate();
+        }
+    }
+
+    /**
+     * @return The reachable blocks in reverse post-order from the entry: every block comes
+     *         before its successors except along back edges.
+     */
+    public List<BasicBlock> getReversePostOrder() {
+        if (reversePostOrder == null) {
+            computeReversePostOrder();
+        }
+        return reversePostOrder;
+    }
+
+    /**
+     * @return The position of {@code block} in {@link #getReversePostOrder()}, or -1 if it is
+     *         unreachable.
+     */
+    public int getRpoNumber(BasicBlock block) {
+        getReversePostOrder();
+        return rpoNumbers[block.index];
+    }
+
+    public boolean isReachable(BasicBlock block) {
+        return getRpoNumber(block) >= 0;
+    }
+
+    public DominatorTree getDominatorTree() {
+        if (dominatorTree == null) {
+            dominatorTree = new DominatorTree(this);
+        }
+        return dominatorTree;
+    }
+
+    /**
+     * Deletes the blocks that cannot be reached from the entry and renumbers the rest.
+     * @return How many blocks were removed.
+     */
+    public int removeUnreachableBlocks() {
+        getReversePostOrder();
+        int kept = 0;
+        for (BasicBlock block : blocks) {
+            if (rpoNumbers[block.index] >= 0) {
+                block.index = kept;
+                blocks.set(kept++, block);
+                continue;
+            }
+            // Its predecessors are unreachable too, so only the successors keep a stale edge.
+            for (BasicBlock succ : block.successors) {
+                succ.predecessors.remove(block);
+                succ.lastModified = modificationCount + 1;
+            }
+            String label = block.getLabel();
+            if (label != null) {
+                blocksByLabel.remove(label);
+            }
+        }
+        int removed = blocks.size() - kept;
+        if (removed > 0) {
+            blocks.subList(kept, blocks.size()).clear();
+            modificationCount++;
+            invalidate();
+        }
+        return removed;
+    }
+
+    /**
+     * Puts the blocks in the order of {@code layout}, which must hold every block once, start
+     * with the entry and keep each block that can fall through (one that does not end in GOTO
+     * or END) right before the block it falls into, so that no edge changes. Blocks that get a
+     * different next block count as changed.
+     */
+    public void setLayout(List<BasicBlock> layout) {
+        if (layout.size() != blocks.size() || layout.get(0) != getEntry()) {
+            throw new IllegalArgumentException("Layout " + layout + " does not start at the entry or misses blocks");
+        }
+        BitSet seen = new BitSet(blocks.size());
+        for (int i = 0; i < layout.size(); i++) {
+            BasicBlock block = layout.get(i);
+            BasicBlock newNext = i + 1 < layout.size() ? layout.get(i + 1) : null;
+            if (blocks.get(block.index) != block || seen.get(block.index)) {
+                throw new IllegalArgumentException("Block " + block + " is not in the graph or appears twice");
+            }
+            seen.set(block.index);
+            if (block.fallsThrough() && next(block) != newNext) {
+                throw new IllegalArgumentException("Block " + block + " must stay before " + next(block));
+            }
+        }
+        if (layout.equals(blocks)) return;
+
+        modificationCount++;
+        for (int i = 0; i < layout.size(); i++) {
+            BasicBlock block = layout.get(i);
+            BasicBlock newNext = i + 1 < layout.size() ? layout.get(i + 1) : null;
+            if (next(block) != newNext) {
+                block.lastModified = modificationCount;
+            }
+        }
+        blocks.clear();
+        blocks.addAll(layout);
+        for (int i = 0; i < blocks.size(); i++) {
+            blocks.get(i).index = i;
+        }
+        invalidate();
+    }
+
+    /**
+     * @return The program in layout order.
+     */
+    public List<Instruction> toInstructions() {
+        List<Instruction> code = new ArrayList<>(instructionCount());
+        for (BasicBlock block : blocks) {
+            code.addAll(block.instructions);
+        }
+        return code;
+    }
+
+    public int instructionCount() {
+        int count = 0;
+        for (BasicBlock block : blocks) {
+            count += block.instructions.size();
+        }
+        return count;
+    }
+
+    private void addEdges(BasicBlock block) {
+        Instruction terminator = block.getTerminator();
+        if (terminator != null && terminator.isJump()) {
+            addEdge(block, blocksByLabel.get(terminator.getLabel()));
+        }
+        if (block.fallsThrough()) {
+            addEdge(block, next(block));
+        }
+    }
+
+    private static void addEdge(BasicBlock from, BasicBlock to) {
+        if (to == null || from.successors.contains(to)) return;
+        from.successors.add(to);
+        to.predecessors.add(from);
+    }
+
+    private static void removeEdges(BasicBlock block) {
+        for (BasicBlock succ : block.successors) {
+            succ.predecessors.remove(block);
+        }
+        block.successors.clear();
+    }
+
+    // Whether two terminators (or the lack of one) leave the block along the same edges.
+    private static boolean sameTarget(Instruction a, Instruction b) {
+        if (a == null || b == null) return a == b;
+        if (a.getOpcode() != b.getOpcode()) return false;
+        return a.getLabel() == null ? b.getLabel() == null : a.getLabel().equals(b.getLabel());
+    }
+
+    private void invalidate() {
+        reversePostOrder = null;
+        rpoNumbers = null;
+        dominatorTree = null;
+    }
+
+    // Iterative depth-first search, so long chains of blocks cannot overflow the Java stack.
+    private void computeReversePostOrder() {
+        int n = blocks.size();
+        int[] numbers = new int[n];
+        Arrays.fill(numbers, -1);
+        BasicBlock[] postOrder = new BasicBlock[n];
+        int postCount = 0;
+
+        BitSet visited = new BitSet(n);
+        BasicBlock[] stack = new BasicBlock[n];
+        int[] nextSucc = new int[n]; // Next successor to explore, per stack entry
+        int top = 0;
+        stack[0] = getEntry();
+        visited.set(getEntry().index);
+        while (top >= 0) {
+            BasicBlock block = stack[top];
+            if (nextSucc[top] < block.successors.size()) {
+                BasicBlock succ = block.successors.get(nextSucc[top]++);
+                if (!visited.get(succ.index)) {
+                    visited.set(succ.index);
+                    top++;
+                    stack[top] = succ;
+                    nextSucc[top] = 0;
+                }
+            } else {
+                postOrder[postCount++] = block;
+                top--;
+            }
+        }
+
+        List<BasicBlock> rpo = new ArrayList<>(postCount);
+        for (int i = postCount - 1; i >= 0; i--) {
+            numbers[postOrder[i].index] = rpo.size();
+            rpo.add(postOrder[i]);
+        }
+        reversePostOrder = Collections.unmodifiableList(rpo);
+        rpoNumbers = numbers;
+    }
+}
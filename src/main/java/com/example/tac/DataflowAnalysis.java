@@ -0,0 +1,173 @@
+package com.example.tac;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * Gen/kill bit-vector dataflow problem over the blocks of a {@link ControlFlowGraph}, solved
+ * with a worklist. Facts are bits of a {@link BitSet}; a subclass says what the bits mean,
+ * which direction facts flow in, how they merge at joins and what each block generates and
+ * kills. The transfer function of a block is {@code gen ∪ (x − kill)}.
+ * <p>
+ * The solution is a snapshot of the graph as it was when {@link #solve()} ran; blocks edited
+ * afterwards keep their old facts.
+ */
+public abstract class DataflowAnalysis {
+
+    public enum Direction {
+        FORWARD, // Facts flow from predecessors to successors (in → out)
+        BACKWARD // Facts flow from successors to predecessors (out → in)
+    }
+
+    public enum Meet {
+        UNION,       // "On some path": the initial guess is the empty set
+        INTERSECTION // "On every path": the initial guess is the full set
+    }
+
+    protected final ControlFlowGraph cfg;
+    private final Direction direction;
+    private final Meet meet;
+
+    // Indexed by block index
+    private BitSet[] gen;
+    private BitSet[] kill;
+    private BitSet[] in;
+    private BitSet[] out;
+
+    protected DataflowAnalysis(ControlFlowGraph cfg, Direction direction, Meet meet) {
+        this.cfg = cfg;
+        this.direction = direction;
+        this.meet = meet;
+    }
+
+    /**
+     * @return The number of bits of the lattice.
+     */
+    protected abstract int domainSize();
+
+    /**
+     * Fills the facts {@code block} generates and kills, as seen in the direction of the
+     * analysis.
+     */
+    protected abstract void initialize(BasicBlock block, BitSet gen, BitSet kill);
+
+    /**
+     * @return The facts at the entry (forward) or at the blocks without successors (backward).
+     */
+    protected BitSet boundary() {
+        return new BitSet();
+    }
+
+    /**
+     * Computes the fixed point. Blocks are visited first in reverse post-order (forward) or
+     * post-order (backward), so on programs without loops every block is processed once.
+     */
+    protected final void solve() {
+        List<BasicBlock> blocks = cfg.getBlocks();
+        int n = blocks.size();
+        int size = domainSize();
+        gen = new BitSet[n];
+        kill = new BitSet[n];
+        in = new BitSet[n];
+        out = new BitSet[n];
+        for (BasicBlock block : blocks) {
+            int b = block.index;
+            gen[b] = new BitSet(size);
+            kill[b] = new BitSet(size);
+            initialize(block, gen[b], kill[b]);
+            in[b] = new BitSet(size);
+            out[b] = new BitSet(size);
+            if (meet == Meet.INTERSECTION) {
+                result(block).set(0, size);
+            }
+        }
+
+        ArrayDeque<BasicBlock> worklist = new ArrayDeque<>(n);
+        boolean[] queued = new boolean[n];
+        for (BasicBlock block : initialOrder()) {
+            worklist.add(block);
+            queued[block.index] = true;
+        }
+        BitSet boundary = boundary();
+        while (!worklist.isEmpty()) {
+            BasicBlock block = worklist.poll();
+            queued[block.index] = false;
+
+            // Merge the facts flowing into the block
+            List<BasicBlock> sources = direction == Direction.FORWARD ? block.predecessors : block.successors;
+            BitSet input = input(block);
+            input.clear();
+            if (sources.isEmpty() || block == cfg.getEntry() && direction == Direction.FORWARD) {
+                input.or(boundary);
+            } else if (meet == Meet.INTERSECTION) {
+                input.set(0, size);
+            }
+            for (BasicBlock source : sources) {
+                if (meet == Meet.UNION) {
+                    input.or(result(source));
+                } else {
+                    input.and(result(source));
+                }
+            }
+
+            // Apply the transfer function; requeue the dependents if the result changed
+            BitSet result = (BitSet) input.clone();
+            result.andNot(kill[block.index]);
+            result.or(gen[block.index]);
+            if (!result.equals(result(block))) {
+                result(block).clear();
+                result(block).or(result);
+                List<BasicBlock> targets = direction == Direction.FORWARD ? block.successors : block.predecessors;
+                for (BasicBlock target : targets) {
+                    if (!queued[target.index]) {
+                        worklist.add(target);
+                        queued[target.index] = true;
+                    }
+                }
+            }
+        }
+    }
+
+    // Reachable blocks in (reverse) post-order, then the unreachable ones in layout order.
+    private List<BasicBlock> initialOrder() {
+        List<BasicBlock> rpo = cfg.getReversePostOrder();
+        List<BasicBlock> order = new ArrayList<>(cfg.getBlocks().size());
+        if (direction == Direction.FORWARD) {
+            order.addAll(rpo);
+        } else {
+            for (int i = rpo.size() - 1; i >= 0; i--) {
+                order.add(rpo.get(i));
+            }
+        }
+        for (BasicBlock block : cfg.getBlocks()) {
+            if (!cfg.isReachable(block)) {
+                order.add(block);
+            }
+        }
+        return order;
+    }
+
+    private BitSet input(BasicBlock block) {
+        return direction == Direction.FORWARD ? in[block.index] : out[block.index];
+    }
+
+    private BitSet result(BasicBlock block) {
+        return direction == Direction.FORWARD ? out[block.index] : in[block.index];
+    }
+
+    /**
+     * @return The facts holding on entry to {@code block}. Callers must not modify the set.
+     */
+    public BitSet getIn(BasicBlock block) {
+        return in[block.index];
+    }
+
+    /**
+     * @return The facts holding on exit from {@code block}. Callers must not modify the set.
+     */
+    public BitSet getOut(BasicBlock block) {
+        return out[block.index];
+    }
+}
@@ -0,0 +1,160 @@
+package com.example.tac;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Dominator tree of the reachable blocks of a {@link ControlFlowGraph}, computed with the
+ * iterative algorithm of Cooper, Harvey and Kennedy over the reverse post-order. The entry is
+ * the root; unreachable blocks are not in the tree.
+ * <p>
+ * The tree is a snapshot: the graph builds a new one after its edges change.
+ */
+public final class DominatorTree {
+    private final ControlFlowGraph cfg;
+    private final BasicBlock[] idom;           // Indexed by block index; the entry is its own idom
+    private final List<List<BasicBlock>> children;
+    private final int[] preorder;              // Tree DFS numbers, for constant-time dominance tests
+    private final int[] postorder;
+    private List<List<BasicBlock>> frontiers;  // Computed on first use
+
+    DominatorTree(ControlFlowGraph cfg) {
+        this.cfg = cfg;
+        int n = cfg.getBlocks().size();
+        idom = new BasicBlock[n];
+        children = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            children.add(new ArrayList<>(2));
+        }
+        preorder = new int[n];
+        postorder = new int[n];
+        computeIdoms();
+        for (BasicBlock block : cfg.getReversePostOrder()) {
+            if (block != cfg.getEntry()) {
+                children.get(idom[block.index].index).add(block);
+            }
+        }
+        numberTree();
+    }
+
+    /**
+     * @return The closest strict dominator of {@code block}; null for the entry and for
+     *         unreachable blocks.
+     */
+    public BasicBlock getImmediateDominator(BasicBlock block) {
+        BasicBlock d = idom[block.index];
+        return d == block ? null : d;
+    }
+
+    /**
+     * @return The blocks immediately dominated by {@code block}, in reverse post-order.
+     */
+    public List<BasicBlock> getChildren(BasicBlock block) {
+        return Collections.unmodifiableList(children.get(block.index));
+    }
+
+    /**
+     * @return true if every path from the entry to {@code b} goes through {@code a}; a block
+     *         dominates itself.
+     */
+    public boolean dominates(BasicBlock a, BasicBlock b) {
+        if (idom[a.index] == null || idom[b.index] == null) return false;
+        return preorder[a.index] <= preorder[b.index] && postorder[b.index] <= postorder[a.index];
+    }
+
+    /**
+     * @return The dominance frontier of {@code block}: the blocks where its dominance ends,
+     *         that is, those with a predecessor dominated by {@code block} that {@code block}
+     *         does not strictly dominate. These are where SSA construction places phis.
+     */
+    public List<BasicBlock> getDominanceFrontier(BasicBlock block) {
+        if (frontiers == null) {
+            computeFrontiers();
+        }
+        return Collections.unmodifiableList(frontiers.get(block.index));
+    }
+
+    // Cooper, Harvey and Kennedy: walk up from each predecessor of a join to the join's idom.
+    private void computeFrontiers() {
+        int n = idom.length;
+        frontiers = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            frontiers.add(new ArrayList<>(2));
+        }
+        for (BasicBlock block : cfg.getReversePostOrder()) {
+            if (block.predecessors.size() < 2) continue;
+            for (BasicBlock pred : block.predecessors) {
+                BasicBlock runner = pred;
+                while (idom[runner.index] != null && runner != idom[block.index]) {
+                    List<BasicBlock> frontier = frontiers.get(runner.index);
+                    if (frontier.isEmpty() || frontier.get(frontier.size() - 1) != block) {
+                        frontier.add(block);
+                    }
+                    runner = idom[runner.index];
+                }
+            }
+        }
+    }
+
+    private void computeIdoms() {
+        List<BasicBlock> rpo = cfg.getReversePostOrder();
+        BasicBlock entry = cfg.getEntry();
+        idom[entry.index] = entry;
+        boolean changed = true;
+        while (changed) {
+            changed = false;
+            for (int i = 1; i < rpo.size(); i++) {
+                BasicBlock block = rpo.get(i);
+                BasicBlock newIdom = null;
+                for (BasicBlock pred : block.predecessors) {
+                    if (idom[pred.index] == null) continue; // Not processed yet, or unreachable
+                    newIdom = newIdom == null ? pred : intersect(pred, newIdom);
+                }
+                if (idom[block.index] != newIdom) {
+                    idom[block.index] = newIdom;
+                    changed = true;
+                }
+            }
+        }
+    }
+
+    // Walks both fingers up the partial tree until they meet; RPO numbers decrease towards the root.
+    private BasicBlock intersect(BasicBlock a, BasicBlock b) {
+        while (a != b) {
+            while (cfg.getRpoNumber(a) > cfg.getRpoNumber(b)) {
+                a = idom[a.index];
+            }
+            while (cfg.getRpoNumber(b) > cfg.getRpoNumber(a)) {
+                b = idom[b.index];
+            }
+        }
+        return a;
+    }
+
+    // Iterative DFS over the tree: deep nestings of Si would overflow a recursive walk.
+    private void numberTree() {
+        int n = idom.length;
+        BasicBlock[] stack = new BasicBlock[n];
+        int[] nextChild = new int[n];
+        int top = 0;
+        int pre = 0;
+        int post = 0;
+        stack[0] = cfg.getEntry();
+        preorder[cfg.getEntry().index] = pre++;
+        while (top >= 0) {
+            BasicBlock block = stack[top];
+            List<BasicBlock> kids = children.get(block.index);
+            if (nextChild[top] < kids.size()) {
+                BasicBlock child = kids.get(nextChild[top]++);
+                preorder[child.index] = pre++;
+                top++;
+                stack[top] = child;
+                nextChild[top] = 0;
+            } else {
+                postorder[block.index] = post++;
+                top--;
+            }
+        }
+    }
+}
@@ -0,0 +1,167 @@
+package com.example.tac;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reorders the evaluation of expressions inside each basic block so that as few values as
+ * possible are live at once (Sethi and Ullman). The code generator evaluates every expression
+ * left operand first; in {@code a * b + (c * d + (e * f + g))} that keeps each product alive
+ * while the right-hand side is computed, one more per level of nesting.
+ * <p>
+ * Per block, every temp that is assigned once and read once, later in the same block, becomes
+ * a node of a DAG hanging from the instruction that reads it; everything else is a leaf, so a
+ * value read twice is computed once, where it was. Each node is labelled with the number of
+ * registers its subtree needs, and the subtrees of a node are evaluated starting with the one
+ * that needs the most. Only the order of the operations of one expression changes; operands
+ * keep their positions.
+ * <p>
+ * A subtree is never moved past an assignment to a name it reads, nor past a READ or PRINT, so
+ * it sees the same values and a division by zero still happens before the same output.
+ */
+public final class ExpressionDag {
+
+    private static final class Node {
+        final Instruction instruction;
+        final Node[] children; // Per operand; null for a leaf
+        final int need;        // Registers needed to evaluate the subtree (its Sethi-Ullman label)
+
+        Node(Instruction instruction, Node[] children) {
+            this.instruction = instruction;
+            this.children = children;
+            if (instruction.getOpcode() == Opcode.COPY) {
+                need = children[0] != null ? children[0].need : 1;
+            } else {
+                // A leaf on the left has to be loaded into a register; on the right it can be
+                // used in place
+                int left = children[0] != null ? children[0].need : 1;
+                int right = children[1] != null ? children[1].need : 0;
+                need = left == right ? left + 1 : Math.max(left, right);
+            }
+        }
+
+        boolean reads(Operand name) {
+            for (int k = 0; k < children.length; k++) {
+                if (children[k] != null ? children[k].reads(name) : instruction.getOperand(k).equals(name)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    private final Map<Operand, Integer> assignments = new HashMap<>();
+    private final Map<Operand, Integer> reads = new HashMap<>();
+
+    private ExpressionDag(ControlFlowGraph cfg) {
+        for (BasicBlock block : cfg.getBlocks()) {
+            for (Instruction instruction : block.instructions) {
+                Operand dest = instruction.getDefinedVariable();
+                if (dest != null && dest.isTemp()) {
+                    assignments.merge(dest, 1, Integer::sum);
+                }
+                for (Operand operand : instruction.getOperands()) {
+                    if (operand.isTemp()) {
+                        reads.merge(operand, 1, Integer::sum);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Reorders the expressions of {@code blocks}; an expression never spans blocks, so the
+     * blocks that did not change since the last run are already in order.
+     * @return true if any block changed.
+     */
+    public static boolean run(ControlFlowGraph cfg, List<BasicBlock> blocks) {
+        ExpressionDag dag = new ExpressionDag(cfg);
+        long before = cfg.getModificationCount();
+        for (BasicBlock block : blocks) {
+            cfg.setInstructions(block, dag.reorder(block));
+        }
+        return cfg.getModificationCount() != before;
+    }
+
+    private List<Instruction> reorder(BasicBlock block) {
+        List<Instruction> code = new ArrayList<>(block.instructions.size());
+        // Subtrees whose reader has not been seen yet, in the order they were computed
+        Map<Operand, Node> pending = new LinkedHashMap<>();
+        for (Instruction instruction : block.instructions) {
+            Node[] children = new Node[instruction.getOperandCount()];
+            for (int k = 0; k < children.length; k++) {
+                children[k] = pending.remove(instruction.getOperand(k));
+            }
+            if (isInner(instruction)) {
+                pending.put(instruction.getDest(), new Node(instruction, children));
+                continue;
+            }
+
+            // Subtrees that cannot wait for their reader any longer are evaluated here
+            Opcode opcode = instruction.getOpcode();
+            Operand dest = instruction.getDefinedVariable();
+            Iterator<Node> it = pending.values().iterator();
+            while (it.hasNext()) {
+                Node node = it.next();
+                if (opcode == Opcode.PRINT || opcode == Opcode.READ || BasicBlock.isTerminator(instruction)
+                        || dest != null && node.reads(dest)) {
+                    emit(node, code);
+                    it.remove();
+                }
+            }
+            for (Node child : order(children)) {
+                emit(child, code);
+            }
+            code.add(instruction);
+        }
+        for (Node node : pending.values()) {
+            emit(node, code);
+        }
+        return code;
+    }
+
+    // A single-use temp whose value is only needed by one later instruction of the block.
+    private boolean isInner(Instruction instruction) {
+        Operand dest = instruction.getDest();
+        return (instruction.getOpcode() == Opcode.COPY || instruction.getOpcode().isBinary())
+                && dest.isTemp()
+                && assignments.getOrDefault(dest, 0) == 1
+                && reads.getOrDefault(dest, 0) == 1;
+    }
+
+    // Iterative post-order walk: subtrees with the larger label first, ties left to right.
+    private static void emit(Node root, List<Instruction> code) {
+        List<Object> stack = new ArrayList<>();
+        stack.add(root);
+        while (!stack.isEmpty()) {
+            Object top = stack.remove(stack.size() - 1);
+            if (top instanceof Instruction) {
+                code.add((Instruction) top);
+                continue;
+            }
+            Node node = (Node) top;
+            stack.add(node.instruction);
+            List<Node> children = order(node.children);
+            for (int i = children.size() - 1; i >= 0; i--) {
+                stack.add(children.get(i));
+            }
+        }
+    }
+
+    private static List<Node> order(Node[] children) {
+        List<Node> ordered = new ArrayList<>(children.length);
+        for (Node child : children) {
+            if (child != null) {
+                ordered.add(child);
+            }
+        }
+        if (ordered.size() == 2 && ordered.get(1).need > ordered.get(0).need) {
+            ordered.add(ordered.remove(0));
+        }
+        return ordered;
+    }
+}
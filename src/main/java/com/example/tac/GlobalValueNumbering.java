@@ -0,0 +1,196 @@
+package com.example.tac;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Dominator-based global value numbering over the {@link SsaForm} of a graph. Walking the
+ * dominator tree, it remembers which temp computed each {@code a op b} in the blocks that
+ * dominate the current one; a later temp computing the same value is replaced by the first one
+ * in every read, and its own assignment is left to dead-store elimination.
+ * <p>
+ * Operands are compared by value number, not by name, so {@code x = t1} followed by
+ * {@code x * 2} matches {@code t1 * 2}. Operands of commutative operators are put in a fixed
+ * order and {@code a > b} is keyed as {@code b < a}, so {@code a * b} matches {@code b * a}.
+ * <p>
+ * Only temps assigned once in the whole program stand for a value: leaving SSA form gives every
+ * version of a variable the same name again, so a program variable read in place of a
+ * later-assigned one could hold a newer value by then.
+ */
+public final class GlobalValueNumbering {
+
+    private final SsaForm ssa;
+    private final ControlFlowGraph cfg;
+    private final Map<Operand, Operand> valueNumbers = new HashMap<>(); // SSA name -> its value
+    private final Map<AvailableExpressions.Expression, Operand> available = new HashMap<>();
+    private final Set<Operand> singleAssignmentTemps = new HashSet<>();
+
+    private GlobalValueNumbering(SsaForm ssa) {
+        this.ssa = ssa;
+        this.cfg = ssa.getGraph();
+    }
+
+    /**
+     * Removes redundant computations from {@code cfg}, going in and out of SSA form.
+     * @return true if the program changed.
+     */
+    public static boolean run(ControlFlowGraph cfg) {
+        long before = cfg.getModificationCount();
+        GlobalValueNumbering gvn = new GlobalValueNumbering(SsaForm.build(cfg));
+        gvn.findSingleAssignmentTemps();
+        gvn.number();
+        gvn.ssa.writeBack();
+        return cfg.getModificationCount() != before;
+    }
+
+    private void findSingleAssignmentTemps() {
+        Map<Operand, Integer> assignments = new HashMap<>();
+        for (BasicBlock block : cfg.getBlocks()) {
+            for (Instruction instruction : block.instructions) {
+                Operand dest = instruction.getDefinedVariable();
+                if (dest != null && dest.isTemp()) {
+                    assignments.merge(dest, 1, Integer::sum);
+                }
+            }
+        }
+        for (Map.Entry<Operand, Integer> entry : assignments.entrySet()) {
+            if (entry.getValue() == 1) {
+                // Its only SSA version
+                singleAssignmentTemps.add(entry.getKey().withVersion(1));
+            }
+        }
+    }
+
+    // Preorder walk of the dominator tree; the expressions a block adds are forgotten when the
+    // walk leaves its subtree. Iterative, since deep nestings of Si make deep trees.
+    private void number() {
+        List<BasicBlock> blocks = cfg.getBlocks();
+        List<AvailableExpressions.Expression> log = new ArrayList<>();
+        ArrayDeque<int[]> frames = new ArrayDeque<>(); // {block index, next child, log size on entry}
+        frames.push(new int[] {cfg.getEntry().index, -1, 0});
+        DominatorTree dominators = cfg.getDominatorTree();
+        while (!frames.isEmpty()) {
+            int[] frame = frames.peek();
+            BasicBlock block = blocks.get(frame[0]);
+            if (frame[1] < 0) {
+                frame[1] = 0;
+                frame[2] = log.size();
+                numberBlock(block, log);
+            }
+            List<BasicBlock> children = dominators.getChildren(block);
+            if (frame[1] < children.size()) {
+                frames.push(new int[] {children.get(frame[1]++).index, -1, 0});
+            } else {
+                while (log.size() > frame[2]) {
+                    available.remove(log.remove(log.size() - 1));
+                }
+                frames.pop();
+            }
+        }
+    }
+
+    private void numberBlock(BasicBlock block, List<AvailableExpressions.Expression> log) {
+        // A phi whose operands all have one value has that value
+        for (Instruction phi : ssa.getPhis(block)) {
+            Operand value = null;
+            for (Operand operand : phi.getOperands()) {
+                Operand number = valueOf(operand);
+                if (value == null) {
+                    value = number;
+                } else if (!value.equals(number)) {
+                    value = phi.getDest();
+                    break;
+                }
+            }
+            valueNumbers.put(phi.getDest(), value != null ? value : phi.getDest());
+        }
+
+        List<Instruction> code = ssa.getInstructions(block);
+        for (int i = 0; i < code.size(); i++) {
+            Instruction instruction = replaceReads(code.get(i));
+            Operand dest = instruction.getDefinedVariable();
+            if (instruction.getOpcode() == Opcode.COPY) {
+                valueNumbers.put(dest, valueOf(instruction.getOperand(0)));
+            } else if (instruction.getOpcode().isBinary()) {
+                AvailableExpressions.Expression key = key(instruction);
+                Operand previous = available.get(key);
+                if (previous != null) {
+                    // Already computed by a dominating temp
+                    valueNumbers.put(dest, previous);
+                    instruction = Instruction.copy(dest, previous);
+                } else {
+                    valueNumbers.put(dest, dest);
+                    if (singleAssignmentTemps.contains(dest)) {
+                        available.put(key, dest);
+                        log.add(key);
+                    }
+                }
+            } else if (dest != null) {
+                valueNumbers.put(dest, dest);
+            }
+            if (instruction != code.get(i)) {
+                ssa.setInstruction(block, i, instruction);
+            }
+        }
+    }
+
+    // Reads a temp's value from the temp that first computed it, when that one is safe to name.
+    private Instruction replaceReads(Instruction instruction) {
+        Operand[] operands = null;
+        for (int k = 0; k < instruction.getOperandCount(); k++) {
+            Operand operand = instruction.getOperand(k);
+            if (!operand.isTemp()) continue;
+            Operand value = valueOf(operand);
+            if (!value.equals(operand) && (value.isConstant() || singleAssignmentTemps.contains(value))) {
+                if (operands == null) {
+                    operands = instruction.getOperands().toArray(new Operand[0]);
+                }
+                operands[k] = value;
+            }
+        }
+        return operands != null ? instruction.withOperands(operands) : instruction;
+    }
+
+    private Operand valueOf(Operand operand) {
+        if (!operand.isName()) return operand;
+        Operand value = valueNumbers.get(operand);
+        return value != null ? value : operand;
+    }
+
+    private AvailableExpressions.Expression key(Instruction binary) {
+        Opcode opcode = binary.getOpcode();
+        Operand left = valueOf(binary.getOperand(0));
+        Operand right = valueOf(binary.getOperand(1));
+        switch (opcode) {
+            case GT:
+                return new AvailableExpressions.Expression(Opcode.LT, right, left);
+            case GE:
+                return new AvailableExpressions.Expression(Opcode.LE, right, left);
+            case ADD:
+            case MUL:
+            case EQ:
+            case NE:
+            case AND:
+            case OR:
+                return compare(left, right) > 0
+                        ? new AvailableExpressions.Expression(opcode, right, left)
+                        : new AvailableExpressions.Expression(opcode, left, right);
+            default:
+                return new AvailableExpressions.Expression(opcode, left, right);
+        }
+    }
+
+    // Any fixed total order will do; this one is stable from run to run.
+    private static int compare(Operand a, Operand b) {
+        if (a.getKind() != b.getKind()) {
+            return a.getKind().compareTo(b.getKind());
+        }
+        int c = a.toString().compareTo(b.toString());
+        return c != 0 ? c : Integer.compare(a.getVersion(), b.getVersion());
+    }
+}
@@ -0,0 +1,197 @@
+package com.example.tac;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * One three-address instruction. This is what the code generator produces, what every
+ * optimizer pass reads and rewrites, and what the assembly generator lowers, so no phase has
+ * to parse the textual form back; {@link TacPrinter} writes that form for display.
+ * <p>
+ * Instructions are immutable and compare by value: a pass that changes one builds a
+ * replacement.
+ */
+public final class Instruction {
+    private static final Operand[] NO_OPERANDS = new Operand[0];
+
+    private final Opcode opcode;
+    private final Operand dest;       // DECLARE, COPY, PHI, binary operations, READ
+    private final Operand[] operands; // COPY: source; PHI: one per predecessor; binary: left, right;
+                                      // IF, IF_FALSE: condition; PRINT: items
+    private final String label;       // LABEL, IF, IF_FALSE, GOTO
+    private final String text;        // DECLARE: type name; ERROR: message
+
+    private Instruction(Opcode opcode, Operand dest, Operand[] operands, String label, String text) {
+        this.opcode = opcode;
+        this.dest = dest;
+        this.operands = operands;
+        this.label = label;
+        this.text = text;
+    }
+
+    public static Instruction declare(Operand variable, String type) {
+        return new Instruction(Opcode.DECLARE, variable, NO_OPERANDS, null, type);
+    }
+
+    public static Instruction label(String label) {
+        return new Instruction(Opcode.LABEL, null, NO_OPERANDS, label, null);
+    }
+
+    public static Instruction copy(Operand dest, Operand source) {
+        return new Instruction(Opcode.COPY, dest, new Operand[] {source}, null, null);
+    }
+
+    /**
+     * @param incoming The value of {@code dest} along each edge into the block, in the order of
+     *                 {@link BasicBlock#getPredecessors()}.
+     */
+    public static Instruction phi(Operand dest, List<Operand> incoming) {
+        return new Instruction(Opcode.PHI, dest, incoming.toArray(NO_OPERANDS), null, null);
+    }
+
+    public static Instruction binary(Opcode opcode, Operand dest, Operand left, Operand right) {
+        if (!opcode.isBinary()) {
+            throw new IllegalArgumentException(opcode + " is not a binary operation");
+        }
+        return new Instruction(opcode, dest, new Operand[] {left, right}, null, null);
+    }
+
+    public static Instruction ifGoto(Operand condition, String label) {
+        return new Instruction(Opcode.IF, null, new Operand[] {condition}, label, null);
+    }
+
+    public static Instruction ifFalseGoto(Operand condition, String label) {
+        return new Instruction(Opcode.IF_FALSE, null, new Operand[] {condition}, label, null);
+    }
+
+    public static Instruction gotoLabel(String label) {
+        return new Instruction(Opcode.GOTO, null, NO_OPERANDS, label, null);
+    }
+
+    public static Instruction print(List<Operand> items) {
+        return new Instruction(Opcode.PRINT, null, items.toArray(NO_OPERANDS), null, null);
+    }
+
+    public static Instruction read(Operand variable) {
+        return new Instruction(Opcode.READ, variable, NO_OPERANDS, null, null);
+    }
+
+    public static Instruction end() {
+        return new Instruction(Opcode.END, null, NO_OPERANDS, null, null);
+    }
+
+    public static Instruction error(String message) {
+        return new Instruction(Opcode.ERROR, null, NO_OPERANDS, null, message);
+    }
+
+    public Opcode getOpcode() {
+        return opcode;
+    }
+
+    /**
+     * @return The variable or temp this instruction writes, or null.
+     */
+    public Operand getDest() {
+        return dest;
+    }
+
+    /**
+     * @return The variable or temp this instruction assigns when it runs (assignments, PHI and
+     *         READ), or null; unlike {@link #getDest()} this excludes DECLARE.
+     */
+    public Operand getDefinedVariable() {
+        return isAssignment() || opcode == Opcode.PHI || opcode == Opcode.READ ? dest : null;
+    }
+
+    public int getOperandCount() {
+        return operands.length;
+    }
+
+    public Operand getOperand(int i) {
+        return operands[i];
+    }
+
+    /**
+     * @return The operands this instruction reads, in order.
+     */
+    public List<Operand> getOperands() {
+        return Collections.unmodifiableList(Arrays.asList(operands));
+    }
+
+    /**
+     * @return The label defined (LABEL) or jumped to (IF, IF_FALSE, GOTO), or null.
+     */
+    public String getLabel() {
+        return label;
+    }
+
+    /**
+     * @return The type name of a DECLARE (ENTERO, REAL, BOOLEAN, CADENA, CARACTER).
+     */
+    public String getDeclaredType() {
+        return opcode == Opcode.DECLARE ? text : null;
+    }
+
+    public String getMessage() {
+        return opcode == Opcode.ERROR ? text : null;
+    }
+
+    /**
+     * @return true for {@code x = y} and {@code x = a op b}.
+     */
+    public boolean isAssignment() {
+        return opcode == Opcode.COPY || opcode.isBinary();
+    }
+
+    public boolean isJump() {
+        return isConditionalJump() || opcode == Opcode.GOTO;
+    }
+
+    /**
+     * @return true for IF and IF_FALSE, which fall through when they do not jump.
+     */
+    public boolean isConditionalJump() {
+        return opcode == Opcode.IF || opcode == Opcode.IF_FALSE;
+    }
+
+    /**
+     * @return This instruction with its read operands replaced by {@code newOperands}.
+     */
+    public Instruction withOperands(Operand... newOperands) {
+        return new Instruction(opcode, dest, newOperands.clone(), label, text);
+    }
+
+    /**
+     * @return This instruction writing {@code newDest} instead of its destination.
+     */
+    public Instruction withDest(Operand newDest) {
+        return new Instruction(opcode, newDest, operands, label, text);
+    }
+
+    /**
+     * @return true if {@code o} is the same instruction: same opcode, operands, label and text.
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof Instruction)) return false;
+        Instruction other = (Instruction) o;
+        return opcode == other.opcode
+                && Objects.equals(dest, other.dest)
+                && Arrays.equals(operands, other.operands)
+                && Objects.equals(label, other.label)
+                && Objects.equals(text, other.text);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(opcode, dest, Arrays.hashCode(operands), label, text);
+    }
+
+    @Override
+    public String toString() {
+        return TacPrinter.line(this);
+    }
+}
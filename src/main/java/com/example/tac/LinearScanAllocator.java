@@ -0,0 +1,207 @@
+package com.example.tac;
+
+import java.util.ArrayList;
+import java.util.ArrayDeque;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Linear-scan register allocation (Poletto and Sarkar) for the variables and temps of a
+ * {@link ControlFlowGraph}. Instructions are numbered in layout order and each name gets one
+ * live interval, from the first to the last position where it is assigned, read or live across
+ * a block boundary. Intervals are then visited by start: a name takes a free register if there
+ * is one, and otherwise the interval that ends last among the ones holding a register (this one
+ * included) goes to memory.
+ * <p>
+ * A name whose interval starts with its assignment may take the register of one whose last
+ * read is that same instruction, so {@code t1 = a + b; r = t1} can compute r in t1's register
+ * and the copy disappears.
+ */
+public final class LinearScanAllocator {
+
+    /**
+     * The positions of the program where a name may hold a value that is still needed.
+     */
+    public static final class Interval {
+        private final Operand name;
+        private int start;
+        private int end;
+        private boolean startsWithAssignment;
+        private String register; // Null if the name lives in memory
+
+        private Interval(Operand name, int position) {
+            this.name = name;
+            this.start = position;
+            this.end = position;
+        }
+
+        public Operand getName() {
+            return name;
+        }
+
+        public int getStart() {
+            return start;
+        }
+
+        public int getEnd() {
+            return end;
+        }
+
+        /**
+         * @return The register assigned to the name, or null if it was spilled to memory.
+         */
+        public String getRegister() {
+            return register;
+        }
+
+        /**
+         * @return true if this interval may use the same storage as {@code old}, an interval
+         *         that starts no later: they do not overlap, or {@code old} is last read by the
+         *         instruction that starts this one with an assignment.
+         */
+        boolean canFollow(Interval old) {
+            return old.end < start || old.end == start && startsWithAssignment;
+        }
+
+        @Override
+        public String toString() {
+            return name + " [" + start + ", " + end + "] " + (register != null ? register : "memoria");
+        }
+    }
+
+    private final Map<Operand, Interval> intervals = new HashMap<>();
+    private final List<Operand> liveOnEntry = new ArrayList<>();
+
+    private LinearScanAllocator() {
+    }
+
+    /**
+     * Assigns {@code registers}, in order of preference, to the names of {@code cfg}.
+     */
+    public static LinearScanAllocator allocate(ControlFlowGraph cfg, List<String> registers) {
+        LinearScanAllocator allocator = new LinearScanAllocator();
+        allocator.buildIntervals(cfg);
+        allocator.scan(registers);
+        return allocator;
+    }
+
+    /**
+     * @return The register holding {@code name}, or null if it lives in memory.
+     */
+    public String getRegister(Operand name) {
+        Interval interval = intervals.get(name);
+        return interval != null ? interval.register : null;
+    }
+
+    /**
+     * @return The intervals of every name in the program, by start.
+     */
+    public List<Interval> getIntervals() {
+        List<Interval> sorted = new ArrayList<>(intervals.values());
+        sorted.sort(Comparator.comparingInt((Interval i) -> i.start).thenComparingInt(i -> i.end));
+        return sorted;
+    }
+
+    /**
+     * @return The names read before any assignment on some path from the entry; they hold
+     *         their initial value (zero) there.
+     */
+    public List<Operand> getLiveOnEntry() {
+        return Collections.unmodifiableList(liveOnEntry);
+    }
+
+    // Each interval is the hull of the name's positions, extended to the start of every block
+    // where it is live on entry and to the end of every block where it is live on exit.
+    private void buildIntervals(ControlFlowGraph cfg) {
+        VariableIndex variables = new VariableIndex(cfg);
+        Liveness liveness = new Liveness(cfg, variables);
+        int position = 0;
+        for (BasicBlock block : cfg.getBlocks()) {
+            if (block.isEmpty()) continue;
+            int first = position;
+            int last = position + block.instructions.size() - 1;
+            BitSet in = liveness.getIn(block);
+            for (int id = in.nextSetBit(0); id >= 0; id = in.nextSetBit(id + 1)) {
+                extend(variables.getVariable(id), first, false);
+            }
+            for (Instruction instruction : block.instructions) {
+                for (Operand operand : instruction.getOperands()) {
+                    if (operand.isName()) {
+                        extend(operand, position, false);
+                    }
+                }
+                Operand dest = instruction.getDefinedVariable();
+                if (dest != null) {
+                    extend(dest, position, true);
+                }
+                position++;
+            }
+            BitSet out = liveness.getOut(block);
+            for (int id = out.nextSetBit(0); id >= 0; id = out.nextSetBit(id + 1)) {
+                extend(variables.getVariable(id), last, false);
+            }
+        }
+        BitSet entry = liveness.getIn(cfg.getEntry());
+        for (int id = entry.nextSetBit(0); id >= 0; id = entry.nextSetBit(id + 1)) {
+            liveOnEntry.add(variables.getVariable(id));
+        }
+    }
+
+    private void extend(Operand name, int position, boolean assignment) {
+        Interval interval = intervals.get(name);
+        if (interval == null) {
+            interval = new Interval(name, position);
+            interval.startsWithAssignment = assignment;
+            intervals.put(name, interval);
+            return;
+        }
+        if (position < interval.start) {
+            interval.start = position;
+            interval.startsWithAssignment = assignment;
+        } else if (position == interval.start && !assignment) {
+            interval.startsWithAssignment = false; // Also read there
+        }
+        interval.end = Math.max(interval.end, position);
+    }
+
+    private void scan(List<String> registers) {
+        ArrayDeque<String> free = new ArrayDeque<>(registers);
+        // Holding a register, by end
+        List<Interval> active = new ArrayList<>(registers.size());
+        for (Interval current : getIntervals()) {
+            // Free the registers of the intervals that are over by now
+            for (int i = active.size() - 1; i >= 0; i--) {
+                Interval old = active.get(i);
+                if (current.canFollow(old)) {
+                    free.push(old.register);
+                    active.remove(i);
+                }
+            }
+            if (!free.isEmpty()) {
+                current.register = free.pop();
+                insertByEnd(active, current);
+                continue;
+            }
+            if (active.isEmpty()) continue; // No registers at all
+            Interval last = active.get(active.size() - 1);
+            if (last.end > current.end) {
+                current.register = last.register;
+                last.register = null;
+                active.remove(active.size() - 1);
+                insertByEnd(active, current);
+            }
+        }
+    }
+
+    private static void insertByEnd(List<Interval> active, Interval interval) {
+        int i = active.size();
+        while (i > 0 && active.get(i - 1).end > interval.end) {
+            i--;
+        }
+        active.add(i, interval);
+    }
+}
@@ -0,0 +1,57 @@
+package com.example.tac;
+
+import java.util.BitSet;
+
+/**
+ * Live variables: a variable is live at a point if some path from there reads it before
+ * assigning it. Nothing is live after END or at the end of the program.
+ */
+public final class Liveness extends DataflowAnalysis {
+    private final VariableIndex variables;
+
+    public Liveness(ControlFlowGraph cfg, VariableIndex variables) {
+        super(cfg, Direction.BACKWARD, Meet.UNION);
+        this.variables = variables;
+        solve();
+    }
+
+    public VariableIndex getVariables() {
+        return variables;
+    }
+
+    @Override
+    protected int domainSize() {
+        return variables.size();
+    }
+
+    // gen: names read before any assignment in the block; kill: names the block assigns.
+    @Override
+    protected void initialize(BasicBlock block, BitSet gen, BitSet kill) {
+        for (int i = block.instructions.size() - 1; i >= 0; i--) {
+            Instruction instruction = block.instructions.get(i);
+            int def = variables.getId(instruction.getDefinedVariable());
+            if (def >= 0) {
+                gen.clear(def);
+                kill.set(def);
+            }
+            addUses(instruction, gen);
+        }
+    }
+
+    /**
+     * Sets the bits of the names {@code instruction} reads.
+     */
+    public void addUses(Instruction instruction, BitSet live) {
+        for (int i = 0; i < instruction.getOperandCount(); i++) {
+            int use = variables.getId(instruction.getOperand(i));
+            if (use >= 0) {
+                live.set(use);
+            }
+        }
+    }
+
+    public boolean isLiveOut(BasicBlock block, Operand variable) {
+        int id = variables.getId(variable);
+        return id >= 0 && getOut(block).get(id);
+    }
+}
@@ -0,0 +1,82 @@
+package com.example.tac;
+
+import com.example.TokenKind;
+
+/**
+ * Operation performed by a three-address {@link Instruction}.
+ */
+public enum Opcode {
+    DECLARE,   // DECLARE x TYPE
+    LABEL,     // L1:
+    COPY,      // x = y
+    PHI,       // x = PHI(a, b, ...): only in SSA form, one operand per predecessor
+
+    // x = a op b
+    ADD("+"), SUB("-"), MUL("*"), DIV("/"),
+    EQ("=="), NE("<>"), LT("<"), LE("<="), GT(">"), GE(">="),
+    AND("Y"), OR("O"),
+    SHL("<<"), SHR(">>"), USHR(">>>"), // Integer shifts, only introduced by strength reduction
+
+    IF,        // IF c GOTO L
+    IF_FALSE,  // IFFALSE c GOTO L
+    GOTO,      // GOTO L
+    PRINT,     // PRINT a, b, ...
+    READ,      // read x
+    END,       // END
+    ERROR;     // Code generation failed here; the message is kept verbatim
+
+    private final String symbol;
+
+    Opcode() {
+        this(null);
+    }
+
+    Opcode(String symbol) {
+        this.symbol = symbol;
+    }
+
+    /**
+     * @return The operator as printed in {@code x = a op b}, or null if this is not a binary operation.
+     */
+    public String getSymbol() {
+        return symbol;
+    }
+
+    public boolean isBinary() {
+        return symbol != null;
+    }
+
+    public boolean isArithmetic() {
+        return this == ADD || this == SUB || this == MUL || this == DIV;
+    }
+
+    public boolean isShift() {
+        return this == SHL || this == SHR || this == USHR;
+    }
+
+    public boolean isComparison() {
+        return compareTo(EQ) >= 0 && compareTo(GE) <= 0;
+    }
+
+    /**
+     * @return The binary opcode for an operator token, or null if the token is not one.
+     */
+    public static Opcode forOperator(TokenKind kind) {
+        switch (kind) {
+            case PLUS: return ADD;
+            case MINUS: return SUB;
+            case STAR: return MUL;
+            case SLASH: return DIV;
+            case EQUAL:
+            case EQUAL_EQUAL: return EQ;
+            case NOT_EQUAL: return NE;
+            case LESS: return LT;
+            case LESS_EQUAL: return LE;
+            case GREATER: return GT;
+            case GREATER_EQUAL: return GE;
+            case AND: return AND;
+            case OR: return OR;
+            default: return null;
+        }
+    }
+}
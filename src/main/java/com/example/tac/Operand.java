@@ -0,0 +1,173 @@
+package com.example.tac;
+
+/**
+ * Value read or written by an {@link Instruction}: a program variable, a compiler temporary or a
+ * literal constant. Operands are immutable and compare by value, so they can be used as map keys
+ * and shared between instructions.
+ */
+public final class Operand {
+
+    public enum Kind {
+        VARIABLE, // Declared in the source program
+        TEMP,     // tN, created by the code generator
+        INTEGER,
+        REAL,
+        BOOLEAN,
+        STRING
+    }
+
+    public static final Operand TRUE = new Operand(Kind.BOOLEAN, null, 1, 0);
+    public static final Operand FALSE = new Operand(Kind.BOOLEAN, null, 0, 0);
+
+    private final Kind kind;
+    private final String text; // Name of a variable or temp, contents of a string
+    private final int intValue; // INTEGER value, temp number, 1/0 for BOOLEAN
+    private final double realValue;
+    private final int version; // SSA version of a name; 0 outside SSA form
+
+    private Operand(Kind kind, String text, int intValue, double realValue) {
+        this(kind, text, intValue, realValue, 0);
+    }
+
+    private Operand(Kind kind, String text, int intValue, double realValue, int version) {
+        this.kind = kind;
+        this.text = text;
+        this.intValue = intValue;
+        this.realValue = realValue;
+        this.version = version;
+    }
+
+    public static Operand variable(String name) {
+        return new Operand(Kind.VARIABLE, name, 0, 0);
+    }
+
+    public static Operand temp(int number) {
+        return new Operand(Kind.TEMP, "t" + number, number, 0);
+    }
+
+    public static Operand integer(int value) {
+        return new Operand(Kind.INTEGER, null, value, 0);
+    }
+
+    public static Operand real(double value) {
+        return new Operand(Kind.REAL, null, 0, value);
+    }
+
+    public static Operand bool(boolean value) {
+        return value ? TRUE : FALSE;
+    }
+
+    public static Operand string(String value) {
+        return new Operand(Kind.STRING, value, 0, 0);
+    }
+
+    /**
+     * @return This variable or temp as the SSA name {@code version}; version 0 is the name
+     *         itself, the value it holds on entry to the program.
+     */
+    public Operand withVersion(int version) {
+        if (!isName()) {
+            throw new IllegalStateException(this + " is not a variable or temp");
+        }
+        return new Operand(kind, text, intValue, realValue, version);
+    }
+
+    public int getVersion() {
+        return version;
+    }
+
+    /**
+     * @return The variable or temp an SSA name stands for; constants and plain names as they are.
+     */
+    public Operand withoutVersion() {
+        return version == 0 ? this : new Operand(kind, text, intValue, realValue);
+    }
+
+    public Kind getKind() {
+        return kind;
+    }
+
+    /**
+     * @return true for variables and temps, the operands an instruction can assign.
+     */
+    public boolean isName() {
+        return kind == Kind.VARIABLE || kind == Kind.TEMP;
+    }
+
+    public boolean isTemp() {
+        return kind == Kind.TEMP;
+    }
+
+    public boolean isConstant() {
+        return !isName();
+    }
+
+    public boolean isNumeric() {
+        return kind == Kind.INTEGER || kind == Kind.REAL;
+    }
+
+    /**
+     * @return The name of a variable or temp.
+     */
+    public String getName() {
+        return isName() ? text : null;
+    }
+
+    public int getTempNumber() {
+        return intValue;
+    }
+
+    public int getIntValue() {
+        return intValue;
+    }
+
+    /**
+     * @return The value of a numeric constant as a double.
+     */
+    public double getNumericValue() {
+        return kind == Kind.REAL ? realValue : intValue;
+    }
+
+    public boolean getBooleanValue() {
+        return intValue != 0;
+    }
+
+    public String getStringValue() {
+        return kind == Kind.STRING ? text : null;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof Operand)) return false;
+        Operand other = (Operand) o;
+        return kind == other.kind && intValue == other.intValue && version == other.version
+                && Double.compare(realValue, other.realValue) == 0
+                && (text == null ? other.text == null : text.equals(other.text));
+    }
+
+    @Override
+    public int hashCode() {
+        int h = kind.hashCode();
+        h = 31 * h + (text != null ? text.hashCode() : 0);
+        h = 31 * h + intValue;
+        h = 31 * h + Double.hashCode(realValue);
+        h = 31 * h + version;
+        return h;
+    }
+
+    /**
+     * @return The operand as written in the textual TAC: names as is (SSA names as
+     *         {@code x.version}), strings quoted, booleans as TRUE/FALSE.
+     */
+    @Override
+    public String toString() {
+        switch (kind) {
+            case INTEGER: return String.valueOf(intValue);
+            case REAL: return String.valueOf(realValue);
+            case BOOLEAN: return intValue != 0 ? "TRUE" : "FALSE";
+            case STRING: return "\"" + text + "\"";
+            default: return version == 0 ? text : text + "." + version;
+        }
+    }
+}
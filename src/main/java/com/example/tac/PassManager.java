@@ -0,0 +1,139 @@
+package com.example.tac;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Runs optimization passes over a {@link ControlFlowGraph} until none of them changes the
+ * program. A pass is only run again when some block changed since its previous run, and it is
+ * told which ones; passes that need the whole program may ignore the list and look at every
+ * block.
+ */
+public final class PassManager {
+
+    /**
+     * One optimization over the graph. Changes must go through
+     * {@link ControlFlowGraph#setInstructions} or the graph's other mutators, which record the
+     * blocks they touch.
+     */
+    @FunctionalInterface
+    public interface Pass {
+        /**
+         * @param dirty The blocks changed since this pass last ran (all of them the first time),
+         *              in layout order.
+         * @return true if the pass changed the program.
+         */
+        boolean run(ControlFlowGraph cfg, List<BasicBlock> dirty);
+    }
+
+    /**
+     * What a pass did, added over every {@link #run} of the manager.
+     */
+    public static final class Statistics {
+        private final String name;
+        private int runs;
+        private int changes;
+        private long nanos;
+        private int instructionDelta;
+
+        private Statistics(String name) {
+            this.name = name;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public int getRuns() {
+            return runs;
+        }
+
+        /**
+         * @return How many of the runs changed the program.
+         */
+        public int getChanges() {
+            return changes;
+        }
+
+        public long getNanos() {
+            return nanos;
+        }
+
+        /**
+         * @return Instructions after minus instructions before, added over all runs.
+         */
+        public int getInstructionDelta() {
+            return instructionDelta;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s: %d ejecuciones, %d con cambios, %+d instrucciones, %.3f ms",
+                    name, runs, changes, instructionDelta, nanos / 1e6);
+        }
+    }
+
+    // Bounds the rounds in case two passes keep undoing each other's work.
+    private static final int MAX_ROUNDS = 100;
+
+    private final List<Pass> passes = new ArrayList<>();
+    private final List<Statistics> statistics = new ArrayList<>();
+    private int rounds;
+
+    public PassManager add(String name, Pass pass) {
+        passes.add(pass);
+        statistics.add(new Statistics(name));
+        return this;
+    }
+
+    /**
+     * Runs the passes in the order they were added, round after round, until a round changes
+     * nothing.
+     */
+    public void run(ControlFlowGraph cfg) {
+        rounds = 0;
+        long[] lastRun = new long[passes.size()];
+        for (int p = 0; p < lastRun.length; p++) {
+            lastRun[p] = -1;
+        }
+        boolean changed = true;
+        while (changed && rounds < MAX_ROUNDS) {
+            changed = false;
+            rounds++;
+            for (int p = 0; p < passes.size(); p++) {
+                List<BasicBlock> dirty = cfg.getBlocksModifiedSince(lastRun[p]);
+                if (dirty.isEmpty()) continue;
+
+                // A pass sees its own edits next round: removing one dead store, say, can leave
+                // another one dead
+                lastRun[p] = cfg.getModificationCount();
+                Statistics stats = statistics.get(p);
+                int before = cfg.instructionCount();
+                long start = System.nanoTime();
+                boolean passChanged = passes.get(p).run(cfg, dirty);
+                stats.nanos += System.nanoTime() - start;
+                stats.runs++;
+                if (passChanged) {
+                    stats.changes++;
+                    stats.instructionDelta += cfg.instructionCount() - before;
+                    changed = true;
+                }
+            }
+        }
+    }
+
+    /**
+     * @return One entry per pass, in the order they were added.
+     */
+    public List<Statistics> getStatistics() {
+        return Collections.unmodifiableList(statistics);
+    }
+
+    /**
+     * @return How many rounds the last {@link #run} took to reach the fixed point.
+     */
+    public int getRounds() {
+        return rounds;
+    }
+}
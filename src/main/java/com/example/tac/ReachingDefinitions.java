@@ -0,0 +1,78 @@
+package com.example.tac;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * Reaching definitions: a definition (an assignment or READ) reaches a point if some path from
+ * it to that point does not assign its variable again. Definitions are numbered in program
+ * order; the bit sets of the solution are indexed by those numbers.
+ */
+public final class ReachingDefinitions extends DataflowAnalysis {
+    private final VariableIndex variables;
+    private final List<Instruction> definitions = new ArrayList<>();
+    private final List<BasicBlock> definitionBlocks = new ArrayList<>();
+    private final BitSet[] definitionsOf; // Indexed by variable ID
+    private final int[] firstDefinition;  // Indexed by block index: ID of the block's first definition
+
+    public ReachingDefinitions(ControlFlowGraph cfg, VariableIndex variables) {
+        super(cfg, Direction.FORWARD, Meet.UNION);
+        this.variables = variables;
+        definitionsOf = new BitSet[variables.size()];
+        for (int v = 0; v < definitionsOf.length; v++) {
+            definitionsOf[v] = new BitSet();
+        }
+        firstDefinition = new int[cfg.getBlocks().size()];
+        for (BasicBlock block : cfg.getBlocks()) {
+            firstDefinition[block.index] = definitions.size();
+            for (Instruction instruction : block.instructions) {
+                int v = variables.getId(instruction.getDefinedVariable());
+                if (v >= 0) {
+                    definitionsOf[v].set(definitions.size());
+                    definitions.add(instruction);
+                    definitionBlocks.add(block);
+                }
+            }
+        }
+        solve();
+    }
+
+    @Override
+    protected int domainSize() {
+        return definitions.size();
+    }
+
+    // gen: the last definition of each name in the block; kill: every other definition of it.
+    @Override
+    protected void initialize(BasicBlock block, BitSet gen, BitSet kill) {
+        int d = firstDefinition[block.index];
+        for (Instruction instruction : block.instructions) {
+            int v = variables.getId(instruction.getDefinedVariable());
+            if (v < 0) continue;
+            gen.andNot(definitionsOf[v]);
+            kill.or(definitionsOf[v]);
+            gen.set(d++);
+        }
+    }
+
+    public int getDefinitionCount() {
+        return definitions.size();
+    }
+
+    public Instruction getDefinition(int id) {
+        return definitions.get(id);
+    }
+
+    public BasicBlock getDefinitionBlock(int id) {
+        return definitionBlocks.get(id);
+    }
+
+    /**
+     * @return The IDs of all the definitions of {@code variable}. Callers must not modify the set.
+     */
+    public BitSet getDefinitionsOf(Operand variable) {
+        int v = variables.getId(variable);
+        return v >= 0 ? definitionsOf[v] : new BitSet();
+    }
+}
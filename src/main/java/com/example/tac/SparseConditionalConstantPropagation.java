@@ -0,0 +1,251 @@
+package com.example.tac;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Sparse conditional constant propagation (Wegman and Zadeck) over the {@link SsaForm} of a
+ * graph. Every SSA name starts out as "no value yet" and only moves down to a constant and then
+ * to "not constant"; blocks start out as never executed and only become executed when an edge
+ * into them does. A branch whose condition is constant only makes the edge it takes executable,
+ * so assignments on the other side do not spoil the phis where the paths meet.
+ * <p>
+ * Reads of names found constant are replaced by the constant and assignments with a constant
+ * result become copies of it. Conditions become TRUE or FALSE, which the unreachable-code pass
+ * turns into jumps and removes the blocks that are left behind. The work is proportional to the
+ * number of instructions plus the number of times a value is lowered, at most twice per name.
+ */
+public final class SparseConditionalConstantPropagation {
+
+    // "Not constant". Compared by identity, never printed or stored in the program.
+    private static final Operand OVERDEFINED = Operand.string("<no constante>");
+
+    // Where an SSA name is read: instruction (or phi) {@code index} of {@code block}.
+    private static final class Use {
+        final BasicBlock block;
+        final int index;
+        final boolean phi;
+
+        Use(BasicBlock block, int index, boolean phi) {
+            this.block = block;
+            this.index = index;
+            this.phi = phi;
+        }
+    }
+
+    private final SsaForm ssa;
+    private final ControlFlowGraph cfg;
+    private final Map<Operand, Operand> values = new HashMap<>(); // Absent: no value yet
+    private final Map<Operand, List<Use>> uses = new HashMap<>();
+    private final BitSet executable = new BitSet();      // By block index
+    private final BitSet executableEdges = new BitSet(); // By edgeId
+    private final ArrayDeque<BasicBlock[]> flowWorklist = new ArrayDeque<>();
+    private final ArrayDeque<Operand> ssaWorklist = new ArrayDeque<>();
+
+    private SparseConditionalConstantPropagation(SsaForm ssa) {
+        this.ssa = ssa;
+        this.cfg = ssa.getGraph();
+    }
+
+    /**
+     * Propagates constants through {@code cfg}, going in and out of SSA form.
+     * @return true if the program changed.
+     */
+    public static boolean run(ControlFlowGraph cfg) {
+        long before = cfg.getModificationCount();
+        SparseConditionalConstantPropagation sccp = new SparseConditionalConstantPropagation(SsaForm.build(cfg));
+        sccp.solve();
+        sccp.rewrite();
+        sccp.ssa.writeBack();
+        return cfg.getModificationCount() != before;
+    }
+
+    private void solve() {
+        for (BasicBlock block : cfg.getBlocks()) {
+            List<Instruction> phis = ssa.getPhis(block);
+            for (int i = 0; i < phis.size(); i++) {
+                addUses(phis.get(i), new Use(block, i, true));
+            }
+            List<Instruction> code = ssa.getInstructions(block);
+            for (int i = 0; i < code.size(); i++) {
+                addUses(code.get(i), new Use(block, i, false));
+            }
+        }
+
+        flowWorklist.add(new BasicBlock[] {null, cfg.getEntry()});
+        while (!flowWorklist.isEmpty() || !ssaWorklist.isEmpty()) {
+            while (!flowWorklist.isEmpty()) {
+                BasicBlock[] edge = flowWorklist.poll();
+                BasicBlock block = edge[1];
+                if (edge[0] != null) {
+                    int id = edgeId(edge[0], block);
+                    if (executableEdges.get(id)) continue;
+                    executableEdges.set(id);
+                }
+                if (executable.get(block.index)) {
+                    // Only the phis can see a difference from one more incoming edge
+                    visitPhis(block);
+                    continue;
+                }
+                executable.set(block.index);
+                visitPhis(block);
+                List<Instruction> code = ssa.getInstructions(block);
+                for (int i = 0; i < code.size(); i++) {
+                    visit(block, code.get(i));
+                }
+                if (block.getTerminator() == null) {
+                    addSuccessor(block, cfg.next(block));
+                }
+            }
+            while (!ssaWorklist.isEmpty()) {
+                for (Use use : uses.getOrDefault(ssaWorklist.poll(), Collections.emptyList())) {
+                    if (!executable.get(use.block.index)) continue;
+                    if (use.phi) {
+                        visitPhi(use.block, ssa.getPhis(use.block).get(use.index));
+                    } else {
+                        visit(use.block, ssa.getInstructions(use.block).get(use.index));
+                    }
+                }
+            }
+        }
+    }
+
+    private void addUses(Instruction instruction, Use use) {
+        for (int i = 0; i < instruction.getOperandCount(); i++) {
+            Operand operand = instruction.getOperand(i);
+            if (operand.isName()) {
+                uses.computeIfAbsent(operand, k -> new ArrayList<>(2)).add(use);
+            }
+        }
+    }
+
+    // A block has at most two successors, the jump target and the next block, so an edge is
+    // numbered by its source and its position among the source's successors.
+    private static int edgeId(BasicBlock from, BasicBlock to) {
+        return 2 * from.index + from.successors.indexOf(to);
+    }
+
+    private void visitPhis(BasicBlock block) {
+        for (Instruction phi : ssa.getPhis(block)) {
+            visitPhi(block, phi);
+        }
+    }
+
+    // The meet of the operands that arrive along executable edges.
+    private void visitPhi(BasicBlock block, Instruction phi) {
+        Operand result = null;
+        for (int j = 0; j < phi.getOperandCount(); j++) {
+            if (!executableEdges.get(edgeId(block.predecessors.get(j), block))) continue;
+            Operand value = valueOf(phi.getOperand(j));
+            if (value == null) continue;
+            if (result == null) {
+                result = value;
+            } else if (result != value && (result == OVERDEFINED || value == OVERDEFINED || !result.equals(value))) {
+                result = OVERDEFINED;
+            }
+        }
+        lower(phi.getDest(), result);
+    }
+
+    private void visit(BasicBlock block, Instruction instruction) {
+        switch (instruction.getOpcode()) {
+            case COPY:
+                lower(instruction.getDest(), valueOf(instruction.getOperand(0)));
+                break;
+            case READ:
+                lower(instruction.getDest(), OVERDEFINED);
+                break;
+            case IF:
+            case IF_FALSE: {
+                Operand condition = valueOf(instruction.getOperand(0));
+                if (condition == null) break; // No value yet: neither edge is known to run
+                BasicBlock target = cfg.getBlock(instruction.getLabel());
+                if (condition != OVERDEFINED && condition.getKind() == Operand.Kind.BOOLEAN) {
+                    boolean jumps = condition.getBooleanValue() == (instruction.getOpcode() == Opcode.IF);
+                    addSuccessor(block, jumps ? target : cfg.next(block));
+                } else {
+                    addSuccessor(block, target);
+                    addSuccessor(block, cfg.next(block));
+                }
+                break;
+            }
+            case GOTO:
+                addSuccessor(block, cfg.getBlock(instruction.getLabel()));
+                break;
+            default:
+                if (instruction.getOpcode().isBinary()) {
+                    Operand left = valueOf(instruction.getOperand(0));
+                    Operand right = valueOf(instruction.getOperand(1));
+                    if (left == OVERDEFINED || right == OVERDEFINED) {
+                        lower(instruction.getDest(), OVERDEFINED);
+                    } else if (left != null && right != null) {
+                        Operand result = ConstantFolder.fold(instruction.getOpcode(), left, right);
+                        lower(instruction.getDest(), result != null ? result : OVERDEFINED);
+                    }
+                }
+        }
+    }
+
+    private void addSuccessor(BasicBlock block, BasicBlock succ) {
+        if (succ != null && !executableEdges.get(edgeId(block, succ))) {
+            flowWorklist.add(new BasicBlock[] {block, succ});
+        }
+    }
+
+    /**
+     * @return The constant value of {@code operand}, OVERDEFINED, or null if it has no value yet.
+     */
+    private Operand valueOf(Operand operand) {
+        if (!operand.isName()) return operand;
+        // Version 0 is whatever the name held on entry: unknown
+        if (operand.getVersion() == 0) return OVERDEFINED;
+        return values.get(operand);
+    }
+
+    private void lower(Operand name, Operand value) {
+        if (value == null) return;
+        Operand old = values.get(name);
+        if (old == OVERDEFINED || old != null && old.equals(value) && value != OVERDEFINED) return;
+        values.put(name, old == null ? value : OVERDEFINED);
+        ssaWorklist.add(name);
+    }
+
+    private void rewrite() {
+        for (BasicBlock block : cfg.getBlocks()) {
+            if (!executable.get(block.index)) continue;
+            List<Instruction> code = ssa.getInstructions(block);
+            for (int i = 0; i < code.size(); i++) {
+                Instruction instruction = code.get(i);
+                Operand dest = instruction.getDest();
+                Operand result = dest != null && instruction.getOpcode().isBinary() ? constant(dest) : null;
+                if (result != null) {
+                    ssa.setInstruction(block, i, Instruction.copy(dest, result));
+                    continue;
+                }
+                if (instruction.getOperandCount() == 0) continue;
+                Operand[] operands = new Operand[instruction.getOperandCount()];
+                boolean replaced = false;
+                for (int k = 0; k < operands.length; k++) {
+                    Operand value = constant(instruction.getOperand(k));
+                    operands[k] = value != null ? value : instruction.getOperand(k);
+                    replaced |= value != null;
+                }
+                if (replaced) {
+                    ssa.setInstruction(block, i, instruction.withOperands(operands));
+                }
+            }
+        }
+    }
+
+    // The constant a name was proved to hold, or null.
+    private Operand constant(Operand operand) {
+        if (!operand.isName()) return null;
+        Operand value = values.get(operand);
+        return value != null && value != OVERDEFINED ? value : null;
+    }
+}
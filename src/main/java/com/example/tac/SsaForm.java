@@ -0,0 +1,290 @@
+package com.example.tac;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Static single assignment view of a {@link ControlFlowGraph}: every assignment writes a new
+ * version of its variable ({@code x.1}, {@code x.2}, ...), every read names the one version
+ * that reaches it, and where versions meet a PHI picks the one of the edge taken. Version 0 of
+ * a name is the value it has on entry to the program.
+ * <p>
+ * The view keeps its own renamed copy of each block, position for position, plus the phis at
+ * the top of each block; the graph itself is not touched until {@link #writeBack()} leaves SSA
+ * form. Phis are only placed where the variable is live (pruned SSA), using the iterated
+ * dominance frontiers of the assignments. Unreachable blocks are left as they are.
+ */
+public final class SsaForm {
+    private final ControlFlowGraph cfg;
+    private final long modificationCount;
+    private final VariableIndex variables;
+    private final List<List<Instruction>> code;     // Indexed by block index
+    private final List<List<Instruction>> phis;     // Indexed by block index
+
+    private SsaForm(ControlFlowGraph cfg) {
+        this.cfg = cfg;
+        this.modificationCount = cfg.getModificationCount();
+        this.variables = new VariableIndex(cfg);
+        int n = cfg.getBlocks().size();
+        code = new ArrayList<>(n);
+        phis = new ArrayList<>(n);
+        for (BasicBlock block : cfg.getBlocks()) {
+            code.add(new ArrayList<>(block.instructions));
+            phis.add(new ArrayList<>(0));
+        }
+    }
+
+    /**
+     * Puts {@code cfg} in SSA form.
+     */
+    public static SsaForm build(ControlFlowGraph cfg) {
+        SsaForm ssa = new SsaForm(cfg);
+        List<List<Integer>> phiVariables = ssa.placePhis();
+        ssa.rename(phiVariables);
+        return ssa;
+    }
+
+    public ControlFlowGraph getGraph() {
+        return cfg;
+    }
+
+    public List<Instruction> getPhis(BasicBlock block) {
+        return Collections.unmodifiableList(phis.get(block.index));
+    }
+
+    /**
+     * @return The instructions of {@code block} in SSA form, at the same positions as in the
+     *         block.
+     */
+    public List<Instruction> getInstructions(BasicBlock block) {
+        return Collections.unmodifiableList(code.get(block.index));
+    }
+
+    /**
+     * Replaces the {@code i}-th instruction of {@code block}. The replacement must keep the
+     * instruction's role (a terminator stays a terminator, a definition keeps its SSA name).
+     */
+    public void setInstruction(BasicBlock block, int i, Instruction instruction) {
+        code.get(block.index).set(i, instruction);
+    }
+
+    // Cytron et al.: a variable assigned in block X needs a phi in every block of the iterated
+    // dominance frontier of X, if it is live there.
+    private List<List<Integer>> placePhis() {
+        int n = cfg.getBlocks().size();
+        int v = variables.size();
+        List<List<BasicBlock>> definingBlocks = new ArrayList<>(v);
+        for (int i = 0; i < v; i++) {
+            definingBlocks.add(new ArrayList<>(1));
+        }
+        for (BasicBlock block : cfg.getReversePostOrder()) {
+            for (Instruction instruction : block.instructions) {
+                int id = variables.getId(instruction.getDefinedVariable());
+                if (id < 0) continue;
+                List<BasicBlock> blocks = definingBlocks.get(id);
+                if (blocks.isEmpty() || blocks.get(blocks.size() - 1) != block) {
+                    blocks.add(block);
+                }
+            }
+        }
+
+        Liveness liveness = new Liveness(cfg, variables);
+        DominatorTree dominators = cfg.getDominatorTree();
+        List<List<Integer>> phiVariables = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            phiVariables.add(new ArrayList<>(0));
+        }
+        int[] hasPhi = new int[n];   // Last variable given a phi in the block, plus one
+        int[] queued = new int[n];   // Last variable whose worklist held the block, plus one
+        ArrayDeque<BasicBlock> worklist = new ArrayDeque<>();
+        for (int id = 0; id < v; id++) {
+            for (BasicBlock block : definingBlocks.get(id)) {
+                queued[block.index] = id + 1;
+                worklist.add(block);
+            }
+            while (!worklist.isEmpty()) {
+                BasicBlock block = worklist.poll();
+                for (BasicBlock join : dominators.getDominanceFrontier(block)) {
+                    if (hasPhi[join.index] == id + 1 || !liveness.getIn(join).get(id)) continue;
+                    hasPhi[join.index] = id + 1;
+                    phiVariables.get(join.index).add(id);
+                    if (queued[join.index] != id + 1) {
+                        queued[join.index] = id + 1;
+                        worklist.add(join);
+                    }
+                }
+            }
+        }
+        return phiVariables;
+    }
+
+    // Walks the dominator tree keeping, per variable, a stack of the versions visible at the
+    // current block. The walk is iterative: deep nestings of Si make deep trees.
+    private void rename(List<List<Integer>> phiVariables) {
+        int v = variables.size();
+        int[] nextVersion = new int[v];
+        Arrays.fill(nextVersion, 1);
+        List<ArrayDeque<Operand>> current = new ArrayList<>(v);
+        for (int i = 0; i < v; i++) {
+            current.add(new ArrayDeque<>());
+        }
+        // Phi operands are filled in as each predecessor is renamed
+        List<List<Operand[]>> phiOperands = new ArrayList<>(cfg.getBlocks().size());
+        List<List<Operand>> phiDests = new ArrayList<>(cfg.getBlocks().size());
+        for (BasicBlock block : cfg.getBlocks()) {
+            List<Operand[]> operands = new ArrayList<>();
+            for (int id : phiVariables.get(block.index)) {
+                Operand[] incoming = new Operand[block.predecessors.size()];
+                Arrays.fill(incoming, variables.getVariable(id));
+                operands.add(incoming);
+            }
+            phiOperands.add(operands);
+            phiDests.add(new ArrayList<>());
+        }
+
+        DominatorTree dominators = cfg.getDominatorTree();
+        int[] log = new int[16]; // Variables whose stacks were pushed, in order
+        int logSize = 0;
+        ArrayDeque<int[]> frames = new ArrayDeque<>(); // {block index, next child, log size on entry}
+        List<BasicBlock> blocks = cfg.getBlocks();
+        frames.push(new int[] {cfg.getEntry().index, -1, 0});
+        while (!frames.isEmpty()) {
+            int[] frame = frames.peek();
+            BasicBlock block = blocks.get(frame[0]);
+            if (frame[1] < 0) {
+                // First visit: rename the block's phis and instructions
+                frame[1] = 0;
+                frame[2] = logSize;
+                List<Integer> blockPhis = phiVariables.get(block.index);
+                for (int id : blockPhis) {
+                    Operand name = variables.getVariable(id).withVersion(nextVersion[id]++);
+                    current.get(id).push(name);
+                    phiDests.get(block.index).add(name);
+                    if (logSize == log.length) log = Arrays.copyOf(log, logSize * 2);
+                    log[logSize++] = id;
+                }
+                List<Instruction> blockCode = code.get(block.index);
+                for (int i = 0; i < blockCode.size(); i++) {
+                    Instruction instruction = blockCode.get(i);
+                    Instruction renamed = renameUses(instruction, current);
+                    int def = variables.getId(instruction.getDefinedVariable());
+                    if (def >= 0) {
+                        Operand name = variables.getVariable(def).withVersion(nextVersion[def]++);
+                        current.get(def).push(name);
+                        renamed = renamed.withDest(name);
+                        if (logSize == log.length) log = Arrays.copyOf(log, logSize * 2);
+                        log[logSize++] = def;
+                    }
+                    blockCode.set(i, renamed);
+                }
+                // Tell each successor's phis which version leaves along this edge
+                for (BasicBlock succ : block.successors) {
+                    int j = succ.predecessors.indexOf(block);
+                    List<Integer> succPhis = phiVariables.get(succ.index);
+                    for (int k = 0; k < succPhis.size(); k++) {
+                        phiOperands.get(succ.index).get(k)[j] = currentName(succPhis.get(k), current);
+                    }
+                }
+            }
+            List<BasicBlock> children = dominators.getChildren(block);
+            if (frame[1] < children.size()) {
+                frames.push(new int[] {children.get(frame[1]++).index, -1, 0});
+            } else {
+                // Leaving the subtree: its versions are no longer visible
+                while (logSize > frame[2]) {
+                    current.get(log[--logSize]).pop();
+                }
+                frames.pop();
+            }
+        }
+
+        for (BasicBlock block : blocks) {
+            List<Operand> dests = phiDests.get(block.index);
+            List<Operand[]> operands = phiOperands.get(block.index);
+            for (int k = 0; k < dests.size(); k++) {
+                phis.get(block.index).add(Instruction.phi(dests.get(k), Arrays.asList(operands.get(k))));
+            }
+        }
+    }
+
+    private Operand currentName(int id, List<ArrayDeque<Operand>> current) {
+        Operand name = current.get(id).peek();
+        return name != null ? name : variables.getVariable(id);
+    }
+
+    private Instruction renameUses(Instruction instruction, List<ArrayDeque<Operand>> current) {
+        if (instruction.getOperandCount() == 0) return instruction;
+        Operand[] operands = new Operand[instruction.getOperandCount()];
+        for (int i = 0; i < operands.length; i++) {
+            Operand operand = instruction.getOperand(i);
+            int id = variables.getId(operand);
+            operands[i] = id >= 0 ? currentName(id, current) : operand;
+        }
+        return instruction.withOperands(operands);
+    }
+
+    /**
+     * Leaves SSA form: drops the versions and the phis and stores each block back into the
+     * graph, changing only the blocks whose instructions differ from the originals.
+     * <p>
+     * Dropping a phi is only correct while its operands and its result are versions of the
+     * same variable whose lifetimes do not overlap, which holds as long as passes only replace
+     * reads with constants. Any other operand is copied into the variable at the end of the
+     * predecessor it comes from.
+     *
+     * @throws IllegalStateException if the graph changed after SSA construction, or a copy
+     *         would have to go on an edge that leaves a block with two successors.
+     */
+    public void writeBack() {
+        if (cfg.getModificationCount() != modificationCount) {
+            throw new IllegalStateException("el grafo cambió después de construir la forma SSA");
+        }
+        List<BasicBlock> blocks = cfg.getBlocks();
+        List<List<Instruction>> copies = new ArrayList<>(blocks.size());
+        for (int i = 0; i < blocks.size(); i++) {
+            copies.add(new ArrayList<>(0));
+        }
+        for (BasicBlock block : blocks) {
+            for (Instruction phi : phis.get(block.index)) {
+                Operand variable = phi.getDest().withoutVersion();
+                for (int j = 0; j < phi.getOperandCount(); j++) {
+                    Operand value = phi.getOperand(j).withoutVersion();
+                    BasicBlock pred = block.predecessors.get(j);
+                    if (value.equals(variable) || !cfg.isReachable(pred)) continue;
+                    if (pred.successors.size() > 1) {
+                        throw new IllegalStateException("no se puede copiar " + value + " a " + variable
+                                + " en la arista crítica " + pred + " -> " + block);
+                    }
+                    copies.get(pred.index).add(Instruction.copy(variable, value));
+                }
+            }
+        }
+        for (BasicBlock block : blocks) {
+            List<Instruction> blockCode = code.get(block.index);
+            List<Instruction> result = new ArrayList<>(blockCode.size() + copies.get(block.index).size());
+            for (Instruction instruction : blockCode) {
+                result.add(withoutVersions(instruction));
+            }
+            if (!copies.get(block.index).isEmpty()) {
+                int end = block.getTerminator() != null ? result.size() - 1 : result.size();
+                result.addAll(end, copies.get(block.index));
+            }
+            cfg.setInstructions(block, result);
+        }
+    }
+
+    private static Instruction withoutVersions(Instruction instruction) {
+        Operand[] operands = new Operand[instruction.getOperandCount()];
+        boolean versioned = false;
+        for (int i = 0; i < operands.length; i++) {
+            operands[i] = instruction.getOperand(i).withoutVersion();
+            versioned |= operands[i] != instruction.getOperand(i);
+        }
+        Instruction result = versioned ? instruction.withOperands(operands) : instruction;
+        Operand dest = instruction.getDest();
+        return dest != null && dest.getVersion() != 0 ? result.withDest(dest.withoutVersion()) : result;
+    }
+}
@@ -0,0 +1,104 @@
+package com.example.tac;
+
+import java.util.List;
+
+/**
+ * Textual form of the three-address code, as shown in the GUI and the command line. It is only
+ * an output format: nothing reads it back.
+ */
+public final class TacPrinter {
+
+    private TacPrinter() {
+    }
+
+    /**
+     * @return The instructions one per line, without a trailing newline.
+     */
+    public static String print(List<Instruction> code) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < code.size(); i++) {
+            if (i > 0) sb.append('\n');
+            appendLine(sb, code.get(i));
+        }
+        return sb.toString();
+    }
+
+    public static String line(Instruction instruction) {
+        StringBuilder sb = new StringBuilder();
+        appendLine(sb, instruction);
+        return sb.toString();
+    }
+
+    /**
+     * @return The right-hand side of an assignment: {@code y} or {@code a op b}.
+     */
+    public static String source(Instruction assignment) {
+        StringBuilder sb = new StringBuilder();
+        appendSource(sb, assignment);
+        return sb.toString();
+    }
+
+    private static void appendLine(StringBuilder sb, Instruction in) {
+        switch (in.getOpcode()) {
+            case DECLARE:
+                sb.append("DECLARE ").append(in.getDest()).append(' ').append(in.getDeclaredType());
+                break;
+            case LABEL:
+                sb.append(in.getLabel()).append(':');
+                break;
+            case IF:
+                sb.append("IF ").append(in.getOperand(0)).append(" GOTO ").append(in.getLabel());
+                break;
+            case IF_FALSE:
+                sb.append("IFFALSE ").append(in.getOperand(0)).append(" GOTO ").append(in.getLabel());
+                break;
+            case GOTO:
+                sb.append("GOTO ").append(in.getLabel());
+                break;
+            case PRINT:
+                sb.append("PRINT ");
+                appendList(sb, in);
+                break;
+            case READ:
+                sb.append("read ").append(in.getDest());
+                break;
+            case END:
+                sb.append("END");
+                break;
+            case ERROR:
+                sb.append(in.getMessage());
+                break;
+            case PHI:
+                sb.append(in.getDest()).append(" = PHI(");
+                appendList(sb, in);
+                sb.append(')');
+                break;
+            default: // COPY and binary operations
+                sb.append(in.getDest()).append(" = ");
+                appendSource(sb, in);
+        }
+    }
+
+    private static void appendSource(StringBuilder sb, Instruction in) {
+        sb.append(in.getOperand(0));
+        if (in.getOpcode().isBinary()) {
+            sb.append(' ').append(in.getOpcode().getSymbol()).append(' ').append(in.getOperand(1));
+        }
+    }
+
+    /**
+     * @return The items of a PRINT separated by ", ".
+     */
+    public static String items(Instruction print) {
+        StringBuilder sb = new StringBuilder();
+        appendList(sb, print);
+        return sb.toString();
+    }
+
+    private static void appendList(StringBuilder sb, Instruction in) {
+        for (int i = 0; i < in.getOperandCount(); i++) {
+            if (i > 0) sb.append(", ");
+            sb.append(in.getOperand(i));
+        }
+    }
+}
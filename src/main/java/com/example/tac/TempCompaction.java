@@ -0,0 +1,73 @@
+package com.example.tac;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * Memory slots for the temps that do not get a register. The code generator numbers temps in
+ * order of creation, one per operation, so giving each spilled temp its own slot makes the data
+ * section grow with the length of the program; here temps whose live intervals do not overlap
+ * share a slot, and the number of slots is the most spilled temps live at any one point.
+ * <p>
+ * Slots are handed out by a linear scan over the intervals, always reusing the lowest slot
+ * free, and are named like temps ({@code t1}, {@code t2}, ...). The program keeps its temp
+ * names: merging them would join their intervals, and the register allocator would see one
+ * long-lived name where there were several short ones.
+ */
+public final class TempCompaction {
+    private final Map<Operand, Operand> slots = new HashMap<>();
+    private int slotCount;
+
+    private TempCompaction() {
+    }
+
+    /**
+     * Assigns slots to the temps among {@code intervals}, which must be sorted by start as
+     * {@link LinearScanAllocator#getIntervals()} returns them.
+     */
+    public static TempCompaction of(List<LinearScanAllocator.Interval> intervals) {
+        TempCompaction compaction = new TempCompaction();
+        PriorityQueue<LinearScanAllocator.Interval> active =
+                new PriorityQueue<>(Comparator.comparingInt(LinearScanAllocator.Interval::getEnd));
+        PriorityQueue<Integer> free = new PriorityQueue<>();
+        for (LinearScanAllocator.Interval current : intervals) {
+            if (!current.getName().isTemp()) continue;
+            while (!active.isEmpty() && current.canFollow(active.peek())) {
+                free.add(compaction.slots.get(active.poll().getName()).getTempNumber());
+            }
+            int number = free.isEmpty() ? ++compaction.slotCount : free.poll();
+            compaction.slots.put(current.getName(), Operand.temp(number));
+            active.add(current);
+        }
+        return compaction;
+    }
+
+    /**
+     * @return The slot of {@code temp}, or null if it was not among the intervals.
+     */
+    public Operand getSlot(Operand temp) {
+        return slots.get(temp);
+    }
+
+    /**
+     * @return Temps that needed a slot: what the data section held before compaction.
+     */
+    public int getTempsBefore() {
+        return slots.size();
+    }
+
+    /**
+     * @return Slots after compaction: the most of those temps whose live intervals overlap.
+     */
+    public int getTempsAfter() {
+        return slotCount;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("temporales en memoria: %d, espacios: %d", slots.size(), slotCount);
+    }
+}
@@ -0,0 +1,52 @@
+package com.example.tac;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Dense numbering 0..n-1 of the variables and temps of a program, so dataflow facts about them
+ * fit in a {@link java.util.BitSet} indexed by ID.
+ */
+public final class VariableIndex {
+    private final Map<Operand, Integer> ids = new HashMap<>();
+    private final List<Operand> variables = new ArrayList<>();
+
+    /**
+     * Numbers every name an instruction of {@code cfg} reads or assigns, in program order.
+     */
+    public VariableIndex(ControlFlowGraph cfg) {
+        for (BasicBlock block : cfg.getBlocks()) {
+            for (Instruction instruction : block.instructions) {
+                add(instruction.getDefinedVariable());
+                for (int i = 0; i < instruction.getOperandCount(); i++) {
+                    add(instruction.getOperand(i));
+                }
+            }
+        }
+    }
+
+    private void add(Operand operand) {
+        if (operand != null && operand.isName() && !ids.containsKey(operand)) {
+            ids.put(operand, variables.size());
+            variables.add(operand);
+        }
+    }
+
+    /**
+     * @return The ID of {@code operand}, or -1 for constants and names the program never uses.
+     */
+    public int getId(Operand operand) {
+        Integer id = ids.get(operand);
+        return id != null ? id : -1;
+    }
+
+    public Operand getVariable(int id) {
+        return variables.get(id);
+    }
+
+    public int size() {
+        return variables.size();
+    }
+}
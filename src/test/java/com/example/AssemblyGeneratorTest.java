@@ -0,0 +1,109 @@
+package com.example;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import com.example.tac.Instruction;
+import com.example.tac.Operand;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.junit.Test;
+
+public class AssemblyGeneratorTest {
+
+    private static final Pattern MEMORY_OPERAND = Pattern.compile("dword \\[\\w+\\]");
+    private static final Pattern DATA_SLOT = Pattern.compile("(?m)^    \\w+ dd 0$");
+
+    // Fewer values live at once than there are registers: nothing should touch memory.
+    private static final String ARITHMETIC =
+        "Proceso Aritmetica\n"
+        + "Definir a, b, c, d, r Como Entero;\n"
+        + "Leer a;\n"
+        + "Leer b;\n"
+        + "c <- a + b;\n"
+        + "d <- (a - b) * (a + b) - c;\n"
+        + "r <- c * d + a * 3 - b;\n"
+        + "r <- r * r - (c + d) * (a - 7);\n"
+        + "Si r > c Entonces\n"
+        + "    r <- r - c * 2;\n"
+        + "SiNo\n"
+        + "    r <- r + d * b;\n"
+        + "FinSi\n"
+        + "Escribir \"r = \", r, \" d = \", d;\n"
+        + "FinProceso\n";
+
+    @Test
+    public void arithmeticFittingInRegistersUsesNoMemory() {
+        Compiled compiled = compile(ARITHMETIC);
+        assertEquals(compiled.assembly, 0, count(DATA_SLOT, compiled.assembly));
+        assertEquals(compiled.assembly, 0, count(MEMORY_OPERAND, compiled.assembly));
+    }
+
+    @Test
+    public void spillsOnlyWhenRegistersRunOut() {
+        // Twelve values read up front and all printed at the end, so all are live together
+        StringBuilder source = new StringBuilder("Proceso Presion\nDefinir s");
+        for (int i = 1; i <= 12; i++) source.append(", v").append(i);
+        source.append(" Como Entero;\n");
+        for (int i = 1; i <= 12; i++) source.append("Leer v").append(i).append(";\n");
+        source.append("s <- 0;\n");
+        for (int i = 1; i < 12; i++) {
+            source.append("s <- s + v").append(i).append(" * v").append(i + 1).append(" - ").append(i).append(";\n");
+        }
+        source.append("Escribir s");
+        for (int i = 1; i <= 12; i++) source.append(", v").append(i);
+        source.append(";\nFinProceso\n");
+
+        Compiled compiled = compile(source.toString());
+        int slots = count(DATA_SLOT, compiled.assembly);
+        int memoryOperands = count(MEMORY_OPERAND, compiled.assembly);
+        // 13 names live at the end and 8 registers: at least 5 spill, but not all of them
+        assertTrue(compiled.assembly, slots >= 5 && slots < 13);
+        // With every name in memory each read and each assignment was a memory operand
+        int allInMemory = namesAccessed(compiled.optimizedCode);
+        assertTrue(memoryOperands + " memory operands, " + allInMemory + " with every name in memory",
+                memoryOperands * 2 < allInMemory);
+    }
+
+    private static final class Compiled {
+        final List<Instruction> optimizedCode;
+        final String assembly;
+
+        Compiled(List<Instruction> optimizedCode, String assembly) {
+            this.optimizedCode = optimizedCode;
+            this.assembly = assembly;
+        }
+    }
+
+    private static Compiled compile(String source) {
+        Lexer lexer = new Lexer();
+        SyntaxAnalyzer parser = new SyntaxAnalyzer(lexer.tokenize(source).stream());
+        parser.parse();
+        assertTrue(lexer.getErroresLexicos().toString(), lexer.getErroresLexicos().isEmpty());
+        assertTrue(parser.getErroresSintacticos().toString(), parser.getErroresSintacticos().isEmpty());
+        List<Instruction> code = new ThreeAddressCodeGenerator().generate(parser.getAST());
+        List<Instruction> optimized = new CodeOptimizer(code).optimize();
+        String assembly = new AssemblyGenerator(optimized, parser.getTablaDeSimbolos()).generate();
+        return new Compiled(optimized, assembly);
+    }
+
+    private static int namesAccessed(List<Instruction> code) {
+        int count = 0;
+        for (Instruction instruction : code) {
+            for (Operand operand : instruction.getOperands()) {
+                if (operand.isName()) count++;
+            }
+            if (instruction.getDefinedVariable() != null) count++;
+        }
+        return count;
+    }
+
+    private static int count(Pattern pattern, String text) {
+        Matcher matcher = pattern.matcher(text);
+        int count = 0;
+        while (matcher.find()) count++;
+        return count;
+    }
+}
@@ -0,0 +1,141 @@
+package com.example;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class LexerTest {
+
+    // Pieces random inputs are glued from: every token kind, the places where the old regexes
+    // backtracked or looked at a \b, and characters outside ASCII.
+    private static final String[] FRAGMENTS = {
+        "Proceso", "finproceso", "SI", "Entonces", "SiNo", "FinSi", "Definir", "Como", "Entero", "Real",
+        "Logico", "Verdadero", "falso", "Escribir", "Leer", "Y", "o", "NO", "No_", "Sia", "x", "_y",
+        "abc123", "a_b", "ñandu", "é", "á", "1́", "𝒳", "0", "42", "3.14", "1.", "1.x", "7a", ".5",
+        "\"hola\"", "\"a\\\"b\"", "'c'", "'\\\n'", "\"sin cerrar", "\\", "// comentario", "//", "/",
+        "<-", "<=", ">=", "<>", "==", "->", "<", ">", "=", "-", "+", "*", "%", "^", "(", ")", "[", "]",
+        ":", ",", ";", "@", "#", "$", "!", "{", "\t", " ", "\n", "\r\n", "\r", "\u000B", "\f",
+        "\u0085", " ", " ",
+    };
+
+    @Test
+    public void producesTheSameTokensAndErrorsAsTheRegexLexer() {
+        Random random = new Random(1);
+        for (int n = 0; n < 3000; n++) {
+            StringBuilder source = new StringBuilder();
+            int pieces = random.nextInt(40);
+            for (int i = 0; i < pieces; i++) {
+                source.append(FRAGMENTS[random.nextInt(FRAGMENTS.length)]);
+                if (random.nextInt(3) == 0) source.append(' ');
+            }
+            assertSameAsRegexLexer(source.toString());
+        }
+    }
+
+    @Test
+    public void readerInputGivesTheSameTokensAcrossWindowRefills() {
+        // Long enough to refill the 8 KB window many times, with lexemes split at the edges
+        StringBuilder source = new StringBuilder();
+        Random random = new Random(2);
+        while (source.length() < 100_000) {
+            source.append(FRAGMENTS[random.nextInt(FRAGMENTS.length)]).append(' ');
+        }
+        String code = source.toString();
+        List<Token> expected = new Lexer().analyze(code);
+
+        Lexer streaming = new Lexer(new StringReader(code));
+        List<Token> actual = new ArrayList<>();
+        Token token;
+        while ((token = streaming.nextToken()) != null) {
+            actual.add(token);
+        }
+        assertEquals(describe(expected), describe(actual));
+    }
+
+    @Test
+    public void lexingTimeGrowsLinearlyWithTheInput() {
+        String unit = programOfLines(2_000);
+        long single = bestTime(unit, 1);
+        long four = bestTime(unit, 4);
+        long sixteen = bestTime(unit, 16);
+        // Linear time gives ratios near 4; quadratic time (the regex lexer) gives near 16
+        double ratio4 = (double) four / single;
+        double ratio16 = (double) sixteen / four;
+        assertTrue("4x input took " + ratio4 + "x as long", ratio4 < 8);
+        assertTrue("16x input took " + ratio16 + "x as long as 4x", ratio16 < 8);
+    }
+
+    private static void assertSameAsRegexLexer(String code) {
+        RegexLexer reference = new RegexLexer();
+        List<Token> expected = reference.analyze(code);
+        Lexer lexer = new Lexer();
+        List<Token> actual = lexer.analyze(code);
+        String context = "input: " + escape(code);
+        assertEquals(context, describe(expected), describe(actual));
+        assertEquals(context, describeErrors(reference.getErroresLexicos()), describeErrors(lexer.getErroresLexicos()));
+    }
+
+    private static List<String> describe(List<Token> tokens) {
+        List<String> lines = new ArrayList<>(tokens.size());
+        for (Token token : tokens) {
+            lines.add(token.getType() + " " + escape(token.getLexeme()) + " " + token.getPattern()
+                    + " " + token.getLineNumber() + ":" + token.getColumnNumber());
+        }
+        return lines;
+    }
+
+    private static List<String> describeErrors(List<ErrorCompilacion> errors) {
+        List<String> lines = new ArrayList<>(errors.size());
+        for (ErrorCompilacion error : errors) {
+            lines.add(error.getTipoError() + " " + escape(error.getMensaje()) + " " + escape(error.getLexemaProblematico())
+                    + " " + error.getLinea() + ":" + error.getColumna());
+        }
+        return lines;
+    }
+
+    private static String escape(String text) {
+        StringBuilder escaped = new StringBuilder();
+        for (char c : text.toCharArray()) {
+            if (c < 32 || c > 126) {
+                escaped.append(String.format("\\u%04X", (int) c));
+            } else {
+                escaped.append(c);
+            }
+        }
+        return escaped.toString();
+    }
+
+    private static String programOfLines(int lines) {
+        StringBuilder source = new StringBuilder("Proceso Escala\n");
+        for (int i = 0; i < lines; i++) {
+            source.append("    Si (x").append(i).append(" >= 3.5) Y NO listo Entonces\n")
+                  .append("        total <- total + x").append(i).append(" * 2; // acumula\n")
+                  .append("        Escribir \"linea ").append(i).append("\", total;\n")
+                  .append("    FinSi\n");
+        }
+        return source.append("FinProceso\n").toString();
+    }
+
+    // Best of several runs, so JIT warm-up and GC pauses do not count, in nanoseconds.
+    private static long bestTime(String unit, int copies) {
+        StringBuilder source = new StringBuilder(unit.length() * copies);
+        for (int i = 0; i < copies; i++) {
+            source.append(unit);
+        }
+        String code = source.toString();
+        long best = Long.MAX_VALUE;
+        for (int run = 0; run < 7; run++) {
+            long start = System.nanoTime();
+            TokenBuffer tokens = new Lexer().tokenize(code);
+            best = Math.min(best, System.nanoTime() - start);
+            assertTrue(tokens.size() > 0);
+        }
+        return best;
+    }
+}
@@ -0,0 +1,82 @@
+package com.example;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * The regex lexer the DFA in {@link Lexer} replaced, kept as the reference for differential
+ * tests: at every position it tries each pattern in order and takes the first that matches. It
+ * uses the same pattern table as {@link Lexer}, compiled once here; it is quadratic in the input,
+ * so only feed it small inputs.
+ */
+class RegexLexer {
+
+    private static final Map<TokenType, Pattern> PATTERNS = new LinkedHashMap<>();
+    private static final Pattern WHITESPACE = Pattern.compile("[\\s]+");
+
+    static {
+        for (TokenType type : new TokenType[] {TokenType.COMMENT, TokenType.KEYWORD, TokenType.STRING,
+                TokenType.OPERATOR, TokenType.DELIMITER, TokenType.NUMBER, TokenType.IDENTIFIER}) {
+            PATTERNS.put(type, Pattern.compile(Lexer.getPattern(type)));
+        }
+    }
+
+    private final List<ErrorCompilacion> erroresLexicos = new ArrayList<>();
+
+    List<Token> analyze(String code) {
+        erroresLexicos.clear();
+        List<Token> tokens = new ArrayList<>();
+        int currentGlobalPos = 0;
+        int currentLine = 1;
+        int lineStartGlobalPos = 0;
+
+        while (currentGlobalPos < code.length()) {
+            int currentColumn = currentGlobalPos - lineStartGlobalPos + 1;
+            String lexeme = null;
+            TokenType type = null;
+            for (Map.Entry<TokenType, Pattern> entry : PATTERNS.entrySet()) {
+                Matcher matcher = entry.getValue().matcher(code);
+                // With the default opaque bounds \b cannot see before the region, as with the
+                // substring the old lexer matched against
+                matcher.region(currentGlobalPos, code.length());
+                if (matcher.lookingAt()) {
+                    lexeme = matcher.group();
+                    type = entry.getKey();
+                    break;
+                }
+            }
+            if (lexeme == null) {
+                Matcher whitespace = WHITESPACE.matcher(code);
+                whitespace.region(currentGlobalPos, code.length());
+                if (whitespace.lookingAt()) {
+                    lexeme = whitespace.group();
+                }
+            }
+            if (lexeme == null) {
+                String errorLexeme = String.valueOf(code.charAt(currentGlobalPos));
+                erroresLexicos.add(new ErrorCompilacion(ErrorCompilacion.TipoError.LEXICO,
+                        "Caracter no reconocido: '" + errorLexeme + "'", currentLine, currentColumn, errorLexeme));
+                tokens.add(new Token(TokenType.ERROR, errorLexeme, "Error Léxico", currentLine, currentColumn));
+                lexeme = errorLexeme;
+            } else if (type != null && type != TokenType.COMMENT) {
+                tokens.add(new Token(type, lexeme, Lexer.getPattern(type), currentLine, currentColumn));
+            }
+            for (int i = 0; i < lexeme.length(); i++) {
+                if (lexeme.charAt(i) == '\n') {
+                    currentLine++;
+                    lineStartGlobalPos = currentGlobalPos + i + 1;
+                }
+            }
+            currentGlobalPos += lexeme.length();
+        }
+        return tokens;
+    }
+
+    List<ErrorCompilacion> getErroresLexicos() {
+        return erroresLexicos;
+    }
+}
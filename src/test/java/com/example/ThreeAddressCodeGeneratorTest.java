@@ -0,0 +1,144 @@
+package com.example;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import com.example.tac.Instruction;
+import com.example.tac.TacPrinter;
+import java.util.List;
+
+import org.junit.Test;
+
+public class ThreeAddressCodeGeneratorTest {
+
+    private static final String DECLARACIONES =
+        "Definir a, b Como Entero;\n"
+        + "Definir p, q Como Logico;\n"
+        + "Leer a;\n"
+        + "Leer b;\n";
+
+    // What every program below starts with.
+    private static final String PROLOGO =
+        "DECLARE a ENTERO\n"
+        + "DECLARE b ENTERO\n"
+        + "DECLARE p BOOLEAN\n"
+        + "DECLARE q BOOLEAN\n"
+        + "read a\n"
+        + "read b\n";
+
+    @Test
+    public void yJumpsToElseWhenTheLeftOperandIsFalse() {
+        // L1 starts the right operand, L2 the then-block and L3 the else-block
+        assertEquals(PROLOGO
+            + "t1 = a > 0\n"
+            + "IF t1 GOTO L1\n"
+            + "GOTO L3\n"
+            + "L1:\n"
+            + "t2 = b > 0\n"
+            + "IF t2 GOTO L2\n"
+            + "GOTO L3\n"
+            + "L2:\n"
+            + "PRINT \"si\"\n"
+            + "GOTO L4\n"
+            + "L3:\n"
+            + "PRINT \"no\"\n"
+            + "GOTO L4\n"
+            + "L4:\n"
+            + "END",
+            tac(siSiNo("a > 0 Y b > 0")));
+    }
+
+    @Test
+    public void oJumpsToThenWhenTheLeftOperandIsTrue() {
+        assertEquals(PROLOGO
+            + "t1 = a > 0\n"
+            + "IF t1 GOTO L2\n"
+            + "GOTO L1\n"
+            + "L1:\n"
+            + "t2 = b > 0\n"
+            + "IF t2 GOTO L2\n"
+            + "GOTO L3\n"
+            + "L2:\n"
+            + "PRINT \"si\"\n"
+            + "GOTO L4\n"
+            + "L3:\n"
+            + "PRINT \"no\"\n"
+            + "GOTO L4\n"
+            + "L4:\n"
+            + "END",
+            tac(siSiNo("a > 0 O b > 0")));
+    }
+
+    @Test
+    public void noSwapsWhereTheConditionJumps() {
+        // The comparison being true leads to the else-block
+        assertEquals(PROLOGO
+            + "t1 = a > b\n"
+            + "IF t1 GOTO L2\n"
+            + "GOTO L1\n"
+            + "L1:\n"
+            + "PRINT \"si\"\n"
+            + "GOTO L3\n"
+            + "L2:\n"
+            + "PRINT \"no\"\n"
+            + "GOTO L3\n"
+            + "L3:\n"
+            + "END",
+            tac(siSiNo("NO (a > b)")));
+    }
+
+    @Test
+    public void yBindsTighterThanO() {
+        // a > 0 O (b > 0 Y a < b): a true left operand of O skips the whole conjunction
+        assertEquals(PROLOGO
+            + "t1 = a > 0\n"
+            + "IF t1 GOTO L3\n"
+            + "GOTO L1\n"
+            + "L1:\n"
+            + "t2 = b > 0\n"
+            + "IF t2 GOTO L2\n"
+            + "GOTO L5\n"
+            + "L2:\n"
+            + "t3 = a < b\n"
+            + "IF t3 GOTO L3\n"
+            + "GOTO L5\n"
+            + "L3:\n"
+            + "PRINT \"si\"\n"
+            + "GOTO L5\n"
+            + "L5:\n"
+            + "END",
+            tac("Si a > 0 O b > 0 Y a < b Entonces\nEscribir \"si\";\nFinSi\n"));
+    }
+
+    @Test
+    public void logicalOperatorsInAnAssignmentEvaluateBothOperands() {
+        assertEquals(PROLOGO
+            + "t1 = a > 0\n"
+            + "t2 = b > 0\n"
+            + "t3 = t1 Y t2\n"
+            + "p = t3\n"
+            + "t4 = a > 0\n"
+            + "t5 = b > 0\n"
+            + "t6 = t4 O t5\n"
+            + "q = t6\n"
+            + "t7 = p == FALSE\n"
+            + "p = t7\n"
+            + "END",
+            tac("p <- a > 0 Y b > 0;\nq <- a > 0 O b > 0;\np <- NO p;\n"));
+    }
+
+    private static String siSiNo(String condicion) {
+        return "Si " + condicion + " Entonces\nEscribir \"si\";\nSiNo\nEscribir \"no\";\nFinSi\n";
+    }
+
+    private static String tac(String sentencias) {
+        String fuente = "Proceso P\n" + DECLARACIONES + sentencias + "FinProceso\n";
+        Lexer lexer = new Lexer();
+        SyntaxAnalyzer parser = new SyntaxAnalyzer(lexer.tokenize(fuente).stream());
+        parser.parse();
+        assertTrue(lexer.getErroresLexicos().toString(), lexer.getErroresLexicos().isEmpty());
+        assertTrue(parser.getErroresSintacticos().toString(), parser.getErroresSintacticos().isEmpty());
+        List<Instruction> code = new ThreeAddressCodeGenerator().generate(parser.getAST());
+        return TacPrinter.print(code);
+    }
+}
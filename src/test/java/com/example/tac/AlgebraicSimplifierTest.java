@@ -0,0 +1,212 @@
+package com.example.tac;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class AlgebraicSimplifierTest {
+
+    private static final Operand X = Operand.variable("x");
+    private static final Operand T1 = Operand.temp(1);
+
+    private static final int[] EDGE_VALUES = {
+        0, 1, -1, 2, -2, 3, -3, 7, -7, 8, -8, 9, -9, 15, -15, 16, -16, 17, -17, 1023, -1023, 1024, -1025,
+        Integer.MAX_VALUE, Integer.MAX_VALUE - 1, Integer.MIN_VALUE, Integer.MIN_VALUE + 1,
+        1 << 30, -(1 << 30), (1 << 30) + 1, -(1 << 30) - 1,
+    };
+
+    @Test
+    public void divisionByPowerOfTwoTruncatesTowardsZero() {
+        for (int k = 1; k <= 30; k++) {
+            List<Instruction> code = simplify(Opcode.DIV, X, Operand.integer(1 << k));
+            assertFalse("x / " + (1 << k) + " still divides: " + code, contains(code, Opcode.DIV));
+            assertSameResults(code, Opcode.DIV, 1 << k, false);
+        }
+    }
+
+    @Test
+    public void divisionByOneAndMinusOne() {
+        List<Instruction> byOne = simplify(Opcode.DIV, X, Operand.integer(1));
+        assertEquals(Collections.singletonList(Instruction.copy(T1, X)), body(byOne));
+        List<Instruction> byMinusOne = simplify(Opcode.DIV, X, Operand.integer(-1));
+        assertEquals(Collections.singletonList(Instruction.binary(Opcode.SUB, T1, Operand.integer(0), X)), body(byMinusOne));
+        // MIN_VALUE / -1 overflows back to MIN_VALUE, and so does 0 - MIN_VALUE
+        assertSameResults(byMinusOne, Opcode.DIV, -1, false);
+    }
+
+    @Test
+    public void otherDivisorsAreLeftAlone() {
+        for (int divisor : new int[] {3, -2, -8, 6, Integer.MIN_VALUE}) {
+            List<Instruction> code = simplify(Opcode.DIV, X, Operand.integer(divisor));
+            assertEquals(Collections.singletonList(Instruction.binary(Opcode.DIV, T1, X, Operand.integer(divisor))), body(code));
+        }
+    }
+
+    @Test
+    public void multiplicationBecomesAdditionAndShifts() {
+        assertEquals(Collections.singletonList(Instruction.binary(Opcode.ADD, T1, X, X)),
+                body(simplify(Opcode.MUL, X, Operand.integer(2))));
+        assertEquals(Collections.singletonList(Instruction.binary(Opcode.ADD, T1, X, X)),
+                body(simplify(Opcode.MUL, Operand.integer(2), X)));
+        assertEquals(Collections.singletonList(Instruction.binary(Opcode.SHL, T1, X, Operand.integer(3))),
+                body(simplify(Opcode.MUL, Operand.integer(8), X)));
+        assertEquals(Collections.singletonList(Instruction.binary(Opcode.SUB, T1, Operand.integer(0), X)),
+                body(simplify(Opcode.MUL, X, Operand.integer(-1))));
+        assertEquals(Collections.singletonList(Instruction.copy(T1, Operand.integer(0))),
+                body(simplify(Opcode.MUL, X, Operand.integer(0))));
+        assertEquals(Collections.singletonList(Instruction.copy(T1, X)),
+                body(simplify(Opcode.MUL, Operand.integer(1), X)));
+    }
+
+    @Test
+    public void multiplicationKeepsWrappingResults() {
+        int[] factors = {0, 1, -1, 2, 4, 8, 1 << 16, 1 << 30, 3, -4, Integer.MIN_VALUE};
+        for (int factor : factors) {
+            assertSameResults(simplify(Opcode.MUL, X, Operand.integer(factor)), Opcode.MUL, factor, false);
+            assertSameResults(simplify(Opcode.MUL, Operand.integer(factor), X), Opcode.MUL, factor, true);
+        }
+    }
+
+    @Test
+    public void identitiesOnIntegers() {
+        assertEquals(Collections.singletonList(Instruction.copy(T1, X)), body(simplify(Opcode.ADD, Operand.integer(0), X)));
+        assertEquals(Collections.singletonList(Instruction.copy(T1, X)), body(simplify(Opcode.SUB, X, Operand.integer(0))));
+        assertEquals(Collections.singletonList(Instruction.copy(T1, Operand.integer(0))), body(simplify(Opcode.SUB, X, X)));
+        assertEquals(Collections.singletonList(Instruction.copy(T1, Operand.TRUE)), body(simplify(Opcode.LE, X, X)));
+        assertEquals(Collections.singletonList(Instruction.copy(T1, Operand.FALSE)), body(simplify(Opcode.LT, X, X)));
+    }
+
+    @Test
+    public void realOperandsAreLeftAlone() {
+        Operand r = Operand.variable("r");
+        List<Instruction> code = new ArrayList<>(Arrays.asList(
+                Instruction.declare(r, "REAL"),
+                Instruction.read(r)));
+        Opcode[] opcodes = {Opcode.ADD, Opcode.SUB, Opcode.MUL, Opcode.MUL, Opcode.MUL, Opcode.DIV, Opcode.DIV, Opcode.SUB, Opcode.EQ};
+        Operand[] rights = {Operand.integer(0), Operand.integer(0), Operand.integer(0), Operand.integer(1),
+                Operand.integer(8), Operand.integer(4), Operand.integer(-1), r, r};
+        for (int i = 0; i < opcodes.length; i++) {
+            code.add(Instruction.binary(opcodes[i], Operand.temp(i + 1), r, rights[i]));
+            code.add(Instruction.print(Collections.singletonList(Operand.temp(i + 1))));
+        }
+        code.add(Instruction.end());
+        assertUnchanged(code);
+    }
+
+    @Test
+    public void integerVariableGivenARealIsLeftAlone() {
+        assertUnchanged(Arrays.asList(
+                Instruction.declare(X, "ENTERO"),
+                Instruction.copy(X, Operand.real(2.5)),
+                Instruction.binary(Opcode.MUL, T1, X, Operand.integer(4)),
+                Instruction.binary(Opcode.DIV, Operand.temp(2), T1, Operand.integer(2)),
+                Instruction.print(Arrays.asList(T1, Operand.temp(2))),
+                Instruction.end()));
+    }
+
+    private static void assertUnchanged(List<Instruction> code) {
+        ControlFlowGraph cfg = ControlFlowGraph.build(code);
+        assertFalse(AlgebraicSimplifier.withDefaultRules().run(cfg, cfg.getBlocks()));
+        assertEquals(code, cfg.toInstructions());
+    }
+
+    // DECLARE x ENTERO; read x; t1 = left op right; PRINT t1; END, after the simplifier.
+    private static List<Instruction> simplify(Opcode opcode, Operand left, Operand right) {
+        ControlFlowGraph cfg = ControlFlowGraph.build(Arrays.asList(
+                Instruction.declare(X, "ENTERO"),
+                Instruction.read(X),
+                Instruction.binary(opcode, T1, left, right),
+                Instruction.print(Collections.singletonList(T1)),
+                Instruction.end()));
+        AlgebraicSimplifier.withDefaultRules().run(cfg, cfg.getBlocks());
+        return cfg.toInstructions();
+    }
+
+    // What the simplifier put in place of t1 = left op right.
+    private static List<Instruction> body(List<Instruction> code) {
+        return code.subList(2, code.size() - 2);
+    }
+
+    private static boolean contains(List<Instruction> code, Opcode opcode) {
+        for (Instruction instruction : code) {
+            if (instruction.getOpcode() == opcode) return true;
+        }
+        return false;
+    }
+
+    // Runs the rewritten code on the edge values and on random ones and compares with Java's
+    // int arithmetic, which wraps and truncates like the generated idiv and imul.
+    private static void assertSameResults(List<Instruction> code, Opcode opcode, int constant, boolean constantFirst) {
+        Random random = new Random(constant);
+        List<Integer> inputs = new ArrayList<>();
+        for (int value : EDGE_VALUES) {
+            inputs.add(value);
+        }
+        for (int i = 0; i < 200; i++) {
+            inputs.add(random.nextInt());
+        }
+        for (int x : inputs) {
+            int left = constantFirst ? constant : x;
+            int right = constantFirst ? x : constant;
+            int expected = opcode == Opcode.DIV ? left / right : left * right;
+            assertEquals(left + " " + opcode.getSymbol() + " " + right + " with " + code, expected, run(code, x));
+        }
+    }
+
+    // Straight-line interpreter for the integer instructions the rules produce; returns what
+    // the PRINT shows.
+    private static int run(List<Instruction> code, int input) {
+        Map<Operand, Integer> values = new HashMap<>();
+        for (Instruction instruction : code) {
+            switch (instruction.getOpcode()) {
+                case READ:
+                    values.put(instruction.getDest(), input);
+                    break;
+                case COPY:
+                    values.put(instruction.getDest(), value(instruction.getOperand(0), values));
+                    break;
+                case PRINT:
+                    return value(instruction.getOperand(0), values);
+                case DECLARE:
+                case END:
+                    break;
+                default:
+                    int a = value(instruction.getOperand(0), values);
+                    int b = value(instruction.getOperand(1), values);
+                    values.put(instruction.getDest(), evaluate(instruction.getOpcode(), a, b));
+                    break;
+            }
+        }
+        throw new AssertionError("No PRINT in " + code);
+    }
+
+    private static int evaluate(Opcode opcode, int a, int b) {
+        switch (opcode) {
+            case ADD: return a + b;
+            case SUB: return a - b;
+            case MUL: return a * b;
+            case DIV: return a / b;
+            case SHL: return a << b;
+            case SHR: return a >> b;
+            case USHR: return a >>> b;
+            default: throw new AssertionError("Unexpected " + opcode);
+        }
+    }
+
+    private static int value(Operand operand, Map<Operand, Integer> values) {
+        if (operand.getKind() == Operand.Kind.INTEGER) return operand.getIntValue();
+        Integer value = values.get(operand);
+        assertTrue(operand + " read before it is assigned", value != null);
+        return value;
+    }
+}
@@ -0,0 +1,113 @@
+package com.example.tac;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.Test;
+
+public class BlockLayoutTest {
+
+    private static final Operand C = Operand.variable("c");
+
+    @Test
+    public void jumpsGoPastChainsOfGotos() {
+        List<Instruction> code = new ArrayList<>(Arrays.asList(
+                Instruction.read(C),
+                Instruction.ifGoto(C, "L1"),
+                print("no"),
+                Instruction.end()));
+        code.addAll(forwarding("L1", "L2"));
+        code.addAll(forwarding("L2", "L3"));
+        code.add(Instruction.label("L3"));
+        code.add(print("si"));
+        code.add(Instruction.end());
+
+        for (String target : jumpTargets(layout(code))) {
+            assertEquals("L3", target);
+        }
+    }
+
+    @Test
+    public void loopOfGotosStaysALoop() {
+        List<Instruction> code = new ArrayList<>(Arrays.asList(
+                Instruction.read(C),
+                Instruction.ifGoto(C, "L1"),
+                print("fin"),
+                Instruction.end()));
+        code.addAll(forwarding("L1", "L2"));
+        code.addAll(forwarding("L2", "L3"));
+        code.addAll(forwarding("L3", "L1"));
+
+        Set<String> loop = new HashSet<>(Arrays.asList("L1", "L2", "L3"));
+        List<String> targets = jumpTargets(layout(code));
+        assertEquals(4, targets.size());
+        assertTrue(targets.toString(), loop.containsAll(targets));
+    }
+
+    @Test
+    public void threadingTimeGrowsLinearlyWithTheChain() {
+        long small = bestTime(4_000);
+        long large = bestTime(16_000);
+        // Walking the rest of the chain from every jump made this ratio near 16
+        double ratio = (double) large / small;
+        assertTrue("4x the jumps took " + ratio + "x as long", ratio < 8);
+    }
+
+    // read c; IF c GOTO F0; ...; IF c GOTO F(n-1); END; F0: GOTO F1; ...; F(n-1): GOTO FIN;
+    // FIN: PRINT; END
+    private static long bestTime(int n) {
+        List<Instruction> code = new ArrayList<>();
+        code.add(Instruction.read(C));
+        for (int i = 0; i < n; i++) {
+            code.add(Instruction.ifGoto(C, "F" + i));
+        }
+        code.add(Instruction.end());
+        for (int i = 0; i < n; i++) {
+            code.addAll(forwarding("F" + i, i + 1 < n ? "F" + (i + 1) : "FIN"));
+        }
+        code.add(Instruction.label("FIN"));
+        code.add(print("fin"));
+        code.add(Instruction.end());
+
+        long best = Long.MAX_VALUE;
+        for (int run = 0; run < 5; run++) {
+            ControlFlowGraph cfg = ControlFlowGraph.build(code);
+            long start = System.nanoTime();
+            BlockLayout.run(cfg);
+            best = Math.min(best, System.nanoTime() - start);
+            assertEquals(Collections.nCopies(2 * n, "FIN"), jumpTargets(cfg.toInstructions()));
+        }
+        return best;
+    }
+
+    private static List<Instruction> layout(List<Instruction> code) {
+        ControlFlowGraph cfg = ControlFlowGraph.build(code);
+        BlockLayout.run(cfg);
+        return cfg.toInstructions();
+    }
+
+    private static List<Instruction> forwarding(String label, String target) {
+        return Arrays.asList(Instruction.label(label), Instruction.gotoLabel(target));
+    }
+
+    private static Instruction print(String text) {
+        return Instruction.print(Collections.singletonList(Operand.string("\"" + text + "\"")));
+    }
+
+    private static List<String> jumpTargets(List<Instruction> code) {
+        List<String> targets = new ArrayList<>();
+        for (Instruction instruction : code) {
+            if (instruction.isJump()) {
+                targets.add(instruction.getLabel());
+            }
+        }
+        return targets;
+    }
+}